@@ -0,0 +1,131 @@
+package com.hillogy.LibraryManagement.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hillogy.LibraryManagement.LibraryManagementApplication;
+import com.hillogy.LibraryManagement.controller.BookController;
+import com.hillogy.LibraryManagement.index.BookIndexSynchronizer;
+import com.hillogy.LibraryManagement.repository.BookRepository;
+import com.hillogy.LibraryManagement.service.LibraryService;
+import com.hillogy.LibraryManagement.service.UserService;
+
+/**
+ * Estado compartido por los benchmarks: arranca el contexto de Spring sin servidor web
+ * sobre una base de datos H2 en memoria y la siembra con {@code catalogueSize} libros.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+public class CatalogueState {
+
+	private static final String[] WORDS = { "soledad", "amor", "tiempo", "cólera", "ciudad", "perros", "casa",
+			"espíritus", "sombra", "viento", "laberinto", "jardín", "noche", "mar", "guerra", "paz" };
+
+	private static final int AUTHORS = 5000;
+	private static final int SEED_BATCH_SIZE = 10000;
+
+	@Param({ "10000", "100000", "1000000" })
+	public int catalogueSize;
+
+	public ConfigurableApplicationContext context;
+	public LibraryService libraryService;
+	public UserService userService;
+	public BookRepository bookRepository;
+	public BookController bookController;
+	public ObjectMapper objectMapper;
+
+	/**
+	 * Arranca la aplicación, siembra el catálogo por JDBC y reconstruye los índices en memoria.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringApplicationBuilder(LibraryManagementApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties("spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_ON_EXIT=FALSE", "logging.level.root=warn",
+						"spring.h2.console.enabled=false")
+				.run();
+		libraryService = context.getBean(LibraryService.class);
+		userService = context.getBean(UserService.class);
+		bookRepository = context.getBean(BookRepository.class);
+		bookController = context.getBean(BookController.class);
+		objectMapper = context.getBean(ObjectMapper.class);
+
+		seed(context, catalogueSize);
+	}
+
+	/**
+	 * Cierra el contexto de Spring al terminar la prueba.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	/**
+	 * Siembra el catálogo por JDBC con {@code catalogueSize} libros y reconstruye los índices en memoria.
+	 *
+	 * @param context el contexto de Spring ya arrancado
+	 * @param catalogueSize el número de libros a sembrar
+	 */
+	public static void seed(ConfigurableApplicationContext context, int catalogueSize) {
+		JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+		List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+		for (long iSBN = 1; iSBN <= catalogueSize; iSBN++) {
+			batch.add(new Object[] { iSBN, title(iSBN), author(iSBN), true });
+			if (batch.size() == SEED_BATCH_SIZE) {
+				jdbcTemplate.batchUpdate("INSERT INTO tb_books (isbn, title, author, available) VALUES (?, ?, ?, ?)", batch);
+				batch.clear();
+			}
+		}
+		if (!batch.isEmpty()) {
+			jdbcTemplate.batchUpdate("INSERT INTO tb_books (isbn, title, author, available) VALUES (?, ?, ?, ?)", batch);
+		}
+		jdbcTemplate.execute("ALTER SEQUENCE tb_books_seq RESTART WITH " + (catalogueSize + 1));
+		context.getBean(BookIndexSynchronizer.class).rebuild();
+	}
+
+	/**
+	 * Devuelve un ISBN existente elegido al azar.
+	 *
+	 * @return un ISBN entre 1 y catalogueSize
+	 */
+	public long randomISBN() {
+		return ThreadLocalRandom.current().nextLong(1, catalogueSize + 1);
+	}
+
+	/**
+	 * Devuelve el título sembrado para un ISBN.
+	 *
+	 * @param iSBN el ISBN del libro
+	 * @return el título del libro
+	 */
+	public static String title(long iSBN) {
+		return "El " + WORDS[(int) (iSBN % WORDS.length)] + " y la " + WORDS[(int) ((iSBN / WORDS.length) % WORDS.length)]
+				+ " " + iSBN;
+	}
+
+	/**
+	 * Devuelve el autor sembrado para un ISBN.
+	 *
+	 * @param iSBN el ISBN del libro
+	 * @return el autor del libro
+	 */
+	public static String author(long iSBN) {
+		return "Autor " + (iSBN % AUTHORS);
+	}
+}
@@ -0,0 +1,70 @@
+package com.hillogy.LibraryManagement.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark de extremo a extremo con muchos clientes concurrentes contra el servidor HTTP.
+ * Cada operación es una ráfaga en la que {@code clients} clientes, cada uno con su propia conexión,
+ * hacen {@link #REQUESTS_PER_CLIENT} peticiones seguidas que mezclan páginas del catálogo (consultas a la
+ * base de datos) y consultas por ISBN (resueltas casi siempre por la caché). Las peticiones por segundo son
+ * {@code clients * REQUESTS_PER_CLIENT} dividido entre el tiempo de la ráfaga.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ConcurrentClientsBenchmark {
+
+	private static final int REQUESTS_PER_CLIENT = 5;
+	private static final int PAGE_SIZE = 20;
+
+	@Benchmark
+	public void burst(HttpServerState state) {
+		CompletableFuture<?>[] clients = new CompletableFuture<?>[state.clients];
+		for (int i = 0; i < clients.length; i++) {
+			clients[i] = client(state, REQUESTS_PER_CLIENT);
+		}
+		CompletableFuture.allOf(clients).join();
+	}
+
+	/**
+	 * Simula un cliente que lanza sus peticiones una detrás de otra, esperando cada respuesta.
+	 */
+	private static CompletableFuture<Void> client(HttpServerState state, int remaining) {
+		if (remaining == 0) {
+			return CompletableFuture.completedFuture(null);
+		}
+		HttpRequest request = HttpRequest.newBuilder(nextUri(state)).GET().build();
+		return state.client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenCompose(response -> {
+			if (response.statusCode() != 200) {
+				throw new IllegalStateException("Respuesta " + response.statusCode() + " para " + request.uri());
+			}
+			return client(state, remaining - 1);
+		});
+	}
+
+	private static URI nextUri(HttpServerState state) {
+		long iSBN = state.randomISBN();
+		if (ThreadLocalRandom.current().nextBoolean()) {
+			return URI.create(state.baseUri + "/library/search/page?size=" + PAGE_SIZE + "&after=" + iSBN);
+		}
+		return URI.create(state.baseUri + "/library/search?isbn=" + iSBN);
+	}
+}
@@ -0,0 +1,80 @@
+package com.hillogy.LibraryManagement.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.hillogy.LibraryManagement.LibraryManagementApplication;
+
+/**
+ * Estado de los benchmarks HTTP: arranca la aplicación con Tomcat en un puerto libre y siembra
+ * el catálogo.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+public class HttpServerState {
+
+	@Param({ "1000", "2000" })
+	public int clients;
+
+	@Param({ "10000" })
+	public int catalogueSize;
+
+	public ConfigurableApplicationContext context;
+	public HttpClient client;
+	public URI baseUri;
+
+	private ExecutorService clientExecutor;
+
+	/**
+	 * Arranca el servidor y prepara el cliente HTTP que simula a los usuarios.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringApplicationBuilder(LibraryManagementApplication.class)
+				.web(WebApplicationType.SERVLET)
+				.properties("server.port=0",
+						"spring.datasource.url=jdbc:h2:mem:benchmark-http;DB_CLOSE_ON_EXIT=FALSE", "logging.level.root=warn",
+						"spring.h2.console.enabled=false")
+				.run();
+		CatalogueState.seed(context, catalogueSize);
+
+		String port = context.getEnvironment().getProperty("local.server.port");
+		baseUri = URI.create("http://localhost:" + port + "/api/v1/books");
+		// El cliente sólo gestiona las respuestas; las conexiones abiertas no dependen de sus hilos
+		clientExecutor = Executors.newFixedThreadPool(4);
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clientExecutor).build();
+	}
+
+	/**
+	 * Cierra el servidor y el cliente al terminar la prueba.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		clientExecutor.shutdownNow();
+		context.close();
+	}
+
+	/**
+	 * Devuelve un ISBN existente elegido al azar.
+	 *
+	 * @return un ISBN entre 1 y catalogueSize
+	 */
+	public long randomISBN() {
+		return ThreadLocalRandom.current().nextLong(1, catalogueSize + 1);
+	}
+}
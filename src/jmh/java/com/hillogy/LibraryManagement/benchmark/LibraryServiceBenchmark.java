@@ -0,0 +1,80 @@
+package com.hillogy.LibraryManagement.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.PageRequest;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.dto.BookPageDTO;
+import com.hillogy.LibraryManagement.exception.BookNotFoundException;
+
+/**
+ * Benchmarks de las lecturas de LibraryService y de las consultas del repositorio que las respaldan.
+ * Las parejas de métodos repository... y service... permiten aislar el coste de la capa de servicio.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LibraryServiceBenchmark {
+
+	private static final int PAGE_SIZE = 100;
+
+	@Benchmark
+	public List<BookDTO> getAllBooks(CatalogueState state) {
+		return state.libraryService.getAllBooks();
+	}
+
+	@Benchmark
+	public void streamAllBooks(CatalogueState state, Blackhole blackhole) {
+		state.libraryService.streamAllBooks(blackhole::consume);
+	}
+
+	@Benchmark
+	public List<BookDTO> repositoryPage(CatalogueState state) {
+		return state.bookRepository.findNextPage(state.randomISBN(), PageRequest.of(0, PAGE_SIZE));
+	}
+
+	@Benchmark
+	public BookPageDTO servicePage(CatalogueState state) {
+		return state.libraryService.getBooksPage(state.randomISBN(), PAGE_SIZE);
+	}
+
+	@Benchmark
+	public BookDTO getBookByISBN(CatalogueState state) throws BookNotFoundException {
+		return state.libraryService.getBookByISBN(state.randomISBN());
+	}
+
+	@Benchmark
+	public List<BookDTO> repositorySearchByTitle(CatalogueState state) {
+		return state.bookRepository.findByTitleContainingIgnoreCase(CatalogueState.title(state.randomISBN()));
+	}
+
+	@Benchmark
+	public List<BookDTO> serviceSearchByTitle(CatalogueState state) {
+		return state.libraryService.searchBooksByTitle(CatalogueState.title(state.randomISBN()));
+	}
+
+	@Benchmark
+	public List<BookDTO> repositorySearchByAuthor(CatalogueState state) {
+		return state.bookRepository.findByAuthorContainingIgnoreCase(CatalogueState.author(state.randomISBN()));
+	}
+
+	@Benchmark
+	public List<BookDTO> serviceSearchByAuthor(CatalogueState state) {
+		return state.libraryService.searchBooksByAuthor(CatalogueState.author(state.randomISBN()));
+	}
+}
@@ -0,0 +1,92 @@
+package com.hillogy.LibraryManagement.benchmark;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hillogy.LibraryManagement.dto.BookPageDTO;
+
+/**
+ * Benchmarks de la serialización de las respuestas del controlador:
+ * una página de libros en JSON, CBOR y Smile con los ObjectMapper de la aplicación
+ * y el catálogo completo escrito en streaming por BookController.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SerializationBenchmark {
+
+	/**
+	 * Página de libros precargada para medir sólo la serialización.
+	 */
+	@State(Scope.Benchmark)
+	public static class PageState {
+
+		public BookPageDTO page;
+		public ObjectMapper cborMapper;
+		public ObjectMapper smileMapper;
+
+		@Setup(Level.Trial)
+		public void setUp(CatalogueState catalogue) {
+			page = catalogue.libraryService.getBooksPage(null, 1000);
+			cborMapper = catalogue.context.getBean(MappingJackson2CborHttpMessageConverter.class).getObjectMapper();
+			smileMapper = catalogue.context.getBean(MappingJackson2SmileHttpMessageConverter.class).getObjectMapper();
+		}
+	}
+
+	@Benchmark
+	public byte[] serializePage(CatalogueState catalogue, PageState state) throws JsonProcessingException {
+		return catalogue.objectMapper.writeValueAsBytes(state.page);
+	}
+
+	@Benchmark
+	public byte[] serializePageCbor(PageState state) throws JsonProcessingException {
+		return state.cborMapper.writeValueAsBytes(state.page);
+	}
+
+	@Benchmark
+	public byte[] serializePageSmile(PageState state) throws JsonProcessingException {
+		return state.smileMapper.writeValueAsBytes(state.page);
+	}
+
+	@Benchmark
+	public void streamCatalogue(CatalogueState catalogue) throws Exception {
+		catalogue.bookController.streamBooks(request(MediaType.APPLICATION_JSON)).getBody().writeTo(OutputStream.nullOutputStream());
+	}
+
+	@Benchmark
+	public void streamCatalogueCbor(CatalogueState catalogue) throws Exception {
+		catalogue.bookController.streamBooks(request(MediaType.APPLICATION_CBOR)).getBody().writeTo(OutputStream.nullOutputStream());
+	}
+
+	private static ServletWebRequest request(MediaType accept) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/books/library/search/stream");
+		request.addHeader(HttpHeaders.ACCEPT, accept.toString());
+		return new ServletWebRequest(request);
+	}
+}
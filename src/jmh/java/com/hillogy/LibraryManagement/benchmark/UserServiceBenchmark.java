@@ -0,0 +1,47 @@
+package com.hillogy.LibraryManagement.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.exception.BookAlreadyBorrowedException;
+import com.hillogy.LibraryManagement.exception.BookNotFoundException;
+
+/**
+ * Benchmarks de UserService: el ciclo préstamo/devolución de un libro y el listado de disponibles.
+ * El préstamo y la devolución se miden juntos para que el catálogo no cambie entre iteraciones.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class UserServiceBenchmark {
+
+	@Benchmark
+	public BookDTO orderAndReturnBook(CatalogueState state) throws BookNotFoundException {
+		long iSBN = state.randomISBN();
+		try {
+			state.userService.orderBook(iSBN, null);
+		} catch (BookAlreadyBorrowedException ex) {
+			// Otro hilo del benchmark tiene el libro: se mide igualmente la devolución
+		}
+		return state.userService.returnBook(iSBN, null);
+	}
+
+	@Benchmark
+	public List<BookDTO> searchAvailableBooks(CatalogueState state) {
+		return state.userService.searchAvailableBooks(true);
+	}
+}
@@ -2,8 +2,11 @@ package com.hillogy.LibraryManagement;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+// R2DBC sólo se usa en el repositorio reactivo (ver ReactiveDataConfig); su autoconfiguración
+// desactivaría el DataSource JDBC que usan JPA y Flyway
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class LibraryManagementApplication {
 
     public static void main(String[] args) {
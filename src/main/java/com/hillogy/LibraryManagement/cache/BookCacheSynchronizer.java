@@ -0,0 +1,66 @@
+package com.hillogy.LibraryManagement.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.hillogy.LibraryManagement.configuration.CacheConfig;
+import com.hillogy.LibraryManagement.event.BookEvent;
+import com.hillogy.LibraryManagement.event.LoansAppliedEvent;
+
+/**
+ * Componente que mantiene la caché de libros coherente con la base de datos.
+ * Cada escritura del catálogo publica un {@link BookEvent}; tras confirmarse la transacción
+ * se escribe el nuevo estado en la caché o se invalida la entrada si el libro se ha creado o eliminado.
+ * Los préstamos diferidos invalidan además su entrada al escribirse en la base de datos, por si
+ * entretanto se cargó en la caché la fila anterior al préstamo. Los cambios se aplican antes de
+ * que cambie la {@link CatalogueVersion}.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@Component
+public class BookCacheSynchronizer {
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	/**
+	 * Aplica un cambio del catálogo a la caché.
+	 *
+	 * @param event el evento con el cambio
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onBookEvent(BookEvent event) {
+		Cache cache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+		if (cache == null) {
+			return;
+		}
+		Long iSBN = event.getBook().getISBN();
+		switch (event.getType()) {
+		// Los libros nuevos no se precargan: una importación masiva desalojaría las entradas calientes
+		case CREATED, DELETED -> cache.evict(iSBN);
+		case UPDATED -> cache.put(iSBN, event.getBook());
+		}
+	}
+
+	/**
+	 * Invalida las entradas de los libros de un lote de préstamos diferidos recién escrito.
+	 *
+	 * @param event el evento con los libros del lote
+	 */
+	@EventListener
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onLoansApplied(LoansAppliedEvent event) {
+		Cache cache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+		if (cache != null) {
+			event.getISBNs().forEach(cache::evict);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package com.hillogy.LibraryManagement.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.hillogy.LibraryManagement.event.BookEvent;
+import com.hillogy.LibraryManagement.event.LoansAppliedEvent;
+
+/**
+ * Contador de versión del catálogo con el que se construyen los ETag de las lecturas.
+ * Cada {@link BookEvent} confirmado incrementa la versión global; además, los libros prestados,
+ * devueltos o eliminados guardan la versión de su último cambio, de modo que la lectura de un
+ * solo libro tiene su propio ETag y no se invalida con los cambios del resto del catálogo.
+ * Los ETag incluyen la época de arranque de la aplicación, para que un ETag anterior a un reinicio
+ * nunca coincida.
+ *
+ * Un libro eliminado deja de tener versión propia, así que sólo se guardan versiones de libros del
+ * catálogo. Los libros sin versión propia, los que no han cambiado desde el arranque y los eliminados,
+ * tienen la versión de la última eliminación: el ETag de un libro eliminado cambia, y el resto de
+ * libros sin cambios sólo se vuelve a servir completo una vez tras cada eliminación.
+ *
+ * Los ETag son débiles: la misma versión se sirve en JSON, CBOR o Smile y comprimida o no,
+ * y Tomcat no comprime las respuestas con ETag fuerte.
+ *
+ * Quien construya un ETag debe hacerlo antes de leer los datos: si un cambio se confirma entre
+ * medias, la respuesta lleva datos nuevos con el ETag anterior y el cliente sólo la vuelve a pedir.
+ * Por lo mismo la versión es lo último que cambia: sus oyentes tienen la menor precedencia y se
+ * ejecutan después de que los índices y la caché tengan los datos nuevos, de modo que ningún ETag
+ * nuevo acompaña a datos anteriores al cambio.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@Component
+public class CatalogueVersion {
+
+	private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+	private final AtomicLong version = new AtomicLong();
+	private final Map<Long, Long> bookVersions = new ConcurrentHashMap<>();
+	private final AtomicLong deletedVersion = new AtomicLong();
+
+	/**
+	 * Registra un cambio del catálogo tras confirmarse la transacción.
+	 *
+	 * @param event el evento con el cambio
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	public void onBookEvent(BookEvent event) {
+		long current = version.incrementAndGet();
+		Long iSBN = event.getBook().getISBN();
+		if (event.getType() == BookEvent.Type.DELETED) {
+			// La versión de los libros sin versión propia sube antes de quitar la del libro eliminado,
+			// para que ninguna lectura vea su ETag anterior
+			deletedVersion.accumulateAndGet(current, Math::max);
+			bookVersions.remove(iSBN);
+		} else if (event.getType() != BookEvent.Type.CREATED) {
+			// Un libro recién creado no puede tener ETag anteriores: le basta la versión por defecto
+			bookVersions.merge(iSBN, current, Math::max);
+		}
+	}
+
+	/**
+	 * Registra la escritura en la base de datos de un lote de préstamos diferidos. Las lecturas hechas
+	 * mientras los préstamos sólo estaban en el registro pudieron devolver la fila anterior con el ETag
+	 * nuevo, así que la versión vuelve a cambiar para que esas respuestas no se revaliden.
+	 *
+	 * @param event el evento con los libros del lote
+	 */
+	@EventListener
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	public void onLoansApplied(LoansAppliedEvent event) {
+		long current = version.incrementAndGet();
+		event.getISBNs().forEach(iSBN -> bookVersions.merge(iSBN, current, Math::max));
+	}
+
+	/**
+	 * Devuelve la versión actual del catálogo.
+	 *
+	 * @return el número de cambios confirmados desde el arranque
+	 */
+	public long current() {
+		return version.get();
+	}
+
+	/**
+	 * Devuelve el ETag de las lecturas que dependen de todo el catálogo (listados y búsquedas).
+	 *
+	 * @return el ETag débil
+	 */
+	public String catalogueETag() {
+		return "W/\"c-" + epoch + "-" + version.get() + "\"";
+	}
+
+	/**
+	 * Devuelve el ETag de la lectura de un solo libro.
+	 *
+	 * @param iSBN el ISBN del libro
+	 * @return el ETag débil
+	 */
+	public String bookETag(Long iSBN) {
+		Long bookVersion = bookVersions.get(iSBN);
+		long current = bookVersion != null ? bookVersion : deletedVersion.get();
+		return "W/\"b-" + epoch + "-" + iSBN + "-" + current + "\"";
+	}
+}
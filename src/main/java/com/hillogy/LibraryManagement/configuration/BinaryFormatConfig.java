@@ -0,0 +1,56 @@
+package com.hillogy.LibraryManagement.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Clase de configuración de los formatos binarios de las respuestas.
+ * Autor: oscaralejandroflorez@gmail.com
+ * Descripción: Además de JSON, la API responde en CBOR (application/cbor) y Smile
+ * (application/x-jackson-smile) cuando el cliente los pide en la cabecera Accept.
+ * Los conversores se construyen con el mismo Jackson2ObjectMapperBuilder que el ObjectMapper
+ * de JSON, de modo que los nombres de los campos y el resto de la configuración coinciden
+ * en los tres formatos. JSON sigue siendo el formato por defecto.
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+	/**
+	 * Tipo de contenido de Smile, para usar en las anotaciones de los endpoints.
+	 */
+	public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+	/**
+	 * Tipo de contenido de Smile.
+	 */
+	public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+	/**
+	 * Define el conversor de CBOR.
+	 *
+	 * @param builder el constructor de ObjectMapper configurado por Spring Boot
+	 * @return el conversor de mensajes CBOR
+	 */
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+	}
+
+	/**
+	 * Define el conversor de Smile.
+	 *
+	 * @param builder el constructor de ObjectMapper configurado por Spring Boot
+	 * @return el conversor de mensajes Smile
+	 */
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+	}
+}
@@ -0,0 +1,21 @@
+package com.hillogy.LibraryManagement.configuration;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Clase de configuración de la caché de libros.
+ * Autor: oscaralejandroflorez@gmail.com
+ * Descripción: La caché es de Caffeine y se dimensiona en application.properties
+ * (spring.cache.caffeine.spec): tamaño máximo, caducidad y registro de estadísticas.
+ * Las estadísticas de aciertos, fallos y desalojos se publican en /actuator/metrics (cache.*).
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+	/**
+	 * Nombre de la caché de libros indexada por ISBN.
+	 */
+	public static final String BOOKS_CACHE = "books";
+}
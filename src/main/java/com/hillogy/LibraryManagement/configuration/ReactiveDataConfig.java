@@ -0,0 +1,67 @@
+package com.hillogy.LibraryManagement.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Clase de configuración del acceso reactivo (R2DBC) a la base de datos.
+ * Autor: oscaralejandroflorez@gmail.com
+ * Descripción: La API reactiva trabaja sobre la misma base de datos H2 que JPA: la conexión R2DBC se
+ * construye a partir de spring.datasource.url, de modo que ambas ven siempre las mismas tablas.
+ * El acceso reactivo se limita al DatabaseClient del repositorio reactivo: la autoconfiguración de
+ * R2DBC de Spring Boot está excluida (LibraryManagementApplication) y la factoría de conexiones no se
+ * publica como bean, porque con ella Spring Boot dejaría de crear el DataSource JDBC y el gestor de
+ * transacciones de JPA. Así el DataSource, Hikari, JPA, Flyway y @Transactional quedan con su
+ * configuración automática (spring.datasource.*, spring.datasource.hikari.*).
+ */
+@Configuration
+public class ReactiveDataConfig {
+
+	private static final String H2_JDBC_PREFIX = "jdbc:h2:";
+
+	private ConnectionPool connectionPool;
+
+	/**
+	 * Define el cliente R2DBC sobre la base de datos H2 de la aplicación, con su propio pool de conexiones.
+	 *
+	 * @param dataSourceProperties propiedades del DataSource JDBC
+	 * @param maxSize número máximo de conexiones reactivas abiertas
+	 * @return el cliente de base de datos reactivo
+	 */
+	@Bean
+	public DatabaseClient databaseClient(DataSourceProperties dataSourceProperties,
+			@Value("${library.reactive.pool.max-size:20}") int maxSize) {
+		String url = dataSourceProperties.determineUrl();
+		if (url == null || !url.startsWith(H2_JDBC_PREFIX)) {
+			throw new IllegalStateException("La API reactiva sólo admite bases de datos H2: " + url);
+		}
+		H2ConnectionConfiguration configuration = H2ConnectionConfiguration.builder()
+				.url(url.substring(H2_JDBC_PREFIX.length()))
+				.username(dataSourceProperties.determineUsername())
+				.password(dataSourceProperties.determinePassword())
+				.build();
+		connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(new H2ConnectionFactory(configuration))
+				.maxSize(maxSize)
+				.build());
+		return DatabaseClient.create(connectionPool);
+	}
+
+	/**
+	 * Cierra las conexiones reactivas al parar la aplicación.
+	 */
+	@PreDestroy
+	public void closeConnectionPool() {
+		if (connectionPool != null) {
+			connectionPool.dispose();
+		}
+	}
+}
@@ -1,19 +1,47 @@
 package com.hillogy.LibraryManagement.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hillogy.LibraryManagement.cache.CatalogueVersion;
+import com.hillogy.LibraryManagement.configuration.BinaryFormatConfig;
 import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.dto.BookOperationResultDTO;
+import com.hillogy.LibraryManagement.dto.BookPageDTO;
+import com.hillogy.LibraryManagement.dto.BookSearchCriteria;
+import com.hillogy.LibraryManagement.dto.ImportResultDTO;
+import com.hillogy.LibraryManagement.dto.LoanPageDTO;
+import com.hillogy.LibraryManagement.dto.SuggestionDTO;
+import com.hillogy.LibraryManagement.exception.BookAlreadyBorrowedException;
 import com.hillogy.LibraryManagement.exception.BookAlreadyExistsException;
 import com.hillogy.LibraryManagement.exception.BookNotFoundException;
+import com.hillogy.LibraryManagement.exception.IdempotencyKeyReusedException;
+import com.hillogy.LibraryManagement.service.BookImportService;
 import com.hillogy.LibraryManagement.service.LibraryService;
+import com.hillogy.LibraryManagement.service.LoanService;
 import com.hillogy.LibraryManagement.service.UserService;
 
 import jakarta.validation.Valid;
@@ -31,6 +59,10 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/v1/books")
 public class BookController {
 
+	/**
+	 * Cabecera con la clave de idempotencia de las altas.
+	 */
+	public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
 
 	@Autowired
 	private LibraryService libraryService;
@@ -38,54 +70,196 @@ public class BookController {
 	@Autowired
 	private UserService userService;
 
+	@Autowired
+	private LoanService loanService;
+
+	@Autowired
+	private BookImportService bookImportService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private CatalogueVersion catalogueVersion;
+
+	@Autowired
+	private ContentNegotiationManager contentNegotiationManager;
+
+	@Autowired
+	private MappingJackson2CborHttpMessageConverter cborConverter;
+
+	@Autowired
+	private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+	@Value("${library.pagination.max-size:1000}")
+	private int maxPageSize = 1000;
+
+	@Value("${library.batch.max-size:100}")
+	private int maxBatchSize = 100;
+
 	/**
-	 * Endpoint para buscar libros según el título, autor o ISBN.
+	 * Endpoint para buscar libros según el título, autor, ISBN o disponibilidad.
+	 * Con un único criterio de texto o ISBN se usa la búsqueda específica; con varios criterios
+	 * se devuelven sólo los libros que los cumplen todos, resueltos en una única búsqueda combinada.
 	 * 
 	 * @param title Título del libro a buscar (opcional).
 	 * @param author Autor del libro a buscar (opcional).
 	 * @param isbn ISBN del libro a buscar (opcional).
-	 * @return Una lista de libros que coinciden con los parámetros de búsqueda.
-	 * @throws BookNotFoundException Si no se encuentran libros que coincidan con la búsqueda.
+	 * @param available Disponibilidad de los libros a buscar (opcional).
+	 * @param request La petición, para responder 304 (NOT MODIFIED) si el ETag del cliente sigue vigente.
+	 * @return Una respuesta con la lista de libros que coinciden con los parámetros de búsqueda
+	 *         (sin parámetros, el catálogo completo), escrita fila a fila en JSON, CBOR o Smile según la cabecera Accept.
+	 * @throws BookNotFoundException Si se busca sólo por ISBN y el libro no existe.
+	 * @throws HttpMediaTypeNotAcceptableException Si la cabecera Accept no es válida.
 	 */
 	@GetMapping("/library/search")
-	public List<BookDTO> searchBooks(
+	public ResponseEntity<StreamingResponseBody> searchBooks(
 			@RequestParam(required = false) String title,
 			@RequestParam(required = false) String author,
-			@RequestParam(required = false) Long isbn
-			) throws BookNotFoundException {
-		if (title != null) {
-			return libraryService.searchBooksByTitle(title);
+			@RequestParam(required = false) Long isbn,
+			@RequestParam(required = false) Boolean available,
+			NativeWebRequest request
+			) throws BookNotFoundException, HttpMediaTypeNotAcceptableException {
+		// Con ISBN el resultado sólo depende de ese libro; en otro caso, de todo el catálogo
+		String eTag = isbn != null ? catalogueVersion.bookETag(isbn) : catalogueVersion.catalogueETag();
+		if (request.checkNotModified(eTag)) {
+			return null;
+		}
+		BookSearchCriteria criteria = new BookSearchCriteria(title, author, isbn, available);
+		if (criteria.count() > 1 || available != null) {
+			return writeBooks(request, libraryService.searchBooks(criteria)::forEach);
+		} else if (title != null) {
+			return writeBooks(request, libraryService.searchBooksByTitle(title)::forEach);
 		} else if (author != null) {
-			return libraryService.searchBooksByAuthor(author);
+			return writeBooks(request, libraryService.searchBooksByAuthor(author)::forEach);
 		} else if (isbn != null) {
 			// En caso de buscar por ISBN, devolvemos una lista con un solo libro
 			BookDTO book = libraryService.getBookByISBN(isbn);
-			return Collections.singletonList(book);
+			return writeBooks(request, Collections.singletonList(book)::forEach);
 		} else {
-			// Si ninguno de los parámetros de búsqueda está presente, retornamos todos los libros
-			return libraryService.getAllBooks();
+			// Si ninguno de los parámetros de búsqueda está presente, escribimos todo el catálogo según se lee
+			return writeBooks(request, libraryService::streamAllBooks);
+		}
+	}
+
+	/**
+	 * Endpoint para buscar libros por texto libre en el título y el autor, ordenados por relevancia.
+	 * No distingue tildes ni mayúsculas y tolera pequeñas erratas ("garcia marqez" encuentra a García Márquez).
+	 *
+	 * @param q Texto de la consulta.
+	 * @param limit Número máximo de libros a devolver; se limita al máximo configurado.
+	 * @param request La petición, para responder 304 (NOT MODIFIED) si el ETag del cliente sigue vigente.
+	 * @return Una respuesta con los libros encontrados, del más al menos relevante, en JSON, CBOR o Smile según la cabecera Accept.
+	 * @throws HttpMediaTypeNotAcceptableException Si la cabecera Accept no es válida.
+	 */
+	@GetMapping("/library/search/ranked")
+	public ResponseEntity<StreamingResponseBody> searchBooksRanked(
+			@RequestParam String q,
+			@RequestParam(defaultValue = "20") int limit,
+			NativeWebRequest request
+			) throws HttpMediaTypeNotAcceptableException {
+		if (request.checkNotModified(catalogueVersion.catalogueETag())) {
+			return null;
 		}
+		return writeBooks(request, libraryService.searchBooksRanked(q, pageSize(limit))::forEach);
+	}
+
+	/**
+	 * Endpoint de autocompletado: sugiere los títulos y autores más populares que empiezan por el
+	 * texto escrito, sin distinguir tildes ni mayúsculas. Pensado para llamarse en cada pulsación de
+	 * tecla en lugar de /library/search, que busca subcadenas en todo el catálogo.
+	 *
+	 * @param prefix Comienzo del título o autor.
+	 * @param limit Número máximo de sugerencias; se limita al máximo configurado.
+	 * @return Las sugerencias, de más a menos popular.
+	 */
+	@GetMapping("/library/suggest")
+	public List<SuggestionDTO> suggestBooks(
+			@RequestParam String prefix,
+			@RequestParam(defaultValue = "10") int limit
+			) {
+		return libraryService.suggestBooks(prefix, pageSize(limit));
+	}
+
+	/**
+	 * Endpoint para recorrer el catálogo por páginas usando paginación por clave (keyset).
+	 * Para pedir la siguiente página se envía como "after" el valor "nextAfter" de la respuesta anterior.
+	 * 
+	 * @param after ISBN a partir del cual empieza la página (opcional, exclusivo).
+	 * @param size Número de libros por página; se limita al máximo configurado.
+	 * @return La página de libros junto con el token de la siguiente página.
+	 */
+	@GetMapping("/library/search/page")
+	public BookPageDTO searchBooksPage(
+			@RequestParam(required = false) Long after,
+			@RequestParam(defaultValue = "100") int size
+			) {
+		return libraryService.getBooksPage(after, pageSize(size));
+	}
+
+	/**
+	 * Endpoint para descargar el catálogo completo como un array que se escribe fila a fila
+	 * según se lee de la base de datos, sin construir la lista en memoria.
+	 * El formato se elige con la cabecera Accept: JSON (por defecto), CBOR o Smile.
+	 * 
+	 * @param request La petición, de la que se toma la cabecera Accept.
+	 * @return Una respuesta cuyo cuerpo se serializa de forma incremental.
+	 * @throws HttpMediaTypeNotAcceptableException Si la cabecera Accept no es válida.
+	 */
+	@GetMapping(value = "/library/search/stream", produces = { MediaType.APPLICATION_JSON_VALUE,
+			MediaType.APPLICATION_CBOR_VALUE, BinaryFormatConfig.APPLICATION_SMILE_VALUE })
+	public ResponseEntity<StreamingResponseBody> streamBooks(NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+		return writeBooks(request, libraryService::streamAllBooks);
 	}
 
 	/**
 	 * Endpoint para añadir un nuevo libro a la biblioteca.
+	 * Con la cabecera Idempotency-Key, repetir la petición (por ejemplo, al reintentar tras un
+	 * error de red) devuelve el libro creado la primera vez en lugar de un error de libro duplicado.
 	 * 
 	 * @param bookDTO Datos del libro a añadir.
-	 * @return La información del libro añadido junto con el estado de la operación.
+	 * @param idempotencyKey Clave opcional que identifica la petición.
+	 * @return La información del libro añadido junto con el estado de la operación, o 422 (UNPROCESSABLE ENTITY)
+	 *         si la clave ya se usó para añadir otro libro.
 	 */
 	@PostMapping("/library/add")
-	public ResponseEntity<?> createNewBook(@Valid @RequestBody BookDTO bookDTO) {
+	public ResponseEntity<?> createNewBook(@Valid @RequestBody BookDTO bookDTO,
+			@RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
 		try {
-			BookDTO savedBook = libraryService.createNewBook(bookDTO);
+			BookDTO savedBook = libraryService.createNewBook(bookDTO, idempotencyKey);
 			return new ResponseEntity<>(savedBook, HttpStatus.CREATED);
 		} catch (BookAlreadyExistsException ex) {
 			Map<String, Object> response = new HashMap<>();
 			response.put("message", ex.getMessage());
 			response.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+		} catch (IdempotencyKeyReusedException ex) {
+			Map<String, Object> response = new HashMap<>();
+			response.put("message", ex.getMessage());
+			response.put("status", HttpStatus.UNPROCESSABLE_ENTITY.value());
+			return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(response);
 		}
 	}
 
+	/**
+	 * Endpoint para importar libros de forma masiva. El cuerpo se lee en streaming,
+	 * en formato NDJSON (application/x-ndjson) o CSV (text/csv).
+	 * 
+	 * @param contentType El tipo de contenido del cuerpo, que determina el formato.
+	 * @param body El cuerpo de la petición.
+	 * @return El número de filas aceptadas y rechazadas junto con el detalle de los rechazos.
+	 * @throws IOException Si falla la lectura del cuerpo.
+	 */
+	@PostMapping(value = "/library/import", consumes = { "application/x-ndjson", "text/csv" })
+	public ResponseEntity<ImportResultDTO> importBooks(
+			@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+			InputStream body) throws IOException {
+		BookImportService.Format format = MediaType.valueOf("text/csv").includes(contentType)
+				? BookImportService.Format.CSV
+				: BookImportService.Format.NDJSON;
+		return ResponseEntity.ok(bookImportService.importBooks(body, format));
+	}
+
 	/**
 	 * Endpoint para eliminar un libro de la biblioteca.
 	 * 
@@ -117,19 +291,27 @@ public class BookController {
 	 * Endpoint para ordenar un libro por parte de un usuario.
 	 * 
 	 * @param iSBN El ISBN del libro que se va a ordenar.
-	 * @return Una respuesta que contiene el libro actualizado después de ser ordenado.
+	 * @param borrowerId El identificador de quien se lleva el libro (opcional).
+	 * @return Una respuesta que contiene el libro actualizado después de ser ordenado,
+	 *         o 409 (CONFLICT) si el libro ya estaba prestado.
 	 * @throws BookNotFoundException Si el libro con el ISBN especificado no se encuentra en la biblioteca.
 	 */
 	@PutMapping("/user/order")
-	public ResponseEntity<?> orderBook(@RequestParam(required = true) Long iSBN) {
+	public ResponseEntity<?> orderBook(@RequestParam(required = true) Long iSBN,
+			@RequestParam(required = false) Long borrowerId) {
 		try {
-			BookDTO updatedBook = userService.orderBook(iSBN);
+			BookDTO updatedBook = userService.orderBook(iSBN, borrowerId);
 			return ResponseEntity.ok(updatedBook);
 		} catch (BookNotFoundException ex) {
 			Map<String, Object> errorResponse = new HashMap<>();
 			errorResponse.put("message", ex.getMessage());
 			errorResponse.put("status", HttpStatus.NOT_FOUND.value());
 			return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+		} catch (BookAlreadyBorrowedException ex) {
+			Map<String, Object> errorResponse = new HashMap<>();
+			errorResponse.put("message", ex.getMessage());
+			errorResponse.put("status", HttpStatus.CONFLICT.value());
+			return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
 		} catch (Exception ex) {
 			Map<String, Object> errorResponse = new HashMap<>();
 			errorResponse.put("message", "Error interno del servidor");
@@ -142,13 +324,15 @@ public class BookController {
 	 * Endpoint para devolver un libro por parte de un usuario.
 	 * 
 	 * @param iSBN El ISBN del libro que se va a devolver.
+	 * @param borrowerId El identificador de quien devuelve el libro (opcional).
 	 * @return Una respuesta que contiene el libro actualizado después de ser devuelto.
 	 * @throws BookNotFoundException Si el libro con el ISBN especificado no se encuentra en la biblioteca.
 	 */
 	@PutMapping("/user/return")
-	public ResponseEntity<?> returnBook(@RequestParam(required = true) Long iSBN) {
+	public ResponseEntity<?> returnBook(@RequestParam(required = true) Long iSBN,
+			@RequestParam(required = false) Long borrowerId) {
 		try {
-			BookDTO updatedBook = userService.returnBook(iSBN);
+			BookDTO updatedBook = userService.returnBook(iSBN, borrowerId);
 			return ResponseEntity.ok(updatedBook);
 		} catch (BookNotFoundException ex) {
 			Map<String, Object> errorResponse = new HashMap<>();
@@ -164,24 +348,206 @@ public class BookController {
 	}
 
 	/**
-	 * Endpoint para obtener libros disponibles según su disponibilidad.
+	 * Endpoint para ordenar varios libros en una sola petición (por ejemplo, desde un punto de autopréstamo).
+	 * 
+	 * @param iSBNs Los ISBN de los libros que se van a ordenar.
+	 * @param borrowerId El identificador de quien se lleva los libros (opcional).
+	 * @return Una respuesta con el resultado de cada ISBN, o 400 (BAD REQUEST) si el lote está vacío o es demasiado grande.
+	 */
+	@PutMapping("/user/order/batch")
+	public ResponseEntity<?> orderBooks(@RequestBody List<Long> iSBNs,
+			@RequestParam(required = false) Long borrowerId) {
+		ResponseEntity<?> invalid = validateBatch(iSBNs);
+		if (invalid != null) {
+			return invalid;
+		}
+		List<BookOperationResultDTO> results = userService.orderBooks(iSBNs, borrowerId);
+		return ResponseEntity.ok(results);
+	}
+
+	/**
+	 * Endpoint para devolver varios libros en una sola petición.
+	 * 
+	 * @param iSBNs Los ISBN de los libros que se van a devolver.
+	 * @param borrowerId El identificador de quien devuelve los libros (opcional).
+	 * @return Una respuesta con el resultado de cada ISBN, o 400 (BAD REQUEST) si el lote está vacío o es demasiado grande.
+	 */
+	@PutMapping("/user/return/batch")
+	public ResponseEntity<?> returnBooks(@RequestBody List<Long> iSBNs,
+			@RequestParam(required = false) Long borrowerId) {
+		ResponseEntity<?> invalid = validateBatch(iSBNs);
+		if (invalid != null) {
+			return invalid;
+		}
+		List<BookOperationResultDTO> results = userService.returnBooks(iSBNs, borrowerId);
+		return ResponseEntity.ok(results);
+	}
+
+	/**
+	 * Endpoint para obtener los libros disponibles para préstamo.
+	 * La lista se escribe fila a fila según se recorren los libros, en JSON, CBOR o Smile según la cabecera Accept.
 	 * 
-	 * @param available Indica si se deben devolver solo los libros disponibles (true) o todos los libros (false).
-	 * @return Una respuesta que contiene una lista de libros disponibles o todos los libros, según el parámetro 'available'.
+	 * @param request La petición, para responder 304 (NOT MODIFIED) si el ETag del cliente sigue vigente.
+	 * @return Una respuesta cuyo cuerpo es la lista de libros disponibles.
+	 * @throws HttpMediaTypeNotAcceptableException Si la cabecera Accept no es válida.
 	 */
 	@GetMapping("/user/books")
-	public ResponseEntity<?> getBooksByAvailability() {
+	public ResponseEntity<StreamingResponseBody> getBooksByAvailability(NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+		if (request.checkNotModified(catalogueVersion.catalogueETag())) {
+			return null;
+		}
+		return writeBooks(request, action -> userService.streamAvailableBooks(true, action));
+	}
+
+	/**
+	 * Endpoint para consultar si un libro está disponible para préstamo.
+	 * 
+	 * @param iSBN El ISBN del libro a consultar.
+	 * @return Una respuesta con el ISBN y su disponibilidad, o 404 (NOT FOUND) si el libro no existe.
+	 */
+	@GetMapping("/user/books/available")
+	public ResponseEntity<?> isBookAvailable(@RequestParam(required = true) Long iSBN) {
 		try {
-			List<BookDTO> books = userService.searchAvailableBooks(true);
-			return ResponseEntity.ok(books);
-		} catch (Exception ex) {
+			Map<String, Object> response = new HashMap<>();
+			response.put("isbn", iSBN);
+			response.put("available", userService.isBookAvailable(iSBN));
+			return ResponseEntity.ok(response);
+		} catch (BookNotFoundException ex) {
 			Map<String, Object> errorResponse = new HashMap<>();
-			errorResponse.put("message", "Error al obtener libros disponibles");
-			errorResponse.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+			errorResponse.put("message", ex.getMessage());
+			errorResponse.put("status", HttpStatus.NOT_FOUND.value());
+			return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+		}
+	}
+
+	/**
+	 * Endpoint para contar los libros disponibles para préstamo.
+	 * 
+	 * @return Una respuesta con el número de libros disponibles.
+	 */
+	@GetMapping("/user/books/count")
+	public ResponseEntity<?> countAvailableBooks() {
+		Map<String, Object> response = new HashMap<>();
+		response.put("available", userService.countAvailableBooks());
+		return ResponseEntity.ok(response);
+	}
+
+	/**
+	 * Endpoint para consultar por páginas el historial de préstamos de un libro, del más antiguo al más reciente.
+	 * Para pedir la siguiente página se envía como "after" el valor "nextAfter" de la respuesta anterior.
+	 * 
+	 * @param iSBN El ISBN del libro a consultar.
+	 * @param after Id del préstamo a partir del cual empieza la página (opcional, exclusivo).
+	 * @param size Número de préstamos por página; se limita al máximo configurado.
+	 * @return La página de préstamos junto con el token de la siguiente página.
+	 */
+	@GetMapping("/user/loans")
+	public LoanPageDTO getLoanHistory(
+			@RequestParam(required = true) Long iSBN,
+			@RequestParam(required = false) Long after,
+			@RequestParam(defaultValue = "100") int size
+			) {
+		return loanService.getLoanHistory(iSBN, after, pageSize(size));
+	}
+
+	/**
+	 * Endpoint para consultar por páginas los préstamos abiertos de un usuario.
+	 * 
+	 * @param borrowerId El identificador del usuario.
+	 * @param after Id del préstamo a partir del cual empieza la página (opcional, exclusivo).
+	 * @param size Número de préstamos por página; se limita al máximo configurado.
+	 * @return La página de préstamos junto con el token de la siguiente página.
+	 */
+	@GetMapping("/user/loans/active")
+	public LoanPageDTO getActiveLoans(
+			@RequestParam(required = true) Long borrowerId,
+			@RequestParam(required = false) Long after,
+			@RequestParam(defaultValue = "100") int size
+			) {
+		return loanService.getActiveLoans(borrowerId, after, pageSize(size));
+	}
+
+	/**
+	 * Endpoint para consultar por páginas los préstamos vencidos y no devueltos, del más atrasado al menos atrasado.
+	 * 
+	 * @param after Id del préstamo a partir del cual empieza la página (opcional, exclusivo).
+	 * @param size Número de préstamos por página; se limita al máximo configurado.
+	 * @return La página de préstamos junto con el token de la siguiente página.
+	 */
+	@GetMapping("/library/loans/overdue")
+	public LoanPageDTO getOverdueLoans(
+			@RequestParam(required = false) Long after,
+			@RequestParam(defaultValue = "100") int size
+			) {
+		return loanService.getOverdueLoans(after, pageSize(size));
+	}
+
+
+	/**
+	 * Escribe los libros de la fuente como un array según se van produciendo, sin construir la lista en memoria.
+	 * El formato es el primero de JSON, CBOR o Smile que acepte el cliente; JSON si acepta cualquiera.
+	 * 
+	 * @param request La petición, de la que se toma la cabecera Accept.
+	 * @param source La fuente de libros, que entrega cada libro al consumidor que recibe.
+	 * @return Una respuesta cuyo cuerpo se serializa de forma incremental.
+	 * @throws HttpMediaTypeNotAcceptableException Si la cabecera Accept no es válida.
+	 */
+	private ResponseEntity<StreamingResponseBody> writeBooks(NativeWebRequest request, Consumer<Consumer<BookDTO>> source)
+			throws HttpMediaTypeNotAcceptableException {
+		MediaType contentType = MediaType.APPLICATION_JSON;
+		ObjectMapper mapper = objectMapper;
+		for (MediaType accepted : contentNegotiationManager.resolveMediaTypes(request)) {
+			if (accepted.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+				break;
+			} else if (accepted.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+				contentType = MediaType.APPLICATION_CBOR;
+				mapper = cborConverter.getObjectMapper();
+				break;
+			} else if (accepted.isCompatibleWith(BinaryFormatConfig.APPLICATION_SMILE)) {
+				contentType = BinaryFormatConfig.APPLICATION_SMILE;
+				mapper = smileConverter.getObjectMapper();
+				break;
+			}
 		}
+		JsonFactory factory = mapper.getFactory();
+		StreamingResponseBody body = outputStream -> {
+			try (JsonGenerator generator = factory.createGenerator(outputStream)) {
+				generator.writeStartArray();
+				source.accept(book -> {
+					try {
+						generator.writeObject(book);
+					} catch (IOException ex) {
+						throw new UncheckedIOException(ex);
+					}
+				});
+				generator.writeEndArray();
+			}
+		};
+		return ResponseEntity.ok().contentType(contentType).varyBy(HttpHeaders.ACCEPT).body(body);
+	}
+
+	/**
+	 * Limita el tamaño de página pedido al intervalo [1, máximo configurado].
+	 */
+	private int pageSize(int size) {
+		return Math.max(1, Math.min(size, maxPageSize));
 	}
 
+	/**
+	 * Comprueba que un lote de ISBN no está vacío, no contiene nulos y no supera el tamaño máximo.
+	 * 
+	 * @param iSBNs Los ISBN del lote.
+	 * @return Una respuesta 400 (BAD REQUEST) si el lote no es válido, o null si lo es.
+	 */
+	private ResponseEntity<?> validateBatch(List<Long> iSBNs) {
+		if (iSBNs == null || iSBNs.isEmpty() || iSBNs.size() > maxBatchSize || iSBNs.contains(null)) {
+			Map<String, Object> errorResponse = new HashMap<>();
+			errorResponse.put("message", "El lote debe contener entre 1 y " + maxBatchSize + " ISBN");
+			errorResponse.put("status", HttpStatus.BAD_REQUEST.value());
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+		}
+		return null;
+	}
 
 	@ExceptionHandler(BookAlreadyExistsException.class)
 	@ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
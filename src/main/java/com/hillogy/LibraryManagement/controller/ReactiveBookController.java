@@ -0,0 +1,128 @@
+package com.hillogy.LibraryManagement.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.exception.BookAlreadyBorrowedException;
+import com.hillogy.LibraryManagement.exception.BookNotFoundException;
+import com.hillogy.LibraryManagement.service.ReactiveLibraryService;
+import com.hillogy.LibraryManagement.service.ReactiveUserService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controlador REST de la edición reactiva de la API de libros.
+ * Ofrece las búsquedas, el préstamo y la devolución de {@link BookController} con tipos de Reactor,
+ * pero la aplicación sigue sirviéndose con Spring MVC sobre Tomcat, no con WebFlux.
+ *
+ * Las búsquedas y el listado de disponibles se leen por R2DBC y se envían como NDJSON (un libro por
+ * línea) a medida que se leen: Spring MVC pide el siguiente libro sólo cuando ha escrito el anterior.
+ * El controlador H2 de R2DBC ejecuta cada consulta en el propio proceso, en el hilo que pide las filas.
+ *
+ * El préstamo y la devolución bloquean: llaman al servicio bloqueante de JPA y al registro de
+ * préstamos en un hilo de boundedElastic, que queda ocupado hasta que el préstamo está en disco.
+ * Liberan el hilo de Tomcat, pero no son reactivos de extremo a extremo.
+ * 
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/v1/reactive/books")
+public class ReactiveBookController {
+
+	@Autowired
+	private ReactiveLibraryService reactiveLibraryService;
+
+	@Autowired
+	private ReactiveUserService reactiveUserService;
+
+	/**
+	 * Endpoint para buscar libros por título, autor o ISBN.
+	 * 
+	 * @param title Título del libro a buscar (opcional).
+	 * @param author Autor del libro a buscar (opcional).
+	 * @param isbn ISBN del libro a buscar (opcional).
+	 * @return Flux de libros que coinciden con la búsqueda, o todo el catálogo si no se indica ningún parámetro.
+	 */
+	@GetMapping(value = "/library/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<BookDTO> searchBooks(
+			@RequestParam(required = false) String title,
+			@RequestParam(required = false) String author,
+			@RequestParam(required = false) Long isbn
+			) {
+		if (title != null) {
+			return reactiveLibraryService.searchBooksByTitle(title);
+		} else if (author != null) {
+			return reactiveLibraryService.searchBooksByAuthor(author);
+		} else if (isbn != null) {
+			// Un ISBN inexistente produce un flujo vacío, igual que una búsqueda sin resultados
+			return reactiveLibraryService.getBookByISBN(isbn).onErrorResume(BookNotFoundException.class, ex -> Mono.empty())
+					.flux();
+		} else {
+			return reactiveLibraryService.getAllBooks();
+		}
+	}
+
+	/**
+	 * Endpoint para ordenar un libro por parte de un usuario.
+	 * Es bloqueante: ocupa un hilo de boundedElastic hasta que el préstamo está en disco.
+	 * 
+	 * @param iSBN El ISBN del libro que se va a ordenar.
+	 * @param borrowerId El identificador de quien se lleva el libro (opcional).
+	 * @return Una respuesta con el libro actualizado, 404 (NOT FOUND) si no existe
+	 *         o 409 (CONFLICT) si el libro ya estaba prestado.
+	 */
+	@PutMapping("/user/order")
+	public Mono<ResponseEntity<Object>> orderBook(@RequestParam(required = true) Long iSBN,
+			@RequestParam(required = false) Long borrowerId) {
+		return reactiveUserService.orderBook(iSBN, borrowerId)
+				.map(book -> ResponseEntity.<Object>ok(book))
+				.onErrorResume(BookNotFoundException.class, ex -> error(HttpStatus.NOT_FOUND, ex.getMessage()))
+				.onErrorResume(BookAlreadyBorrowedException.class, ex -> error(HttpStatus.CONFLICT, ex.getMessage()));
+	}
+
+	/**
+	 * Endpoint para devolver un libro por parte de un usuario.
+	 * Es bloqueante: ocupa un hilo de boundedElastic hasta que la devolución está en disco.
+	 * 
+	 * @param iSBN El ISBN del libro que se va a devolver.
+	 * @param borrowerId El identificador de quien devuelve el libro (opcional).
+	 * @return Una respuesta con el libro actualizado, o 404 (NOT FOUND) si no existe.
+	 */
+	@PutMapping("/user/return")
+	public Mono<ResponseEntity<Object>> returnBook(@RequestParam(required = true) Long iSBN,
+			@RequestParam(required = false) Long borrowerId) {
+		return reactiveUserService.returnBook(iSBN, borrowerId)
+				.map(book -> ResponseEntity.<Object>ok(book))
+				.onErrorResume(BookNotFoundException.class, ex -> error(HttpStatus.NOT_FOUND, ex.getMessage()));
+	}
+
+	/**
+	 * Endpoint para obtener los libros disponibles.
+	 * 
+	 * @return Flux de los libros disponibles.
+	 */
+	@GetMapping(value = "/user/books", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<BookDTO> getBooksByAvailability() {
+		return reactiveUserService.searchAvailableBooks(true);
+	}
+
+	private static Mono<ResponseEntity<Object>> error(HttpStatus status, String message) {
+		Map<String, Object> errorResponse = new HashMap<>();
+		errorResponse.put("message", message);
+		errorResponse.put("status", status.value());
+		return Mono.just(ResponseEntity.status(status).body(errorResponse));
+	}
+}
@@ -1,8 +1,12 @@
 package com.hillogy.LibraryManagement.dto;
 
+import jakarta.validation.constraints.Min;
+
 /**
  * Clase que representa un objeto de transferencia de datos (DTO) para un libro en la biblioteca.
- * Contiene información sobre el ISBN, título, autor y disponibilidad del libro.
+ * Contiene información sobre el ISBN, título, autor y disponibilidad del libro, junto con su número
+ * de ejemplares y cuántos de ellos están disponibles. El libro está disponible si le queda al menos
+ * un ejemplar.
  * 
  * @author oscaralejandroflorez@gmail.com
  * @version 1.0
@@ -13,6 +17,9 @@ public class BookDTO {
 	private String title;
 	private String author;
 	private boolean available;
+	@Min(1)
+	private int copies = 1;
+	private int availableCopies;
 
 	/**
 	 * Constructor por defecto de la clase BookDTO.
@@ -29,10 +36,25 @@ public class BookDTO {
 	 * @param available La disponibilidad del libro.
 	 */
 	public BookDTO(Long ISBN, String title, String author, boolean available) {
+		this(ISBN, title, author, 1, available ? 1 : 0);
+	}
+
+	/**
+	 * Constructor con parámetros de la clase BookDTO para un libro con varios ejemplares.
+	 * 
+	 * @param ISBN El ISBN del libro.
+	 * @param title El título del libro.
+	 * @param author El autor del libro.
+	 * @param copies El número de ejemplares del libro.
+	 * @param availableCopies El número de ejemplares disponibles.
+	 */
+	public BookDTO(Long ISBN, String title, String author, int copies, int availableCopies) {
 		this.ISBN = ISBN;
 		this.title = title;
 		this.author = author;
-		this.available = available;
+		this.available = availableCopies > 0;
+		this.copies = copies;
+		this.availableCopies = availableCopies;
 	}
 
 	/**
@@ -69,4 +91,20 @@ public class BookDTO {
 	public void setAvailable(boolean available) {
 		this.available = available;
 	}
+
+	public int getCopies() {
+		return copies;
+	}
+
+	public void setCopies(int copies) {
+		this.copies = copies;
+	}
+
+	public int getAvailableCopies() {
+		return availableCopies;
+	}
+
+	public void setAvailableCopies(int availableCopies) {
+		this.availableCopies = availableCopies;
+	}
 }
@@ -0,0 +1,68 @@
+package com.hillogy.LibraryManagement.dto;
+
+/**
+ * Clase que representa el resultado de una operación por lotes sobre un libro concreto,
+ * como el préstamo o la devolución de varios libros en una sola petición.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public class BookOperationResultDTO {
+
+	/**
+	 * Resultado de la operación sobre un libro.
+	 */
+	public enum Status {
+		ORDERED, RETURNED, NOT_FOUND, ALREADY_BORROWED, ALREADY_AVAILABLE
+	}
+
+	private Long ISBN;
+	private Status status;
+	private BookDTO book;
+
+	/**
+	 * Constructor por defecto de la clase BookOperationResultDTO.
+	 */
+	public BookOperationResultDTO() {
+	}
+
+	/**
+	 * Constructor con parámetros de la clase BookOperationResultDTO.
+	 *
+	 * @param ISBN El ISBN solicitado.
+	 * @param status El resultado de la operación.
+	 * @param book El estado del libro tras la operación, o null si no existe.
+	 */
+	public BookOperationResultDTO(Long ISBN, Status status, BookDTO book) {
+		this.ISBN = ISBN;
+		this.status = status;
+		this.book = book;
+	}
+
+	/**
+     * Métodos getters y setters para los atributos de la clase BookOperationResultDTO.
+     */
+	public Long getISBN() {
+		return ISBN;
+	}
+
+	public void setISBN(Long ISBN) {
+		this.ISBN = ISBN;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public BookDTO getBook() {
+		return book;
+	}
+
+	public void setBook(BookDTO book) {
+		this.book = book;
+	}
+}
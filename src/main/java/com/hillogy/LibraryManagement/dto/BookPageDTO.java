@@ -0,0 +1,62 @@
+package com.hillogy.LibraryManagement.dto;
+
+import java.util.List;
+
+/**
+ * Clase que representa una página de libros obtenida mediante paginación por clave (keyset).
+ * Contiene los libros de la página y el token "after" con el que pedir la siguiente.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public class BookPageDTO {
+
+	private List<BookDTO> content;
+	private int size;
+	private Long nextAfter;
+
+	/**
+	 * Constructor por defecto de la clase BookPageDTO.
+	 */
+	public BookPageDTO() {
+	}
+
+	/**
+	 * Constructor con parámetros de la clase BookPageDTO.
+	 *
+	 * @param content Los libros de la página.
+	 * @param nextAfter El ISBN a partir del cual pedir la siguiente página, o null si no hay más.
+	 */
+	public BookPageDTO(List<BookDTO> content, Long nextAfter) {
+		this.content = content;
+		this.size = content.size();
+		this.nextAfter = nextAfter;
+	}
+
+	/**
+     * Métodos getters y setters para los atributos de la clase BookPageDTO.
+     */
+	public List<BookDTO> getContent() {
+		return content;
+	}
+
+	public void setContent(List<BookDTO> content) {
+		this.content = content;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	public Long getNextAfter() {
+		return nextAfter;
+	}
+
+	public void setNextAfter(Long nextAfter) {
+		this.nextAfter = nextAfter;
+	}
+}
@@ -0,0 +1,101 @@
+package com.hillogy.LibraryManagement.dto;
+
+import java.util.Locale;
+
+/**
+ * Clase que representa los criterios de una búsqueda combinada de libros.
+ * Los criterios nulos no se aplican; los demás se combinan con AND. El título y el autor
+ * se buscan como subcadena sin distinguir mayúsculas, y el ISBN y la disponibilidad por igualdad.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public class BookSearchCriteria {
+
+	private String title;
+	private String author;
+	private Long ISBN;
+	private Boolean available;
+
+	/**
+	 * Constructor por defecto de la clase BookSearchCriteria.
+	 */
+	public BookSearchCriteria() {
+	}
+
+	/**
+	 * Constructor con parámetros de la clase BookSearchCriteria.
+	 *
+	 * @param title Parte del título a buscar, o null.
+	 * @param author Parte del autor a buscar, o null.
+	 * @param ISBN El ISBN exacto, o null.
+	 * @param available La disponibilidad exigida, o null.
+	 */
+	public BookSearchCriteria(String title, String author, Long ISBN, Boolean available) {
+		this.title = title;
+		this.author = author;
+		this.ISBN = ISBN;
+		this.available = available;
+	}
+
+	/**
+	 * Indica cuántos criterios se aplican.
+	 *
+	 * @return número de criterios no nulos
+	 */
+	public int count() {
+		return (title != null ? 1 : 0) + (author != null ? 1 : 0) + (ISBN != null ? 1 : 0) + (available != null ? 1 : 0);
+	}
+
+	/**
+	 * Comprueba si un libro cumple todos los criterios.
+	 *
+	 * @param book el libro a comprobar
+	 * @return true si el libro cumple todos los criterios
+	 */
+	public boolean matches(BookDTO book) {
+		return (ISBN == null || ISBN.equals(book.getISBN()))
+				&& (available == null || available == book.isAvailable())
+				&& contains(book.getTitle(), title)
+				&& contains(book.getAuthor(), author);
+	}
+
+	private static boolean contains(String value, String part) {
+		return part == null || (value != null && value.toLowerCase(Locale.ROOT).contains(part.toLowerCase(Locale.ROOT)));
+	}
+
+	/**
+     * Métodos getters y setters para los atributos de la clase BookSearchCriteria.
+     */
+	public String getTitle() {
+		return title;
+	}
+
+	public void setTitle(String title) {
+		this.title = title;
+	}
+
+	public String getAuthor() {
+		return author;
+	}
+
+	public void setAuthor(String author) {
+		this.author = author;
+	}
+
+	public Long getISBN() {
+		return ISBN;
+	}
+
+	public void setISBN(Long ISBN) {
+		this.ISBN = ISBN;
+	}
+
+	public Boolean getAvailable() {
+		return available;
+	}
+
+	public void setAvailable(Boolean available) {
+		this.available = available;
+	}
+}
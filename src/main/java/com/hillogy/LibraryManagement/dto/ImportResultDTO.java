@@ -0,0 +1,78 @@
+package com.hillogy.LibraryManagement.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clase que representa el resultado de una importación masiva de libros.
+ * Contiene el número de filas aceptadas y rechazadas, y el detalle de los primeros rechazos.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public class ImportResultDTO {
+
+	/**
+	 * Número máximo de mensajes de error que se devuelven en la respuesta.
+	 */
+	public static final int MAX_ERRORS = 100;
+
+	private long accepted;
+	private long rejected;
+	private List<String> errors = new ArrayList<>();
+
+	/**
+	 * Constructor por defecto de la clase ImportResultDTO.
+	 */
+	public ImportResultDTO() {
+	}
+
+	/**
+	 * Registra filas aceptadas.
+	 *
+	 * @param count El número de filas aceptadas.
+	 */
+	public void accept(int count) {
+		accepted += count;
+	}
+
+	/**
+	 * Registra una fila rechazada y, si no se ha alcanzado el máximo, el motivo.
+	 *
+	 * @param line El número de línea de la fila rechazada.
+	 * @param reason El motivo del rechazo.
+	 */
+	public void reject(long line, String reason) {
+		rejected++;
+		if (errors.size() < MAX_ERRORS) {
+			errors.add("Línea " + line + ": " + reason);
+		}
+	}
+
+	/**
+     * Métodos getters y setters para los atributos de la clase ImportResultDTO.
+     */
+	public long getAccepted() {
+		return accepted;
+	}
+
+	public void setAccepted(long accepted) {
+		this.accepted = accepted;
+	}
+
+	public long getRejected() {
+		return rejected;
+	}
+
+	public void setRejected(long rejected) {
+		this.rejected = rejected;
+	}
+
+	public List<String> getErrors() {
+		return errors;
+	}
+
+	public void setErrors(List<String> errors) {
+		this.errors = errors;
+	}
+}
@@ -0,0 +1,97 @@
+package com.hillogy.LibraryManagement.dto;
+
+import java.time.Instant;
+
+/**
+ * Clase que representa un objeto de transferencia de datos (DTO) para un préstamo.
+ * Contiene el libro prestado, quién se lo lleva, cuándo, la fecha límite y, si ya se ha
+ * devuelto, la fecha de devolución.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public class LoanDTO {
+
+	private Long id;
+	private Long ISBN;
+	private Long borrowerId;
+	private Instant loanedAt;
+	private Instant dueAt;
+	private Instant returnedAt;
+
+	/**
+	 * Constructor por defecto de la clase LoanDTO.
+	 */
+	public LoanDTO() {
+	}
+
+	/**
+	 * Constructor con parámetros de la clase LoanDTO.
+	 *
+	 * @param id El identificador del préstamo.
+	 * @param ISBN El ISBN del libro prestado.
+	 * @param borrowerId El identificador de quien se lleva el libro, o null si no se conoce.
+	 * @param loanedAt El instante del préstamo.
+	 * @param dueAt La fecha límite de devolución.
+	 * @param returnedAt El instante de la devolución, o null si el préstamo sigue abierto.
+	 */
+	public LoanDTO(Long id, Long ISBN, Long borrowerId, Instant loanedAt, Instant dueAt, Instant returnedAt) {
+		this.id = id;
+		this.ISBN = ISBN;
+		this.borrowerId = borrowerId;
+		this.loanedAt = loanedAt;
+		this.dueAt = dueAt;
+		this.returnedAt = returnedAt;
+	}
+
+	/**
+     * Métodos getters y setters para los atributos de la clase LoanDTO.
+     */
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Long getISBN() {
+		return ISBN;
+	}
+
+	public void setISBN(Long ISBN) {
+		this.ISBN = ISBN;
+	}
+
+	public Long getBorrowerId() {
+		return borrowerId;
+	}
+
+	public void setBorrowerId(Long borrowerId) {
+		this.borrowerId = borrowerId;
+	}
+
+	public Instant getLoanedAt() {
+		return loanedAt;
+	}
+
+	public void setLoanedAt(Instant loanedAt) {
+		this.loanedAt = loanedAt;
+	}
+
+	public Instant getDueAt() {
+		return dueAt;
+	}
+
+	public void setDueAt(Instant dueAt) {
+		this.dueAt = dueAt;
+	}
+
+	public Instant getReturnedAt() {
+		return returnedAt;
+	}
+
+	public void setReturnedAt(Instant returnedAt) {
+		this.returnedAt = returnedAt;
+	}
+}
@@ -0,0 +1,62 @@
+package com.hillogy.LibraryManagement.dto;
+
+import java.util.List;
+
+/**
+ * Clase que representa una página de préstamos obtenida mediante paginación por clave (keyset).
+ * Contiene los préstamos de la página y el token "after" con el que pedir la siguiente.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public class LoanPageDTO {
+
+	private List<LoanDTO> content;
+	private int size;
+	private Long nextAfter;
+
+	/**
+	 * Constructor por defecto de la clase LoanPageDTO.
+	 */
+	public LoanPageDTO() {
+	}
+
+	/**
+	 * Constructor con parámetros de la clase LoanPageDTO.
+	 *
+	 * @param content Los préstamos de la página.
+	 * @param nextAfter El id del préstamo a partir del cual pedir la siguiente página, o null si no hay más.
+	 */
+	public LoanPageDTO(List<LoanDTO> content, Long nextAfter) {
+		this.content = content;
+		this.size = content.size();
+		this.nextAfter = nextAfter;
+	}
+
+	/**
+     * Métodos getters y setters para los atributos de la clase LoanPageDTO.
+     */
+	public List<LoanDTO> getContent() {
+		return content;
+	}
+
+	public void setContent(List<LoanDTO> content) {
+		this.content = content;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	public Long getNextAfter() {
+		return nextAfter;
+	}
+
+	public void setNextAfter(Long nextAfter) {
+		this.nextAfter = nextAfter;
+	}
+}
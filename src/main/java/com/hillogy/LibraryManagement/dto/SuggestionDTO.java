@@ -0,0 +1,68 @@
+package com.hillogy.LibraryManagement.dto;
+
+/**
+ * Clase que representa una sugerencia de autocompletado: un título o un autor del catálogo
+ * que empieza por el texto escrito, junto con su popularidad.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public class SuggestionDTO {
+
+	/**
+	 * Campo del libro al que pertenece la sugerencia.
+	 */
+	public enum Field {
+		TITLE, AUTHOR
+	}
+
+	private String text;
+	private Field field;
+	private long weight;
+
+	/**
+	 * Constructor por defecto de la clase SuggestionDTO.
+	 */
+	public SuggestionDTO() {
+	}
+
+	/**
+	 * Constructor con parámetros de la clase SuggestionDTO.
+	 *
+	 * @param text El título o autor sugerido, tal como está en el catálogo.
+	 * @param field El campo al que pertenece.
+	 * @param weight La popularidad: número de libros con ese título o autor más sus préstamos.
+	 */
+	public SuggestionDTO(String text, Field field, long weight) {
+		this.text = text;
+		this.field = field;
+		this.weight = weight;
+	}
+
+	/**
+     * Métodos getters y setters para los atributos de la clase SuggestionDTO.
+     */
+	public String getText() {
+		return text;
+	}
+
+	public void setText(String text) {
+		this.text = text;
+	}
+
+	public Field getField() {
+		return field;
+	}
+
+	public void setField(Field field) {
+		this.field = field;
+	}
+
+	public long getWeight() {
+		return weight;
+	}
+
+	public void setWeight(long weight) {
+		this.weight = weight;
+	}
+}
@@ -0,0 +1,73 @@
+package com.hillogy.LibraryManagement.event;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+
+/**
+ * Evento publicado por los servicios cada vez que cambia un libro del catálogo.
+ * Permite mantener sincronizadas las estructuras en memoria (índices, cachés, contadores)
+ * sin que los servicios tengan que conocerlas.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public class BookEvent {
+
+	/**
+	 * Tipo de cambio sufrido por el libro.
+	 */
+	public enum Type {
+		CREATED, UPDATED, DELETED
+	}
+
+	private final Type type;
+	private final BookDTO book;
+
+	/**
+	 * Constructor de la clase BookEvent.
+	 *
+	 * @param type El tipo de cambio.
+	 * @param book El estado del libro después del cambio (o el último conocido si se ha eliminado).
+	 */
+	public BookEvent(Type type, BookDTO book) {
+		this.type = type;
+		this.book = book;
+	}
+
+	/**
+	 * Crea un evento de libro creado.
+	 *
+	 * @param book El libro creado.
+	 * @return El evento.
+	 */
+	public static BookEvent created(BookDTO book) {
+		return new BookEvent(Type.CREATED, book);
+	}
+
+	/**
+	 * Crea un evento de libro modificado.
+	 *
+	 * @param book El libro modificado.
+	 * @return El evento.
+	 */
+	public static BookEvent updated(BookDTO book) {
+		return new BookEvent(Type.UPDATED, book);
+	}
+
+	/**
+	 * Crea un evento de libro eliminado.
+	 *
+	 * @param book El libro eliminado.
+	 * @return El evento.
+	 */
+	public static BookEvent deleted(BookDTO book) {
+		return new BookEvent(Type.DELETED, book);
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public BookDTO getBook() {
+		return book;
+	}
+}
@@ -0,0 +1,30 @@
+package com.hillogy.LibraryManagement.event;
+
+import java.util.Collection;
+
+/**
+ * Evento publicado cuando un lote de préstamos y devoluciones diferidos se ha escrito en tb_books.
+ * Los libros afectados ya se notificaron con un {@link BookEvent} al aceptar cada préstamo; este evento
+ * avisa a quien guarde lecturas de la base de datos (caché, ETag) de que las anteriores pueden estar
+ * desfasadas, ya que se hicieron mientras el cambio sólo estaba en el registro de préstamos.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public class LoansAppliedEvent {
+
+	private final Collection<Long> iSBNs;
+
+	/**
+	 * Constructor de la clase LoansAppliedEvent.
+	 *
+	 * @param iSBNs Los ISBN de los libros escritos en el lote.
+	 */
+	public LoansAppliedEvent(Collection<Long> iSBNs) {
+		this.iSBNs = iSBNs;
+	}
+
+	public Collection<Long> getISBNs() {
+		return iSBNs;
+	}
+}
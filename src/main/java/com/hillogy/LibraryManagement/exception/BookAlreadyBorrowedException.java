@@ -1,7 +1,7 @@
 package com.hillogy.LibraryManagement.exception;
 
 /**
- * Excepción lanzada cuando se intenta borrar un libro que ya ha sido prestado.
+ * Excepción lanzada cuando se intenta borrar o prestar un libro que ya ha sido prestado.
  * Extiende de RuntimeException para indicar que es una excepción no verificada.
  * 
  * @author oscaralejandroflorez@gmail.com
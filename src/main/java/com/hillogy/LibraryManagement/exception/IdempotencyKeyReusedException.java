@@ -0,0 +1,26 @@
+package com.hillogy.LibraryManagement.exception;
+
+/**
+ * Excepción lanzada cuando se repite una clave de idempotencia con una petición distinta
+ * de la que la usó por primera vez.
+ * Extiende de RuntimeException para indicar que es una excepción no verificada.
+ * 
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructor que acepta un mensaje de error.
+	 * 
+	 * @param message El mensaje que describe la excepción.
+	 */
+	public IdempotencyKeyReusedException(String message) {
+		super(message);
+	}
+}
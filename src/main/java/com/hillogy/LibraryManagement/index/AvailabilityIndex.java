@@ -0,0 +1,316 @@
+package com.hillogy.LibraryManagement.index;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.stereotype.Component;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+
+/**
+ * Índice de disponibilidad del catálogo en forma de bitmaps comprimidos (Roaring) indexados por ISBN:
+ * uno con todos los libros del catálogo y otro con los disponibles. Responde si un libro está
+ * disponible y cuántos lo están sin consultar la base de datos, y recorre los ISBN disponibles
+ * en orden ascendente. Como los ISBN salen de una secuencia y son casi consecutivos, los bitmaps
+ * se comprimen en rachas y ocupan mucho menos que una colección de ISBN.
+ *
+ * Un libro está disponible mientras le quede algún ejemplar. Los libros de un solo ejemplar, que son
+ * la mayoría, quedan descritos por completo por los bitmaps; sólo los de varios ejemplares guardan
+ * además sus contadores de ejemplares en un mapa aparte.
+ *
+ * El índice se reparte en 64 segmentos por bloques de 64 ISBN consecutivos, cada uno con sus
+ * bitmaps, sus contadores y su propio cerrojo, igual que los cerrojos de préstamo por ISBN del
+ * servicio de usuarios: los préstamos y consultas de libros distintos no se esperan entre sí, y los
+ * bloques conservan las rachas de ISBN que comprimen los bitmaps. Cada cambio de un libro actualiza
+ * sus bitmaps y contadores bajo el cerrojo de su segmento, de modo que las lecturas nunca ven un
+ * préstamo o una devolución a medias.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@Component
+public class AvailabilityIndex implements BookIndex {
+
+	private static final int SEGMENTS = 64;
+	private static final int BLOCK_BITS = 6;
+
+	private final Segment[] segments = new Segment[SEGMENTS];
+
+	/**
+	 * Constructor de la clase AvailabilityIndex.
+	 */
+	public AvailabilityIndex() {
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = new Segment();
+		}
+	}
+
+	@Override
+	public void clear() {
+		for (Segment segment : segments) {
+			segment.lock.writeLock().lock();
+			try {
+				segment.catalogued.clear();
+				segment.available.clear();
+				segment.copies.clear();
+				segment.size = 0;
+				segment.availableCount = 0;
+			} finally {
+				segment.lock.writeLock().unlock();
+			}
+		}
+	}
+
+	@Override
+	public void add(BookDTO book) {
+		set(book.getISBN(), book.getCopies(), book.getAvailableCopies());
+	}
+
+	@Override
+	public void update(BookDTO book) {
+		set(book.getISBN(), book.getCopies(), book.getAvailableCopies());
+	}
+
+	@Override
+	public void remove(Long iSBN) {
+		Segment segment = segment(iSBN);
+		segment.lock.writeLock().lock();
+		try {
+			if (segment.catalogued.contains(iSBN)) {
+				segment.catalogued.removeLong(iSBN);
+				segment.size--;
+			}
+			if (segment.available.contains(iSBN)) {
+				segment.available.removeLong(iSBN);
+				segment.availableCount--;
+			}
+			segment.copies.remove(iSBN);
+		} finally {
+			segment.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Indica si el libro está en el catálogo.
+	 *
+	 * @param iSBN el ISBN del libro
+	 * @return true si el libro existe
+	 */
+	public boolean contains(Long iSBN) {
+		Segment segment = segment(iSBN);
+		segment.lock.readLock().lock();
+		try {
+			return segment.catalogued.contains(iSBN);
+		} finally {
+			segment.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Indica si el libro está disponible para préstamo.
+	 *
+	 * @param iSBN el ISBN del libro
+	 * @return true si el libro existe y no está prestado
+	 */
+	public boolean isAvailable(Long iSBN) {
+		Segment segment = segment(iSBN);
+		segment.lock.readLock().lock();
+		try {
+			return segment.available.contains(iSBN);
+		} finally {
+			segment.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Devuelve el número de ejemplares de un libro.
+	 *
+	 * @param iSBN el ISBN del libro
+	 * @return el número de ejemplares, o 0 si el libro no está en el catálogo
+	 */
+	public int copies(long iSBN) {
+		Segment segment = segment(iSBN);
+		segment.lock.readLock().lock();
+		try {
+			Copies counters = segment.copies.get(iSBN);
+			return counters != null ? counters.total : segment.catalogued.contains(iSBN) ? 1 : 0;
+		} finally {
+			segment.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Devuelve el número de ejemplares disponibles de un libro.
+	 *
+	 * @param iSBN el ISBN del libro
+	 * @return el número de ejemplares disponibles, o 0 si el libro no está en el catálogo
+	 */
+	public int availableCopies(long iSBN) {
+		Segment segment = segment(iSBN);
+		segment.lock.readLock().lock();
+		try {
+			Copies counters = segment.copies.get(iSBN);
+			return counters != null ? counters.available : segment.available.contains(iSBN) ? 1 : 0;
+		} finally {
+			segment.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Presta un ejemplar de un libro si le queda alguno disponible. Es el punto de serialización
+	 * de los préstamos y devoluciones diferidos: de varias peticiones simultáneas sobre el último
+	 * ejemplar de un libro sólo una lo encuentra disponible.
+	 *
+	 * @param iSBN el ISBN del libro
+	 * @return los ejemplares que quedan disponibles, o -1 si el libro no existe o no le quedaba ninguno
+	 */
+	public int borrowCopy(long iSBN) {
+		return addCopies(iSBN, -1);
+	}
+
+	/**
+	 * Devuelve un ejemplar de un libro si tenía alguno prestado.
+	 *
+	 * @param iSBN el ISBN del libro
+	 * @return los ejemplares disponibles tras la devolución, o -1 si el libro no existe o tenía todos sus ejemplares
+	 */
+	public int returnCopy(long iSBN) {
+		return addCopies(iSBN, 1);
+	}
+
+	private int addCopies(long iSBN, int delta) {
+		Segment segment = segment(iSBN);
+		segment.lock.writeLock().lock();
+		try {
+			if (!segment.catalogued.contains(iSBN)) {
+				return -1;
+			}
+			Copies counters = segment.copies.get(iSBN);
+			int total = counters != null ? counters.total : 1;
+			int updated = (counters != null ? counters.available : segment.available.contains(iSBN) ? 1 : 0) + delta;
+			if (updated < 0 || updated > total) {
+				return -1;
+			}
+			set(segment, iSBN, total, updated);
+			return updated;
+		} finally {
+			segment.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Devuelve el número de libros disponibles.
+	 *
+	 * @return número de libros disponibles
+	 */
+	public long countAvailable() {
+		long count = 0;
+		for (Segment segment : segments) {
+			count += segment.availableCount;
+		}
+		return count;
+	}
+
+	/**
+	 * Devuelve el número de libros del catálogo.
+	 *
+	 * @return número de libros indexados
+	 */
+	public long size() {
+		long count = 0;
+		for (Segment segment : segments) {
+			count += segment.size;
+		}
+		return count;
+	}
+
+	/**
+	 * Recorre en orden ascendente los ISBN de los libros con la disponibilidad indicada.
+	 * Se recorre una copia de los segmentos, cada uno tomado bajo su cerrojo, por lo que los
+	 * cambios concurrentes no bloquean ni alteran el recorrido.
+	 *
+	 * @param isAvailable true para recorrer los libros disponibles, false para los prestados
+	 * @param action la acción a aplicar a cada ISBN
+	 */
+	public void forEach(boolean isAvailable, LongConsumer action) {
+		Roaring64Bitmap snapshot = new Roaring64Bitmap();
+		for (Segment segment : segments) {
+			segment.lock.readLock().lock();
+			try {
+				if (isAvailable) {
+					snapshot.or(segment.available);
+				} else {
+					Roaring64Bitmap borrowed = segment.catalogued.clone();
+					borrowed.andNot(segment.available);
+					snapshot.or(borrowed);
+				}
+			} finally {
+				segment.lock.readLock().unlock();
+			}
+		}
+		snapshot.forEach(action::accept);
+	}
+
+	private void set(long iSBN, int total, int availableCopies) {
+		Segment segment = segment(iSBN);
+		segment.lock.writeLock().lock();
+		try {
+			set(segment, iSBN, total, availableCopies);
+		} finally {
+			segment.lock.writeLock().unlock();
+		}
+	}
+
+	private static void set(Segment segment, long iSBN, int total, int availableCopies) {
+		if (!segment.catalogued.contains(iSBN)) {
+			segment.catalogued.addLong(iSBN);
+			segment.size++;
+		}
+		if (total > 1) {
+			Copies counters = segment.copies.computeIfAbsent(iSBN, key -> new Copies());
+			counters.total = total;
+			counters.available = availableCopies;
+		} else {
+			segment.copies.remove(iSBN);
+		}
+		boolean isAvailable = availableCopies > 0;
+		boolean wasAvailable = segment.available.contains(iSBN);
+		if (isAvailable && !wasAvailable) {
+			segment.available.addLong(iSBN);
+			segment.availableCount++;
+		} else if (!isAvailable && wasAvailable) {
+			segment.available.removeLong(iSBN);
+			segment.availableCount--;
+		}
+	}
+
+	private Segment segment(long iSBN) {
+		return segments[(int) (iSBN >>> BLOCK_BITS) & (SEGMENTS - 1)];
+	}
+
+	/**
+	 * Bitmaps y contadores de los bloques de ISBN de un segmento, protegidos por su cerrojo.
+	 */
+	private static final class Segment {
+
+		private final ReadWriteLock lock = new ReentrantReadWriteLock();
+		private final Roaring64Bitmap catalogued = new Roaring64Bitmap();
+		private final Roaring64Bitmap available = new Roaring64Bitmap();
+		private final Map<Long, Copies> copies = new HashMap<>();
+		private volatile long size;
+		private volatile long availableCount;
+	}
+
+	/**
+	 * Contadores de un libro con varios ejemplares, protegidos por el cerrojo de su segmento.
+	 */
+	private static final class Copies {
+
+		private int total;
+		private int available;
+	}
+}
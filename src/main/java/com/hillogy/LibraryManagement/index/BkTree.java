@@ -0,0 +1,161 @@
+package com.hillogy.LibraryManagement.index;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Árbol BK (Burkhard-Keller) de palabras con la distancia de Levenshtein.
+ * Cada hijo cuelga de su padre según su distancia a él; por la desigualdad triangular, buscar
+ * las palabras a distancia como mucho {@code d} de una consulta sólo tiene que bajar por los hijos
+ * cuya distancia al nodo esté en [distancia - d, distancia + d], lo que deja sin visitar la mayor
+ * parte del diccionario.
+ *
+ * No admite borrados: las palabras que dejan de usarse se quedan en el árbol hasta que se vacía,
+ * y quien lo consulta descarta las que ya no están en su diccionario. No es seguro para hilos.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+final class BkTree {
+
+	private Node root;
+	private int size;
+
+	/**
+	 * Añade una palabra al árbol si no estaba.
+	 *
+	 * @param word la palabra
+	 */
+	void add(String word) {
+		if (root == null) {
+			root = new Node(word);
+			size++;
+			return;
+		}
+		Node node = root;
+		while (true) {
+			int distance = distance(word, node.word);
+			if (distance == 0) {
+				return;
+			}
+			Node child = node.child(distance);
+			if (child == null) {
+				node.setChild(distance, new Node(word));
+				size++;
+				return;
+			}
+			node = child;
+		}
+	}
+
+	/**
+	 * Recorre las palabras a distancia como mucho {@code maxDistance} de la consulta.
+	 *
+	 * @param query la palabra buscada
+	 * @param maxDistance la distancia máxima
+	 * @param action recibe cada palabra encontrada junto con su distancia a la consulta
+	 */
+	void search(String query, int maxDistance, ObjIntConsumer<String> action) {
+		if (root == null) {
+			return;
+		}
+		Deque<Node> pending = new ArrayDeque<>();
+		pending.push(root);
+		while (!pending.isEmpty()) {
+			Node node = pending.pop();
+			int distance = distance(query, node.word);
+			if (distance <= maxDistance) {
+				action.accept(node.word, distance);
+			}
+			int from = Math.max(1, distance - maxDistance);
+			int to = Math.min(node.children.length - 1, distance + maxDistance);
+			for (int i = from; i <= to; i++) {
+				if (node.children[i] != null) {
+					pending.push(node.children[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Vacía el árbol.
+	 */
+	void clear() {
+		root = null;
+		size = 0;
+	}
+
+	/**
+	 * Devuelve el número de palabras del árbol, incluidas las que ya no se usan.
+	 *
+	 * @return número de palabras
+	 */
+	int size() {
+		return size;
+	}
+
+	private static int distance(String a, String b) {
+		// La distancia nunca supera la longitud de la palabra más larga
+		return distance(a, b, Math.max(a.length(), b.length()));
+	}
+
+	/**
+	 * Distancia de Levenshtein entre dos palabras: el mínimo de inserciones, borrados y
+	 * sustituciones de un carácter que convierten una en otra. Se deja de calcular en cuanto
+	 * supera {@code max}, en cuyo caso devuelve {@code max + 1}.
+	 *
+	 * @param a la primera palabra
+	 * @param b la segunda palabra
+	 * @param max la distancia a partir de la cual no interesa el valor exacto
+	 * @return la distancia, o {@code max + 1} si es mayor que {@code max}
+	 */
+	static int distance(String a, String b, int max) {
+		if (Math.abs(a.length() - b.length()) > max) {
+			return max + 1;
+		}
+		int[] previous = new int[b.length() + 1];
+		int[] current = new int[b.length() + 1];
+		for (int j = 0; j <= b.length(); j++) {
+			previous[j] = j;
+		}
+		for (int i = 1; i <= a.length(); i++) {
+			current[0] = i;
+			int rowMin = current[0];
+			for (int j = 1; j <= b.length(); j++) {
+				int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+				current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+				rowMin = Math.min(rowMin, current[j]);
+			}
+			if (rowMin > max) {
+				return max + 1;
+			}
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		return Math.min(previous[b.length()], max + 1);
+	}
+
+	private static final class Node {
+
+		private final String word;
+		private Node[] children = new Node[0];
+
+		private Node(String word) {
+			this.word = word;
+		}
+
+		private Node child(int distance) {
+			return distance < children.length ? children[distance] : null;
+		}
+
+		private void setChild(int distance, Node child) {
+			if (distance >= children.length) {
+				children = Arrays.copyOf(children, distance + 1);
+			}
+			children[distance] = child;
+		}
+	}
+}
@@ -0,0 +1,315 @@
+package com.hillogy.LibraryManagement.index;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.repository.BookRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Filtro de Bloom sobre los pares (título, autor) del catálogo, normalizados sin mayúsculas ni
+ * espacios en los extremos. Responde "seguro que no existe" sin consultar la base de datos, que sólo
+ * confirma los posibles duplicados. La normalización sólo puede juntar claves que el índice único
+ * de tb_books distingue, nunca separar las que considera iguales, así que el filtro no tiene falsos
+ * negativos; de todos modos la unicidad la sigue garantizando ese índice.
+ *
+ * Los bits se activan con operaciones atómicas y se admiten altas y consultas concurrentes sin
+ * bloqueos. Un filtro de Bloom no permite quitar claves: los libros borrados siguen dando positivos
+ * hasta la siguiente reconstrucción. El filtro se dimensiona al reconstruirse para el doble de los
+ * libros del catálogo (como mínimo {@code library.dedup.expected-books}).
+ *
+ * El filtro crece sin volver a leer el catálogo, que no guarda: cuando la tasa esperada de su último
+ * array de bits supera la que le corresponde, las altas siguientes van a un array nuevo del doble de
+ * capacidad y la mitad de tasa, y las consultas miran todos los arrays. El primero se crea con la
+ * mitad de {@code library.dedup.false-positive-rate}, así que la suma de todos nunca pasa de esa tasa.
+ * La siguiente reconstrucción vuelve a juntarlos en un solo array.
+ *
+ * Publica en /actuator/metrics las comprobaciones por resultado ({@code library.books.dedup.checks})
+ * y la tasa de falsos positivos esperada según los bits activos y la observada
+ * ({@code library.books.dedup.false-positive-rate}).
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@Component
+public class BookDuplicateFilter implements BookIndex {
+
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${library.dedup.expected-books:100000}")
+	private long expectedBooks = 100_000;
+
+	@Value("${library.dedup.false-positive-rate:0.01}")
+	private double falsePositiveRate = 0.01;
+
+	private volatile Bits bits = new Bits(1, 0.5, null);
+
+	private final LongAdder definitelyNew = new LongAdder();
+	private final LongAdder duplicates = new LongAdder();
+	private final LongAdder falsePositives = new LongAdder();
+
+	/**
+	 * Registra las métricas del filtro.
+	 */
+	@PostConstruct
+	public void registerMetrics() {
+		counter("new", definitelyNew);
+		counter("duplicate", duplicates);
+		counter("false-positive", falsePositives);
+		Gauge.builder("library.books.dedup.false-positive-rate", this, BookDuplicateFilter::expectedFalsePositiveRate)
+				.description("Tasa de falsos positivos del filtro de duplicados")
+				.tag("kind", "expected")
+				.register(meterRegistry);
+		Gauge.builder("library.books.dedup.false-positive-rate", this, BookDuplicateFilter::observedFalsePositiveRate)
+				.description("Tasa de falsos positivos del filtro de duplicados")
+				.tag("kind", "observed")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Sustituye el filtro por uno vacío dimensionado según el tamaño actual del catálogo.
+	 */
+	@Override
+	public void clear() {
+		bits = new Bits(Math.max(expectedBooks, 2 * bookRepository.count()), falsePositiveRate / 2, null);
+	}
+
+	@Override
+	public void add(BookDTO book) {
+		Bits current = bits;
+		current.put(hash(book.getTitle(), book.getAuthor()));
+		if (current.isFull()) {
+			grow(current);
+		}
+	}
+
+	@Override
+	public void update(BookDTO book) {
+		add(book);
+	}
+
+	/**
+	 * No hace nada: un filtro de Bloom no permite quitar claves.
+	 */
+	@Override
+	public void remove(Long iSBN) {
+		// El libro borrado seguirá dando positivo hasta la siguiente reconstrucción
+	}
+
+	/**
+	 * Indica si puede existir un libro con el título y autor indicados.
+	 *
+	 * @param title el título del libro
+	 * @param author el autor del libro
+	 * @return false si seguro que no existe, true si puede existir
+	 */
+	public boolean mightContain(String title, String author) {
+		boolean maybe = bits.mightContain(hash(title, author));
+		if (!maybe) {
+			definitelyNew.increment();
+		}
+		return maybe;
+	}
+
+	/**
+	 * Registra la comprobación en la base de datos de un positivo de {@link #mightContain(String, String)}.
+	 *
+	 * @param duplicate true si el libro existía, false si era un falso positivo
+	 */
+	public void confirm(boolean duplicate) {
+		(duplicate ? duplicates : falsePositives).increment();
+	}
+
+	/**
+	 * Comprueba si existe un libro con el título y autor indicados, consultando {@code exists}
+	 * sólo si el filtro no puede descartarlo.
+	 *
+	 * @param title el título del libro
+	 * @param author el autor del libro
+	 * @param exists la comprobación en la base de datos
+	 * @return true si el libro existe
+	 */
+	public boolean isDuplicate(String title, String author, BiPredicate<String, String> exists) {
+		if (!mightContain(title, author)) {
+			return false;
+		}
+		boolean duplicate = exists.test(title, author);
+		confirm(duplicate);
+		return duplicate;
+	}
+
+	/**
+	 * Devuelve el número de arrays de bits del filtro, que pasa de uno cuando ha tenido que crecer.
+	 *
+	 * @return el número de arrays de bits
+	 */
+	public int generations() {
+		int generations = 0;
+		for (Bits current = bits; current != null; current = current.previous) {
+			generations++;
+		}
+		return generations;
+	}
+
+	/**
+	 * Devuelve la probabilidad de falso positivo según la proporción de bits activos.
+	 *
+	 * @return la tasa de falsos positivos esperada
+	 */
+	public double expectedFalsePositiveRate() {
+		return bits.expectedFalsePositiveRate();
+	}
+
+	/**
+	 * Devuelve la proporción de libros nuevos que el filtro no pudo descartar, entre los comprobados.
+	 *
+	 * @return la tasa de falsos positivos observada, o 0 si aún no se ha comprobado ningún libro nuevo
+	 */
+	public double observedFalsePositiveRate() {
+		long wrong = falsePositives.sum();
+		long negatives = wrong + definitelyNew.sum();
+		return negatives == 0 ? 0 : (double) wrong / negatives;
+	}
+
+	/**
+	 * Añade un array del doble de capacidad y la mitad de tasa si {@code full} sigue siendo el último;
+	 * las altas concurrentes que aún escriben en él se siguen encontrando.
+	 */
+	private synchronized void grow(Bits full) {
+		if (bits == full) {
+			bits = new Bits(2 * full.capacity, full.falsePositiveRate / 2, full);
+		}
+	}
+
+	private void counter(String result, LongAdder adder) {
+		FunctionCounter.builder("library.books.dedup.checks", adder, LongAdder::doubleValue)
+				.description("Comprobaciones de duplicados en el alta de libros")
+				.tag("result", result)
+				.register(meterRegistry);
+	}
+
+	private static long hash(String title, String author) {
+		long hash = fnv(FNV_OFFSET, normalize(title));
+		// Separador para que ("ab", "c") y ("a", "bc") no coincidan
+		hash = (hash ^ 0xff) * FNV_PRIME;
+		return mix(fnv(hash, normalize(author)));
+	}
+
+	private static long fnv(long hash, String value) {
+		for (int i = 0; i < value.length(); i++) {
+			hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+		}
+		return hash;
+	}
+
+	private static long mix(long value) {
+		value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+		value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+		return value ^ (value >>> 31);
+	}
+
+	private static String normalize(String value) {
+		return value == null ? "" : value.strip().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Array de bits del filtro con su número de funciones hash, que se obtienen por doble hash
+	 * a partir del hash de 64 bits de la clave, enlazado con los arrays anteriores si el filtro ha
+	 * crecido.
+	 */
+	private static final class Bits {
+
+		private final AtomicLongArray words;
+		private final long size;
+		private final int hashes;
+		private final long capacity;
+		private final double falsePositiveRate;
+		private final Bits previous;
+		private final LongAdder setBits = new LongAdder();
+
+		private Bits(long capacity, double falsePositiveRate, Bits previous) {
+			this.capacity = capacity;
+			this.falsePositiveRate = falsePositiveRate;
+			this.previous = previous;
+			double ln2 = Math.log(2);
+			long optimal = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+			words = new AtomicLongArray((int) Math.max(1, (optimal + 63) >>> 6));
+			size = words.length() * 64L;
+			hashes = Math.max(1, (int) Math.round((double) size / capacity * ln2));
+		}
+
+		private void put(long hash) {
+			long step = mix(hash ^ FNV_PRIME) | 1;
+			for (int i = 0; i < hashes; i++) {
+				set(Math.floorMod(hash + i * step, size));
+			}
+		}
+
+		private boolean mightContain(long hash) {
+			for (Bits current = this; current != null; current = current.previous) {
+				if (current.contains(hash)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private boolean contains(long hash) {
+			long step = mix(hash ^ FNV_PRIME) | 1;
+			for (int i = 0; i < hashes; i++) {
+				long bit = Math.floorMod(hash + i * step, size);
+				if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private boolean isFull() {
+			return rate() > falsePositiveRate;
+		}
+
+		private void set(long bit) {
+			int word = (int) (bit >>> 6);
+			long mask = 1L << bit;
+			long current = words.get(word);
+			while ((current & mask) == 0) {
+				if (words.compareAndSet(word, current, current | mask)) {
+					setBits.increment();
+					return;
+				}
+				current = words.get(word);
+			}
+		}
+
+		private double rate() {
+			return Math.pow((double) setBits.sum() / size, hashes);
+		}
+
+		private double expectedFalsePositiveRate() {
+			double negative = 1;
+			for (Bits current = this; current != null; current = current.previous) {
+				negative *= 1 - current.rate();
+			}
+			return 1 - negative;
+		}
+	}
+}
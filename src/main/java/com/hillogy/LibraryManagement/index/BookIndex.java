@@ -0,0 +1,40 @@
+package com.hillogy.LibraryManagement.index;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+
+/**
+ * Interfaz para las estructuras en memoria construidas sobre el catálogo de libros.
+ * Las implementaciones se reconstruyen al arrancar y se mantienen al día de forma
+ * incremental a través de {@link BookIndexSynchronizer}.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public interface BookIndex {
+
+	/**
+	 * Vacía el índice antes de una reconstrucción completa.
+	 */
+	void clear();
+
+	/**
+	 * Añade un libro al índice, o lo reemplaza si ya estaba indexado.
+	 *
+	 * @param book el libro a indexar
+	 */
+	void add(BookDTO book);
+
+	/**
+	 * Actualiza un libro ya indexado (por ejemplo, su disponibilidad).
+	 *
+	 * @param book el nuevo estado del libro
+	 */
+	void update(BookDTO book);
+
+	/**
+	 * Elimina un libro del índice.
+	 *
+	 * @param iSBN el ISBN del libro a eliminar
+	 */
+	void remove(Long iSBN);
+}
@@ -0,0 +1,289 @@
+package com.hillogy.LibraryManagement.index;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.event.BookEvent;
+import com.hillogy.LibraryManagement.repository.BookRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Componente que mantiene sincronizados todos los {@link BookIndex} con la base de datos.
+ * Al arrancar la aplicación recorre el catálogo una sola vez alimentando todos los índices,
+ * y después aplica cada {@link BookEvent} una vez confirmada la transacción que lo originó.
+ *
+ * Si hay una {@link CatalogueSnapshot} válida, los índices se construyen a partir de ella sin leer
+ * tb_books y el arranque no espera a la base de datos: la instantánea se contrasta en segundo plano
+ * con tb_books y se corrigen los libros que hayan cambiado desde que se escribió. Hasta que termina
+ * el contraste los índices no se declaran listos, de modo que los préstamos y las consultas de
+ * disponibilidad no se resuelven con contadores de la instantánea que pueden estar desfasados, sino
+ * con la base de datos. La instantánea se reescribe cada {@code library.snapshot.interval} y al parar
+ * la aplicación.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@Component
+public class BookIndexSynchronizer {
+
+	private static final Logger log = LoggerFactory.getLogger(BookIndexSynchronizer.class);
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private List<BookIndex> indexes;
+
+	@Autowired
+	private BookSearchIndex bookSearchIndex;
+
+	@Autowired
+	private BookSuggestionIndex bookSuggestionIndex;
+
+	@Autowired
+	private CatalogueSnapshot catalogueSnapshot;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Value("${library.snapshot.interval:5m}")
+	private Duration snapshotInterval = Duration.ofMinutes(5);
+
+	private volatile boolean ready;
+
+	/**
+	 * ISBN de los libros cambiados mientras se recorre tb_books para reconstruir los índices o contrastar
+	 * la instantánea, o null. Las filas de esos libros que lea después el recorrido pueden ser anteriores
+	 * al cambio y no se aplican.
+	 */
+	private volatile Set<Long> changedDuringLoad;
+
+	private ScheduledExecutorService snapshotScheduler;
+
+	/**
+	 * Indica si los índices ya se han construido y pueden usarse en lugar de la base de datos.
+	 *
+	 * @return true si los índices están listos
+	 */
+	public boolean isReady() {
+		return ready;
+	}
+
+	/**
+	 * Construye los índices al arrancar la aplicación: desde la instantánea del catálogo si la hay,
+	 * o recorriendo el repositorio si no.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		if (!catalogueSnapshot.isEnabled() || !restore()) {
+			new TransactionTemplate(transactionManager).executeWithoutResult(status -> rebuild());
+		}
+		if (!catalogueSnapshot.isEnabled()) {
+			return;
+		}
+		snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "catalogue-snapshot");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long interval = snapshotInterval.toMillis();
+		snapshotScheduler.scheduleWithFixedDelay(this::saveSnapshot, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Reconstruye todos los índices a partir del repositorio recorriendo el catálogo una sola vez.
+	 * Los eventos que lleguen durante la reconstrucción también se aplican, y las filas que el cursor
+	 * lea después de un libro cambiado se descartan, para que una fila anterior al cambio no devuelva
+	 * a los índices un libro ya eliminado o actualizado.
+	 */
+	@Transactional(readOnly = true)
+	public void rebuild() {
+		ready = false;
+		long start = System.currentTimeMillis();
+		indexes.forEach(BookIndex::clear);
+		// Después de vaciar los índices: un evento anterior ya está confirmado y lo leerá el cursor
+		Set<Long> changed = ConcurrentHashMap.newKeySet();
+		changedDuringLoad = changed;
+		long count = 0;
+		try (Stream<BookDTO> books = bookRepository.streamAll()) {
+			for (BookDTO bookDTO : (Iterable<BookDTO>) books::iterator) {
+				synchronized (changed) {
+					if (!changed.contains(bookDTO.getISBN())) {
+						indexes.forEach(index -> index.add(bookDTO));
+					}
+				}
+				count++;
+			}
+		} finally {
+			changedDuringLoad = null;
+		}
+		bookSuggestionIndex.loadLoans();
+		ready = true;
+		log.info("Índices del catálogo construidos: {} libros en {} ms", count, System.currentTimeMillis() - start);
+	}
+
+	/**
+	 * Aplica un cambio del catálogo a todos los índices tras confirmarse la transacción, antes de que
+	 * cambie la versión del catálogo con la que se construyen los ETag.
+	 * Si el cambio se produjo fuera de una transacción se aplica inmediatamente.
+	 *
+	 * @param event el evento con el cambio
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void onBookEvent(BookEvent event) {
+		Set<Long> changed = changedDuringLoad;
+		if (changed == null) {
+			apply(event);
+			return;
+		}
+		synchronized (changed) {
+			changed.add(event.getBook().getISBN());
+			apply(event);
+		}
+	}
+
+	/**
+	 * Escribe la instantánea del catálogo al parar la aplicación.
+	 */
+	@PreDestroy
+	public void stop() {
+		if (snapshotScheduler == null) {
+			return;
+		}
+		snapshotScheduler.shutdownNow();
+		// Una instantánea a medio contrastar o reconstruir podría conservar libros ya borrados
+		if (changedDuringLoad == null) {
+			saveSnapshot();
+		}
+	}
+
+	private void apply(BookEvent event) {
+		for (BookIndex index : indexes) {
+			switch (event.getType()) {
+			case CREATED -> index.add(event.getBook());
+			case UPDATED -> index.update(event.getBook());
+			case DELETED -> index.remove(event.getBook().getISBN());
+			}
+		}
+	}
+
+	private boolean restore() {
+		long start = System.currentTimeMillis();
+		indexes.forEach(BookIndex::clear);
+		int count = catalogueSnapshot.restore(book -> indexes.forEach(index -> index.add(book)));
+		if (count < 0) {
+			return false;
+		}
+		long[] restored = new long[bookSearchIndex.size()];
+		int[] position = { 0 };
+		bookSearchIndex.forEach(book -> restored[position[0]++] = book.getISBN());
+		Arrays.sort(restored);
+		changedDuringLoad = ConcurrentHashMap.newKeySet();
+		log.info("Índices del catálogo restaurados de la instantánea: {} libros en {} ms", count, System.currentTimeMillis() - start);
+
+		Thread thread = new Thread(() -> reconcile(restored), "catalogue-reconcile");
+		thread.setDaemon(true);
+		thread.start();
+		return true;
+	}
+
+	/**
+	 * Contrasta los índices restaurados con tb_books: añade o actualiza los libros que difieren y quita
+	 * los que ya no existen. Los libros que han recibido un evento desde el arranque ya están al día y no se tocan.
+	 */
+	private void reconcile(long[] restored) {
+		long start = System.currentTimeMillis();
+		Set<Long> changed = changedDuringLoad;
+		BitSet seen = new BitSet(restored.length);
+		int[] corrected = { 0 };
+		try {
+			new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+				try (Stream<BookDTO> books = bookRepository.streamAll()) {
+					books.forEach(book -> {
+						int position = Arrays.binarySearch(restored, book.getISBN());
+						if (position >= 0) {
+							seen.set(position);
+						}
+						synchronized (changed) {
+							BookDTO indexed = bookSearchIndex.get(book.getISBN());
+							if (!changed.contains(book.getISBN()) && !same(book, indexed)) {
+								indexes.forEach(index -> {
+									if (indexed == null) {
+										index.add(book);
+									} else {
+										index.update(book);
+									}
+								});
+								corrected[0]++;
+							}
+						}
+					});
+				}
+			});
+			for (int i = seen.nextClearBit(0); i < restored.length; i = seen.nextClearBit(i + 1)) {
+				Long iSBN = restored[i];
+				synchronized (changed) {
+					if (!changed.contains(iSBN)) {
+						indexes.forEach(index -> index.remove(iSBN));
+						corrected[0]++;
+					}
+				}
+			}
+			changedDuringLoad = null;
+			bookSuggestionIndex.loadLoans();
+			ready = true;
+			log.info("Instantánea del catálogo contrastada con la base de datos: {} libros corregidos en {} ms", corrected[0],
+					System.currentTimeMillis() - start);
+		} catch (RuntimeException ex) {
+			log.error("No se pudo contrastar la instantánea del catálogo; se reconstruyen los índices", ex);
+			changedDuringLoad = null;
+			new TransactionTemplate(transactionManager).executeWithoutResult(status -> rebuild());
+		}
+	}
+
+	private void saveSnapshot() {
+		if (!ready) {
+			return;
+		}
+		try {
+			long start = System.currentTimeMillis();
+			int count = catalogueSnapshot.save(bookSearchIndex::forEach);
+			log.debug("Instantánea del catálogo escrita: {} libros en {} ms", count, System.currentTimeMillis() - start);
+		} catch (IOException | RuntimeException ex) {
+			log.warn("No se pudo escribir la instantánea del catálogo", ex);
+		}
+	}
+
+	private static boolean same(BookDTO book, BookDTO indexed) {
+		return indexed != null && Objects.equals(book.getTitle(), indexed.getTitle())
+				&& Objects.equals(book.getAuthor(), indexed.getAuthor()) && book.getCopies() == indexed.getCopies()
+				&& book.getAvailableCopies() == indexed.getAvailableCopies();
+	}
+}
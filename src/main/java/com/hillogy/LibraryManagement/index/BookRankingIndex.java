@@ -0,0 +1,328 @@
+package com.hillogy.LibraryManagement.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+
+/**
+ * Índice invertido de palabras del título y el autor para la búsqueda por relevancia.
+ *
+ * Las palabras se indexan sin tildes ni mayúsculas (ver {@link TextFolding}) y sin las palabras
+ * vacías más frecuentes del catálogo ("de", "la", "el"...), que aparecen en casi todos los títulos
+ * y no ayudan a ordenar. Cada libro puntúa con BM25 sobre el título y el autor por separado, sumando
+ * ambos campos y todas las palabras de la consulta, de modo que pesan más las palabras raras y los
+ * campos cortos en los que la palabra aparece.
+ *
+ * Las palabras de la consulta que no están en el diccionario se buscan en un árbol BK con la distancia
+ * de Levenshtein: se admite una errata en las palabras de 3 a 5 letras y dos en las más largas, y se
+ * usan sólo las palabras del diccionario más cercanas, con una puntuación menor cuanto más lejanas.
+ *
+ * Los mejores resultados se seleccionan con un montículo acotado al número pedido, sin ordenar
+ * todas las coincidencias.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@Component
+public class BookRankingIndex implements BookIndex {
+
+	private static final double K1 = 1.2;
+	private static final double B = 0.75;
+	private static final int AUTHOR_SHIFT = 16;
+	private static final int FREQUENCY_MASK = 0xFFFF;
+
+	private static final Set<String> STOP_WORDS = Set.of("a", "al", "con", "de", "del", "e", "el", "en", "la", "las",
+			"lo", "los", "o", "para", "por", "su", "sus", "u", "un", "una", "y", "and", "of", "the");
+
+	private static final Comparator<Hit> BEST_FIRST = Comparator.comparingDouble(Hit::score).reversed()
+			.thenComparing(Hit::iSBN);
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+	private final Map<Long, Document> documents = new HashMap<>();
+	private final BkTree dictionary = new BkTree();
+	private long titleLengths;
+	private long authorLengths;
+
+	@Override
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			postings.clear();
+			documents.clear();
+			dictionary.clear();
+			titleLengths = 0;
+			authorLengths = 0;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void add(BookDTO book) {
+		Document document = Document.of(book);
+		lock.writeLock().lock();
+		try {
+			unindex(book.getISBN());
+			index(book.getISBN(), document);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void update(BookDTO book) {
+		Document document = Document.of(book);
+		lock.readLock().lock();
+		try {
+			// Casi todas las actualizaciones son préstamos y devoluciones, que no cambian el texto
+			if (document.sameTerms(documents.get(book.getISBN()))) {
+				return;
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		add(book);
+	}
+
+	@Override
+	public void remove(Long iSBN) {
+		lock.writeLock().lock();
+		try {
+			unindex(iSBN);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Busca los libros más relevantes para una consulta de texto libre sobre el título y el autor.
+	 *
+	 * @param query el texto de la consulta
+	 * @param limit el número máximo de libros a devolver
+	 * @return los ISBN de los libros encontrados, del más al menos relevante (a igual puntuación, por ISBN)
+	 */
+	public List<Long> search(String query, int limit) {
+		List<String> terms = queryTerms(query);
+		if (terms.isEmpty() || limit <= 0) {
+			return new ArrayList<>();
+		}
+		Map<Long, Double> scores = new HashMap<>();
+		lock.readLock().lock();
+		try {
+			if (documents.isEmpty()) {
+				return new ArrayList<>();
+			}
+			double averageTitle = Math.max(1.0, (double) titleLengths / documents.size());
+			double averageAuthor = Math.max(1.0, (double) authorLengths / documents.size());
+			for (String term : terms) {
+				// Cada palabra de la consulta cuenta una vez por libro, con la mejor de sus variantes
+				Map<Long, Double> termScores = new HashMap<>();
+				expand(term).forEach((word, distance) -> {
+					Map<Long, Integer> frequencies = postings.get(word);
+					double weight = idf(frequencies.size()) * similarity(term, word, distance);
+					frequencies.forEach((iSBN, packed) -> {
+						Document document = documents.get(iSBN);
+						double score = weight * (bm25(packed & FREQUENCY_MASK, document.titleLength, averageTitle)
+								+ bm25(packed >>> AUTHOR_SHIFT, document.authorLength, averageAuthor));
+						termScores.merge(iSBN, score, Math::max);
+					});
+				});
+				termScores.forEach((iSBN, score) -> scores.merge(iSBN, score, Double::sum));
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return top(scores, limit);
+	}
+
+	/**
+	 * Devuelve el número de palabras distintas indexadas.
+	 *
+	 * @return número de palabras del diccionario
+	 */
+	public int terms() {
+		lock.readLock().lock();
+		try {
+			return postings.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Selecciona los {@code limit} libros con mayor puntuación con un montículo de mínimos acotado:
+	 * cada libro sólo entra si supera al peor de los que ya están.
+	 */
+	private static List<Long> top(Map<Long, Double> scores, int limit) {
+		PriorityQueue<Hit> heap = new PriorityQueue<>(Math.min(limit, scores.size()) + 1, BEST_FIRST.reversed());
+		for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+			Hit hit = new Hit(entry.getKey(), entry.getValue());
+			if (heap.size() < limit) {
+				heap.offer(hit);
+			} else if (BEST_FIRST.compare(hit, heap.peek()) < 0) {
+				heap.poll();
+				heap.offer(hit);
+			}
+		}
+		List<Hit> hits = new ArrayList<>(heap);
+		hits.sort(BEST_FIRST);
+		List<Long> iSBNs = new ArrayList<>(hits.size());
+		for (Hit hit : hits) {
+			iSBNs.add(hit.iSBN());
+		}
+		return iSBNs;
+	}
+
+	/**
+	 * Obtiene las palabras del diccionario que se usan para una palabra de la consulta: ella misma
+	 * si está indexada y, si no, las más cercanas dentro de las erratas admitidas.
+	 *
+	 * @param term la palabra de la consulta
+	 * @return las palabras del diccionario con su distancia a la de la consulta
+	 */
+	private Map<String, Integer> expand(String term) {
+		Map<String, Integer> words = new HashMap<>();
+		if (postings.containsKey(term)) {
+			words.put(term, 0);
+			return words;
+		}
+		int maxEdits = term.length() < 3 ? 0 : term.length() <= 5 ? 1 : 2;
+		int[] closest = { maxEdits };
+		dictionary.search(term, maxEdits, (word, distance) -> {
+			// El árbol conserva palabras que ya no tiene ningún libro
+			if (distance > closest[0] || !postings.containsKey(word)) {
+				return;
+			}
+			if (distance < closest[0]) {
+				closest[0] = distance;
+				words.clear();
+			}
+			words.put(word, distance);
+		});
+		return words;
+	}
+
+	private double idf(int documentFrequency) {
+		return Math.log(1 + (documents.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+	}
+
+	private static double bm25(int frequency, int length, double averageLength) {
+		if (frequency == 0) {
+			return 0;
+		}
+		return frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+	}
+
+	private static double similarity(String term, String word, int distance) {
+		return 1.0 - (double) distance / Math.min(term.length(), word.length());
+	}
+
+	private static List<String> queryTerms(String query) {
+		List<String> tokens = TextFolding.tokens(query);
+		Set<String> terms = new LinkedHashSet<>();
+		for (String token : tokens) {
+			if (!STOP_WORDS.contains(token)) {
+				terms.add(token);
+			}
+		}
+		// Una consulta hecha sólo de palabras vacías no encuentra nada: no se indexan
+		return new ArrayList<>(terms);
+	}
+
+	private void index(Long iSBN, Document document) {
+		for (int i = 0; i < document.terms.length; i++) {
+			String term = document.terms[i];
+			Map<Long, Integer> frequencies = postings.get(term);
+			if (frequencies == null) {
+				frequencies = new HashMap<>();
+				postings.put(term, frequencies);
+				dictionary.add(term);
+			}
+			frequencies.put(iSBN, document.frequencies[i]);
+		}
+		documents.put(iSBN, document);
+		titleLengths += document.titleLength;
+		authorLengths += document.authorLength;
+	}
+
+	private void unindex(Long iSBN) {
+		Document previous = documents.remove(iSBN);
+		if (previous == null) {
+			return;
+		}
+		for (String term : previous.terms) {
+			Map<Long, Integer> frequencies = postings.get(term);
+			if (frequencies != null) {
+				frequencies.remove(iSBN);
+				if (frequencies.isEmpty()) {
+					postings.remove(term);
+				}
+			}
+		}
+		titleLengths -= previous.titleLength;
+		authorLengths -= previous.authorLength;
+	}
+
+	/**
+	 * Palabras indexadas de un libro, con sus frecuencias en el título (16 bits bajos) y en el
+	 * autor (16 bits altos), y la longitud en palabras de cada campo.
+	 */
+	private static final class Document {
+
+		private final String[] terms;
+		private final int[] frequencies;
+		private final int titleLength;
+		private final int authorLength;
+
+		private Document(String[] terms, int[] frequencies, int titleLength, int authorLength) {
+			this.terms = terms;
+			this.frequencies = frequencies;
+			this.titleLength = titleLength;
+			this.authorLength = authorLength;
+		}
+
+		private static Document of(BookDTO book) {
+			Map<String, Integer> counts = new TreeMap<>();
+			int titleLength = count(book.getTitle(), 1, counts);
+			int authorLength = count(book.getAuthor(), 1 << AUTHOR_SHIFT, counts);
+			String[] terms = counts.keySet().toArray(new String[0]);
+			int[] frequencies = new int[terms.length];
+			for (int i = 0; i < terms.length; i++) {
+				frequencies[i] = counts.get(terms[i]);
+			}
+			return new Document(terms, frequencies, titleLength, authorLength);
+		}
+
+		private static int count(String field, int increment, Map<String, Integer> counts) {
+			int length = 0;
+			for (String token : TextFolding.tokens(field)) {
+				if (!STOP_WORDS.contains(token)) {
+					counts.merge(token, increment, Integer::sum);
+					length++;
+				}
+			}
+			return length;
+		}
+
+		private boolean sameTerms(Document other) {
+			return other != null && Arrays.equals(terms, other.terms) && Arrays.equals(frequencies, other.frequencies);
+		}
+	}
+
+	private record Hit(Long iSBN, double score) {
+	}
+}
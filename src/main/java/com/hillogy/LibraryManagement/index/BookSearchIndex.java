@@ -0,0 +1,238 @@
+package com.hillogy.LibraryManagement.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+
+/**
+ * Índice invertido de trigramas sobre el título y el autor de los libros.
+ * Resuelve las búsquedas por subcadena (sin distinguir mayúsculas) que antes se hacían
+ * con {@code LOWER(col) LIKE '%x%'}: se toma la lista de candidatos del trigrama menos
+ * frecuente de la consulta y sólo esos candidatos se verifican con {@code contains}.
+ * Las consultas de menos de tres caracteres no tienen trigramas y se resuelven recorriendo
+ * los libros indexados.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@Component
+public class BookSearchIndex implements BookIndex {
+
+	private static final int GRAM_LENGTH = 3;
+
+	private final Map<Long, Entry> books = new ConcurrentHashMap<>();
+	private final Map<String, Set<Long>> titleGrams = new ConcurrentHashMap<>();
+	private final Map<String, Set<Long>> authorGrams = new ConcurrentHashMap<>();
+
+	@Override
+	public void clear() {
+		books.clear();
+		titleGrams.clear();
+		authorGrams.clear();
+	}
+
+	@Override
+	public void add(BookDTO book) {
+		Entry entry = new Entry(book);
+		Entry previous = books.put(entry.iSBN, entry);
+		if (previous != null) {
+			unindex(previous);
+		}
+		index(entry);
+	}
+
+	@Override
+	public void update(BookDTO book) {
+		Entry previous = books.get(book.getISBN());
+		if (previous == null || !previous.sameText(book)) {
+			add(book);
+			return;
+		}
+		// Sólo ha cambiado la disponibilidad: los trigramas siguen siendo válidos
+		books.put(previous.iSBN, new Entry(book));
+	}
+
+	@Override
+	public void remove(Long iSBN) {
+		Entry previous = books.remove(iSBN);
+		if (previous != null) {
+			unindex(previous);
+		}
+	}
+
+	/**
+	 * Busca libros cuyo título contenga la cadena indicada, sin distinguir mayúsculas.
+	 *
+	 * @param title el título (o parte del título) a buscar
+	 * @return lista de libros encontrados ordenados por ISBN
+	 */
+	public List<BookDTO> searchByTitle(String title) {
+		return search(normalize(title), titleGrams, entry -> entry.normalizedTitle);
+	}
+
+	/**
+	 * Busca libros cuyo autor contenga la cadena indicada, sin distinguir mayúsculas.
+	 *
+	 * @param author el autor (o parte del autor) a buscar
+	 * @return lista de libros encontrados ordenados por ISBN
+	 */
+	public List<BookDTO> searchByAuthor(String author) {
+		return search(normalize(author), authorGrams, entry -> entry.normalizedAuthor);
+	}
+
+	/**
+	 * Estima cuántos libros contienen la cadena en el título, sin recorrerlos: es el tamaño
+	 * de la lista de candidatos que usaría {@link #searchByTitle(String)}, una cota superior del resultado.
+	 *
+	 * @param title el título (o parte del título) a buscar
+	 * @return el número máximo de libros que puede devolver la búsqueda
+	 */
+	public int estimateTitleMatches(String title) {
+		return estimate(normalize(title), titleGrams);
+	}
+
+	/**
+	 * Estima cuántos libros contienen la cadena en el autor, sin recorrerlos.
+	 *
+	 * @param author el autor (o parte del autor) a buscar
+	 * @return el número máximo de libros que puede devolver la búsqueda
+	 */
+	public int estimateAuthorMatches(String author) {
+		return estimate(normalize(author), authorGrams);
+	}
+
+	/**
+	 * Devuelve un libro indexado.
+	 *
+	 * @param iSBN el ISBN del libro
+	 * @return el libro, o null si no está indexado
+	 */
+	public BookDTO get(Long iSBN) {
+		Entry entry = books.get(iSBN);
+		return entry == null ? null : entry.toDTO();
+	}
+
+	/**
+	 * Recorre los libros indexados, sin un orden determinado.
+	 *
+	 * @param action consumidor que recibe cada libro
+	 */
+	public void forEach(Consumer<BookDTO> action) {
+		books.values().forEach(entry -> action.accept(entry.toDTO()));
+	}
+
+	/**
+	 * Devuelve el número de libros indexados.
+	 *
+	 * @return número de libros en el índice
+	 */
+	public int size() {
+		return books.size();
+	}
+
+	private List<BookDTO> search(String query, Map<String, Set<Long>> grams, Function<Entry, String> field) {
+		Collection<Long> candidates;
+		if (query.length() < GRAM_LENGTH) {
+			candidates = books.keySet();
+		} else {
+			candidates = null;
+			for (int i = 0; i + GRAM_LENGTH <= query.length(); i++) {
+				Set<Long> postings = grams.get(query.substring(i, i + GRAM_LENGTH));
+				if (postings == null) {
+					return new ArrayList<>();
+				}
+				if (candidates == null || postings.size() < candidates.size()) {
+					candidates = postings;
+				}
+			}
+		}
+		List<BookDTO> result = new ArrayList<>();
+		for (Long iSBN : candidates) {
+			Entry entry = books.get(iSBN);
+			if (entry != null && field.apply(entry).contains(query)) {
+				result.add(entry.toDTO());
+			}
+		}
+		result.sort(Comparator.comparing(BookDTO::getISBN));
+		return result;
+	}
+
+	private int estimate(String query, Map<String, Set<Long>> grams) {
+		int estimate = books.size();
+		for (int i = 0; i + GRAM_LENGTH <= query.length(); i++) {
+			Set<Long> postings = grams.get(query.substring(i, i + GRAM_LENGTH));
+			estimate = Math.min(estimate, postings == null ? 0 : postings.size());
+		}
+		return estimate;
+	}
+
+	private void index(Entry entry) {
+		forEachGram(entry.normalizedTitle, gram -> titleGrams.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(entry.iSBN));
+		forEachGram(entry.normalizedAuthor, gram -> authorGrams.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(entry.iSBN));
+	}
+
+	private void unindex(Entry entry) {
+		forEachGram(entry.normalizedTitle, gram -> removePosting(titleGrams, gram, entry.iSBN));
+		forEachGram(entry.normalizedAuthor, gram -> removePosting(authorGrams, gram, entry.iSBN));
+	}
+
+	private static void removePosting(Map<String, Set<Long>> grams, String gram, Long iSBN) {
+		grams.computeIfPresent(gram, (key, postings) -> {
+			postings.remove(iSBN);
+			return postings.isEmpty() ? null : postings;
+		});
+	}
+
+	private static void forEachGram(String value, Consumer<String> action) {
+		for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+			action.accept(value.substring(i, i + GRAM_LENGTH));
+		}
+	}
+
+	private static String normalize(String value) {
+		return value == null ? "" : value.toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Copia inmutable de un libro indexado junto con sus campos normalizados.
+	 */
+	private static final class Entry {
+
+		private final Long iSBN;
+		private final String title;
+		private final String author;
+		private final int copies;
+		private final int availableCopies;
+		private final String normalizedTitle;
+		private final String normalizedAuthor;
+
+		private Entry(BookDTO book) {
+			this.iSBN = book.getISBN();
+			this.title = book.getTitle();
+			this.author = book.getAuthor();
+			this.copies = book.getCopies();
+			this.availableCopies = book.getAvailableCopies();
+			this.normalizedTitle = normalize(title);
+			this.normalizedAuthor = normalize(author);
+		}
+
+		private boolean sameText(BookDTO book) {
+			return normalizedTitle.equals(normalize(book.getTitle())) && normalizedAuthor.equals(normalize(book.getAuthor()));
+		}
+
+		private BookDTO toDTO() {
+			return new BookDTO(iSBN, title, author, copies, availableCopies);
+		}
+	}
+}
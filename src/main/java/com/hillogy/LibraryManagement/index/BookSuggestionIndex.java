@@ -0,0 +1,226 @@
+package com.hillogy.LibraryManagement.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.dto.SuggestionDTO;
+import com.hillogy.LibraryManagement.repository.LoanRepository;
+
+/**
+ * Índice de autocompletado de títulos y autores, con un árbol de prefijos compacto por campo
+ * (ver {@link SuggestionTrie}). Las claves se normalizan sin tildes ni mayúsculas y con los
+ * espacios colapsados, de modo que "garcia m" completa "Gabriel García Márquez" sólo si se
+ * escribe desde el principio: se completa el texto, no cada palabra.
+ *
+ * El peso de cada título o autor es su popularidad: uno por cada libro que lo tiene más los
+ * préstamos de esos libros. Cada préstamo se suma según llega, cuando un libro pasa a tener menos
+ * ejemplares disponibles. Vaciar el índice no consulta la base de datos: los préstamos anteriores, que
+ * salen de agrupar toda tb_loans, los suma {@link #loadLoans()} cuando {@link BookIndexSynchronizer}
+ * ha terminado de recorrer el catálogo, fuera del arranque si los índices salen de la instantánea.
+ * Hasta entonces las sugerencias se ordenan sólo por los libros de cada título o autor.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@Component
+public class BookSuggestionIndex implements BookIndex {
+
+	@Autowired
+	private LoanRepository loanRepository;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final SuggestionTrie titles = new SuggestionTrie();
+	private final SuggestionTrie authors = new SuggestionTrie();
+	private final Map<Long, Entry> books = new HashMap<>();
+	private Map<Long, Long> loans = new HashMap<>();
+
+	/**
+	 * Vacía el índice, sin préstamos hasta la siguiente llamada a {@link #loadLoans()}.
+	 */
+	@Override
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			titles.clear();
+			authors.clear();
+			books.clear();
+			loans = new HashMap<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Suma al peso de cada libro sus préstamos de tb_loans. Los de un libro que aún no está indexado
+	 * se guardan hasta que se añada. Los préstamos que llegan entre el vaciado del índice y la consulta
+	 * se cuentan dos veces, lo que sólo adelanta un poco su título en las sugerencias.
+	 */
+	public void loadLoans() {
+		List<Object[]> counts = loanRepository.countLoansByISBN();
+		lock.writeLock().lock();
+		try {
+			for (Object[] row : counts) {
+				Long iSBN = (Long) row[0];
+				long count = (Long) row[1];
+				Entry entry = books.get(iSBN);
+				if (entry == null) {
+					loans.merge(iSBN, count, Long::sum);
+					continue;
+				}
+				if (!entry.title.isEmpty()) {
+					titles.add(entry.title, null, count);
+				}
+				if (!entry.author.isEmpty()) {
+					authors.add(entry.author, null, count);
+				}
+				books.put(iSBN, new Entry(entry.title, entry.author, entry.availableCopies, entry.loans + count));
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void add(BookDTO book) {
+		lock.writeLock().lock();
+		try {
+			index(book, borrowed(book.getISBN()));
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Actualiza un libro. Cada ejemplar disponible menos que antes es un préstamo más que
+	 * suma popularidad a su título y a su autor.
+	 */
+	@Override
+	public void update(BookDTO book) {
+		lock.writeLock().lock();
+		try {
+			Entry previous = books.get(book.getISBN());
+			long borrowed = borrowed(book.getISBN());
+			if (previous != null && book.getAvailableCopies() < previous.availableCopies) {
+				borrowed += previous.availableCopies - book.getAvailableCopies();
+			}
+			index(book, borrowed);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void remove(Long iSBN) {
+		lock.writeLock().lock();
+		try {
+			unindex(iSBN);
+			loans.remove(iSBN);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Devuelve los títulos y autores más populares que empiezan por el texto escrito.
+	 *
+	 * @param prefix el comienzo del título o autor
+	 * @param limit el número máximo de sugerencias
+	 * @return las sugerencias de títulos y autores mezcladas, de más a menos popular
+	 */
+	public List<SuggestionDTO> suggest(String prefix, int limit) {
+		String key = TextFolding.fold(prefix).replaceAll("\\s+", " ").stripLeading();
+		List<SuggestionDTO> suggestions = new ArrayList<>();
+		if (key.isEmpty() || limit <= 0) {
+			return suggestions;
+		}
+		List<SuggestionTrie.Entry> titleEntries;
+		List<SuggestionTrie.Entry> authorEntries;
+		lock.readLock().lock();
+		try {
+			titleEntries = titles.top(key, limit);
+			authorEntries = authors.top(key, limit);
+		} finally {
+			lock.readLock().unlock();
+		}
+		// Ambas listas vienen ordenadas: basta con mezclarlas hasta completar el límite
+		int t = 0;
+		int a = 0;
+		while (suggestions.size() < limit && (t < titleEntries.size() || a < authorEntries.size())) {
+			if (a >= authorEntries.size()
+					|| (t < titleEntries.size() && titleEntries.get(t).weight() >= authorEntries.get(a).weight())) {
+				SuggestionTrie.Entry entry = titleEntries.get(t++);
+				suggestions.add(new SuggestionDTO(entry.text(), SuggestionDTO.Field.TITLE, entry.weight()));
+			} else {
+				SuggestionTrie.Entry entry = authorEntries.get(a++);
+				suggestions.add(new SuggestionDTO(entry.text(), SuggestionDTO.Field.AUTHOR, entry.weight()));
+			}
+		}
+		return suggestions;
+	}
+
+	/**
+	 * Devuelve el número de títulos distintos indexados.
+	 *
+	 * @return número de títulos
+	 */
+	public int titles() {
+		lock.readLock().lock();
+		try {
+			return titles.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Devuelve los préstamos que ya suma un libro: los de su entrada si está indexado o, si no,
+	 * los cargados de tb_loans en la última reconstrucción.
+	 */
+	private long borrowed(Long iSBN) {
+		Entry previous = books.get(iSBN);
+		return previous != null ? previous.loans : loans.getOrDefault(iSBN, 0L);
+	}
+
+	private void index(BookDTO book, long borrowed) {
+		unindex(book.getISBN());
+		Entry entry = new Entry(key(book.getTitle()), key(book.getAuthor()), book.getAvailableCopies(), borrowed);
+		if (!entry.title.isEmpty()) {
+			titles.add(entry.title, book.getTitle().strip(), entry.weight());
+		}
+		if (!entry.author.isEmpty()) {
+			authors.add(entry.author, book.getAuthor().strip(), entry.weight());
+		}
+		books.put(book.getISBN(), entry);
+		loans.remove(book.getISBN());
+	}
+
+	private void unindex(Long iSBN) {
+		Entry previous = books.remove(iSBN);
+		if (previous != null) {
+			titles.add(previous.title, null, -previous.weight());
+			authors.add(previous.author, null, -previous.weight());
+		}
+	}
+
+	private static String key(String value) {
+		return TextFolding.fold(value).replaceAll("\\s+", " ").strip();
+	}
+
+	/**
+	 * Claves con las que está indexado un libro y los datos de los que sale su peso.
+	 */
+	private record Entry(String title, String author, int availableCopies, long loans) {
+
+		private long weight() {
+			return 1 + loans;
+		}
+	}
+}
@@ -0,0 +1,195 @@
+package com.hillogy.LibraryManagement.index;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+
+/**
+ * Instantánea del catálogo en un fichero binario compacto, para arrancar los índices sin leer
+ * tb_books (ver {@link BookIndexSynchronizer}).
+ *
+ * El fichero tiene una cabecera de 32 bytes (firma, versión, número de libros, momento de escritura
+ * y CRC32 del resto) seguida de un registro por libro: ISBN, ejemplares, ejemplares disponibles y
+ * título y autor en UTF-8 precedidos de su longitud. Se escribe en un fichero temporal que después
+ * reemplaza al anterior, de modo que una caída a mitad de escritura deja intacta la instantánea previa,
+ * y se lee proyectándolo en memoria. Una instantánea incompleta, corrupta o de otra versión se ignora.
+ *
+ * Sin {@code library.snapshot.path} no se escriben ni se leen instantáneas.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@Component
+public class CatalogueSnapshot {
+
+	private static final Logger log = LoggerFactory.getLogger(CatalogueSnapshot.class);
+
+	private static final int MAGIC = 0x43415453;
+	private static final int FORMAT_VERSION = 1;
+	private static final int HEADER_SIZE = 32;
+
+	@Value("${library.snapshot.path:}")
+	private String path;
+
+	/**
+	 * Indica si hay configurada una ruta para la instantánea.
+	 *
+	 * @return true si las instantáneas están activadas
+	 */
+	public boolean isEnabled() {
+		return path != null && !path.isBlank();
+	}
+
+	/**
+	 * Escribe una instantánea con los libros que entrega {@code books} y reemplaza la anterior.
+	 *
+	 * @param books recibe el consumidor al que entregar cada libro
+	 * @return el número de libros escritos
+	 * @throws IOException si no se puede escribir el fichero
+	 */
+	public int save(Consumer<Consumer<BookDTO>> books) throws IOException {
+		Path file = file();
+		Files.createDirectories(file.getParent());
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		CRC32 crc = new CRC32();
+		int[] count = { 0 };
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			channel.position(HEADER_SIZE);
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new ChecksumOutputStream(channel, crc), 1 << 16));
+			books.accept(book -> {
+				try {
+					out.writeLong(book.getISBN());
+					out.writeInt(book.getCopies());
+					out.writeInt(book.getAvailableCopies());
+					writeText(out, book.getTitle());
+					writeText(out, book.getAuthor());
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+				count[0]++;
+			});
+			out.flush();
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+			header.putInt(0, MAGIC);
+			header.putInt(4, FORMAT_VERSION);
+			header.putInt(8, count[0]);
+			header.putLong(16, System.currentTimeMillis());
+			header.putLong(24, crc.getValue());
+			header.force();
+			channel.force(true);
+		} catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return count[0];
+	}
+
+	/**
+	 * Lee la instantánea y entrega cada libro al consumidor. Sólo se entregan libros si la
+	 * instantánea completa es válida.
+	 *
+	 * @param action consumidor que recibe cada libro
+	 * @return el número de libros leídos, o -1 si no hay instantánea válida
+	 */
+	public int restore(Consumer<BookDTO> action) {
+		Path file = file();
+		if (!Files.isRegularFile(file)) {
+			return -1;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+				log.warn("Instantánea del catálogo {} con un tamaño no válido; se ignora", file);
+				return -1;
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+				log.warn("Instantánea del catálogo {} de otro formato; se ignora", file);
+				return -1;
+			}
+			CRC32 crc = new CRC32();
+			crc.update(buffer.slice(HEADER_SIZE, buffer.capacity() - HEADER_SIZE));
+			if (crc.getValue() != buffer.getLong(24)) {
+				log.warn("Instantánea del catálogo {} corrupta; se ignora", file);
+				return -1;
+			}
+			int count = buffer.getInt(8);
+			buffer.position(HEADER_SIZE);
+			for (int i = 0; i < count; i++) {
+				long iSBN = buffer.getLong();
+				int copies = buffer.getInt();
+				int availableCopies = buffer.getInt();
+				String title = readText(buffer);
+				String author = readText(buffer);
+				action.accept(new BookDTO(iSBN, title, author, copies, availableCopies));
+			}
+			return count;
+		} catch (IOException ex) {
+			log.warn("No se pudo leer la instantánea del catálogo {}; se ignora", file, ex);
+			return -1;
+		}
+	}
+
+	private Path file() {
+		return Path.of(path).toAbsolutePath();
+	}
+
+	private static void writeText(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+		out.writeShort(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readText(MappedByteBuffer buffer) {
+		byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Flujo que escribe en el canal a partir de su posición actual y acumula el CRC32 de lo escrito.
+	 */
+	private static final class ChecksumOutputStream extends OutputStream {
+
+		private final FileChannel channel;
+		private final CRC32 crc;
+
+		private ChecksumOutputStream(FileChannel channel, CRC32 crc) {
+			this.channel = channel;
+			this.crc = crc;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) throws IOException {
+			crc.update(bytes, offset, length);
+			ByteBuffer source = ByteBuffer.wrap(bytes, offset, length);
+			while (source.hasRemaining()) {
+				channel.write(source);
+			}
+		}
+	}
+}
@@ -0,0 +1,260 @@
+package com.hillogy.LibraryManagement.index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Árbol de prefijos compacto (radix trie) de claves con peso, para el autocompletado.
+ *
+ * Cada arista guarda una cadena en lugar de un carácter, de modo que las claves largas con pocos
+ * prefijos comunes (los títulos) ocupan un nodo por bifurcación y no uno por carácter. Los hijos se
+ * guardan en un array ordenado por su primer carácter y cada nodo conoce el mayor peso de su
+ * subárbol, lo que permite sacar las claves más pesadas de un prefijo en orden sin recorrer todo
+ * el subárbol: se expande siempre el nodo cuyo subárbol promete el mayor peso.
+ *
+ * No es seguro para hilos.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+final class SuggestionTrie {
+
+	private static final Node[] NO_CHILDREN = new Node[0];
+
+	/**
+	 * Orden de salida: mayor peso primero y, a igual peso, por orden alfabético de la clave. Un
+	 * nodo va delante de las claves de su mismo peso y mayor ruta, porque su subárbol puede tener
+	 * claves de ese peso que van antes alfabéticamente; y detrás de la suya propia.
+	 */
+	private static final Comparator<Candidate> BEST_FIRST = Comparator.comparingLong(Candidate::weight).reversed()
+			.thenComparing(Candidate::path).thenComparing(Candidate::expand);
+
+	private final Node root = new Node("");
+	private int size;
+
+	/**
+	 * Suma un peso a una clave. La clave se crea con el texto indicado si no existía y se elimina
+	 * cuando su peso deja de ser positivo.
+	 *
+	 * @param key la clave normalizada
+	 * @param text el texto a devolver para la clave si se crea
+	 * @param delta el peso a sumar, negativo para restarlo
+	 */
+	void add(String key, String text, long delta) {
+		Deque<Node> path = new ArrayDeque<>();
+		Node node = root;
+		path.push(node);
+		int i = 0;
+		while (i < key.length()) {
+			int index = node.childIndex(key.charAt(i));
+			if (index < 0) {
+				if (delta <= 0) {
+					return;
+				}
+				Node leaf = new Node(key.substring(i));
+				node.insertChild(-index - 1, leaf);
+				node = leaf;
+				path.push(node);
+				break;
+			}
+			Node child = node.children[index];
+			int common = commonPrefix(child.label, key, i);
+			if (common < child.label.length()) {
+				if (delta <= 0) {
+					return;
+				}
+				// La clave se separa a mitad de la arista: se parte en un nodo intermedio
+				Node middle = new Node(child.label.substring(0, common));
+				child.label = child.label.substring(common);
+				middle.children = new Node[] { child };
+				middle.best = child.best;
+				node.children[index] = middle;
+				child = middle;
+			}
+			node = child;
+			path.push(node);
+			i += common;
+		}
+		if (node.weight == 0) {
+			if (delta <= 0) {
+				return;
+			}
+			node.text = text;
+			size++;
+		}
+		node.weight += delta;
+		if (node.weight <= 0) {
+			node.weight = 0;
+			node.text = null;
+			size--;
+		}
+		// Se recalculan los máximos de la ruta, quitando o fusionando los nodos que ya no hacen falta
+		while (!path.isEmpty()) {
+			Node current = path.pop();
+			Node parent = path.peek();
+			if (parent != null && current.weight == 0 && current.children.length <= 1) {
+				if (current.children.length == 0) {
+					parent.removeChild(current);
+				} else {
+					Node only = current.children[0];
+					only.label = current.label + only.label;
+					parent.replaceChild(current, only);
+				}
+				continue;
+			}
+			current.updateBest();
+		}
+	}
+
+	/**
+	 * Devuelve las claves más pesadas que empiezan por un prefijo, de más a menos pesada.
+	 *
+	 * @param prefix el prefijo normalizado
+	 * @param limit el número máximo de claves
+	 * @return los textos de las claves con su peso
+	 */
+	List<Entry> top(String prefix, int limit) {
+		List<Entry> entries = new ArrayList<>();
+		Node node = root;
+		StringBuilder path = new StringBuilder();
+		int i = 0;
+		while (i < prefix.length()) {
+			int index = node.childIndex(prefix.charAt(i));
+			if (index < 0) {
+				return entries;
+			}
+			Node child = node.children[index];
+			int common = commonPrefix(child.label, prefix, i);
+			if (common < child.label.length() && i + common < prefix.length()) {
+				return entries;
+			}
+			node = child;
+			path.append(child.label);
+			i += common;
+		}
+		PriorityQueue<Candidate> pending = new PriorityQueue<>(BEST_FIRST);
+		if (node.best > 0) {
+			pending.add(new Candidate(node, path.toString(), node.best, true));
+		}
+		while (!pending.isEmpty() && entries.size() < limit) {
+			Candidate candidate = pending.poll();
+			Node current = candidate.node();
+			if (!candidate.expand()) {
+				entries.add(new Entry(current.text, current.weight));
+				continue;
+			}
+			if (current.weight > 0) {
+				pending.add(new Candidate(current, candidate.path(), current.weight, false));
+			}
+			for (Node child : current.children) {
+				pending.add(new Candidate(child, candidate.path() + child.label, child.best, true));
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * Vacía el árbol.
+	 */
+	void clear() {
+		root.children = NO_CHILDREN;
+		root.best = 0;
+		root.weight = 0;
+		root.text = null;
+		size = 0;
+	}
+
+	/**
+	 * Devuelve el número de claves del árbol.
+	 *
+	 * @return número de claves
+	 */
+	int size() {
+		return size;
+	}
+
+	private static int commonPrefix(String label, String key, int from) {
+		int max = Math.min(label.length(), key.length() - from);
+		int common = 0;
+		while (common < max && label.charAt(common) == key.charAt(from + common)) {
+			common++;
+		}
+		return common;
+	}
+
+	/**
+	 * Una clave encontrada: el texto con el que se creó y su peso.
+	 */
+	record Entry(String text, long weight) {
+	}
+
+	private record Candidate(Node node, String path, long weight, boolean expand) {
+	}
+
+	private static final class Node {
+
+		private String label;
+		private Node[] children = NO_CHILDREN;
+		private String text;
+		private long weight;
+		private long best;
+
+		private Node(String label) {
+			this.label = label;
+		}
+
+		/**
+		 * Busca el hijo cuya arista empieza por un carácter.
+		 *
+		 * @return su posición, o {@code -(posición de inserción) - 1} si no existe
+		 */
+		private int childIndex(char c) {
+			int low = 0;
+			int high = children.length - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				char first = children[mid].label.charAt(0);
+				if (first < c) {
+					low = mid + 1;
+				} else if (first > c) {
+					high = mid - 1;
+				} else {
+					return mid;
+				}
+			}
+			return -low - 1;
+		}
+
+		private void insertChild(int index, Node child) {
+			Node[] grown = new Node[children.length + 1];
+			System.arraycopy(children, 0, grown, 0, index);
+			grown[index] = child;
+			System.arraycopy(children, index, grown, index + 1, children.length - index);
+			children = grown;
+		}
+
+		private void removeChild(Node child) {
+			int index = childIndex(child.label.charAt(0));
+			Node[] shrunk = Arrays.copyOf(children, children.length - 1);
+			System.arraycopy(children, index + 1, shrunk, index, children.length - index - 1);
+			children = shrunk;
+		}
+
+		private void replaceChild(Node child, Node replacement) {
+			children[childIndex(child.label.charAt(0))] = replacement;
+		}
+
+		private void updateBest() {
+			long max = weight;
+			for (Node child : children) {
+				max = Math.max(max, child.best);
+			}
+			best = max;
+		}
+	}
+}
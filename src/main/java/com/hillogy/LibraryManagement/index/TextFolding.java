@@ -0,0 +1,62 @@
+package com.hillogy.LibraryManagement.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Normalización del texto del catálogo para las búsquedas tolerantes: pasa a minúsculas y elimina
+ * tildes, diéresis y demás marcas diacríticas ("García Márquez" se indexa y se busca como
+ * "garcia marquez"), de modo que los usuarios encuentran los libros escriban o no los acentos.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public final class TextFolding {
+
+	private TextFolding() {
+	}
+
+	/**
+	 * Pasa el texto a minúsculas sin marcas diacríticas.
+	 *
+	 * @param value el texto, puede ser null
+	 * @return el texto normalizado, vacío si era null
+	 */
+	public static String fold(String value) {
+		if (value == null) {
+			return "";
+		}
+		String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+		StringBuilder folded = new StringBuilder(decomposed.length());
+		for (int i = 0; i < decomposed.length(); i++) {
+			char c = decomposed.charAt(i);
+			if (Character.getType(c) != Character.NON_SPACING_MARK) {
+				folded.append(Character.toLowerCase(c));
+			}
+		}
+		return folded.toString();
+	}
+
+	/**
+	 * Divide el texto normalizado en palabras: secuencias de letras y dígitos.
+	 *
+	 * @param value el texto, puede ser null
+	 * @return las palabras en el orden en que aparecen, con repeticiones
+	 */
+	public static List<String> tokens(String value) {
+		String folded = fold(value);
+		List<String> tokens = new ArrayList<>();
+		int start = -1;
+		for (int i = 0; i <= folded.length(); i++) {
+			boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+			if (wordChar && start < 0) {
+				start = i;
+			} else if (!wordChar && start >= 0) {
+				tokens.add(folded.substring(start, i));
+				start = -1;
+			}
+		}
+		return tokens;
+	}
+}
@@ -0,0 +1,84 @@
+package com.hillogy.LibraryManagement.loan;
+
+/**
+ * Evento de préstamo o devolución de un libro tal como se guarda en el {@link LoanEventLog}.
+ * Los eventos son inmutables y se numeran con una secuencia consecutiva que empieza en 1.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public final class LoanEvent {
+
+	/**
+	 * Tipo de evento.
+	 */
+	public enum Type {
+		CHECKOUT, RETURN
+	}
+
+	private final long sequence;
+	private final Type type;
+	private final long iSBN;
+	private final Long borrowerId;
+	private final long timestamp;
+	private final long dueAt;
+	private final boolean applied;
+
+	/**
+	 * Constructor de la clase LoanEvent.
+	 *
+	 * @param sequence el número de secuencia del evento en el registro
+	 * @param type el tipo de evento
+	 * @param iSBN el ISBN del libro
+	 * @param borrowerId el identificador de quien se lleva el libro, o null si no se conoce
+	 * @param timestamp el instante del evento, en milisegundos desde la época
+	 * @param dueAt la fecha de devolución de un préstamo, en milisegundos desde la época (0 en las devoluciones)
+	 * @param applied true si el cambio ya estaba escrito en la base de datos al registrar el evento
+	 */
+	public LoanEvent(long sequence, Type type, long iSBN, Long borrowerId, long timestamp, long dueAt, boolean applied) {
+		this.sequence = sequence;
+		this.type = type;
+		this.iSBN = iSBN;
+		this.borrowerId = borrowerId;
+		this.timestamp = timestamp;
+		this.dueAt = dueAt;
+		this.applied = applied;
+	}
+
+	public long getSequence() {
+		return sequence;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public long getISBN() {
+		return iSBN;
+	}
+
+	public Long getBorrowerId() {
+		return borrowerId;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public long getDueAt() {
+		return dueAt;
+	}
+
+	public boolean isApplied() {
+		return applied;
+	}
+
+	/**
+	 * Indica cuánto cambia el evento los ejemplares disponibles del libro.
+	 *
+	 * @return -1 en un préstamo, 1 en una devolución
+	 */
+	public int copiesDelta() {
+		return type == Type.RETURN ? 1 : -1;
+	}
+}
@@ -0,0 +1,450 @@
+package com.hillogy.LibraryManagement.loan;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Registro de préstamos y devoluciones en un fichero de sólo escritura al final, proyectado en memoria.
+ *
+ * El fichero empieza con una cabecera de 64 bytes (firma, versión, secuencia del último evento
+ * aplicado a tb_books y secuencia base, la anterior al primer registro) seguida de registros de tamaño
+ * fijo, de modo que la posición de cada evento depende sólo de su secuencia. Cada registro lleva un CRC32: al abrir el fichero se recorren los
+ * registros posteriores al punto de control hasta el primero incompleto o corrupto, que es donde se había
+ * quedado la escritura. Los anteriores al punto de control ya están en disco y en tb_books y no se comprueban.
+ *
+ * Cuando los eventos ya aplicados ocupan {@code library.loans.log.compact-size}, el registro se compacta:
+ * los eventos pendientes se copian a un fichero nuevo cuya secuencia base es el punto de control, que
+ * sustituye al actual con un renombrado atómico. Así el fichero no crece sin límite ni se acerca al
+ * tamaño máximo de una proyección, y el historial de préstamos queda sólo en tb_loans.
+ *
+ * Escribir un evento es copiar 48 bytes en la proyección; para hacerlo duradero, quien lo necesite
+ * llama a {@link #awaitDurable(long)}, que agrupa en un único {@code force} todos los eventos
+ * escritos mientras esperaba el anterior (group commit).
+ *
+ * Sin {@code library.loans.log.path} el registro se crea en un fichero temporal que se borra
+ * al parar la aplicación: con la base de datos en memoria no hay nada que recuperar al reiniciar.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@Component
+public class LoanEventLog {
+
+	private static final Logger log = LoggerFactory.getLogger(LoanEventLog.class);
+
+	private static final int MAGIC = 0x4C4F414E;
+	private static final int FORMAT_VERSION = 2;
+	private static final int HEADER_SIZE = 64;
+	private static final int APPLIED_OFFSET = 8;
+	private static final int BASE_OFFSET = 16;
+	private static final int RECORD_SIZE = 48;
+	private static final int CHECKSUMMED_SIZE = 44;
+	private static final byte APPLIED = 1;
+	private static final byte HAS_BORROWER = 2;
+
+	@Value("${library.loans.log.path:}")
+	private String path;
+
+	@Value("${library.loans.log.initial-size:16MB}")
+	private DataSize initialSize = DataSize.ofMegabytes(16);
+
+	@Value("${library.loans.log.compact-size:64MB}")
+	private DataSize compactSize = DataSize.ofMegabytes(64);
+
+	@Value("${library.loans.log.fsync:true}")
+	private boolean fsync = true;
+
+	private final ReentrantLock syncLock = new ReentrantLock();
+
+	private Path file;
+	private boolean temporary;
+	private FileChannel channel;
+	private FileLock fileLock;
+	private volatile MappedByteBuffer buffer;
+	private volatile long baseSequence;
+	private volatile long lastSequence;
+	private volatile long durableSequence;
+	private volatile long appliedSequence;
+
+	/**
+	 * Abre o crea el fichero del registro y recupera la última secuencia válida.
+	 *
+	 * @throws IOException si no se puede abrir o proyectar el fichero
+	 */
+	@PostConstruct
+	public void open() throws IOException {
+		if (path == null || path.isBlank()) {
+			file = Files.createTempFile("library-loans", ".log");
+			temporary = true;
+		} else {
+			file = Path.of(path).toAbsolutePath();
+			Files.createDirectories(file.getParent());
+		}
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		fileLock = channel.tryLock();
+		if (fileLock == null) {
+			channel.close();
+			throw new IllegalStateException("El registro de préstamos " + file + " está en uso por otro proceso");
+		}
+		long size = Math.max(channel.size(), Math.max(initialSize.toBytes(), HEADER_SIZE + RECORD_SIZE));
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		if (buffer.getInt(0) == 0) {
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, FORMAT_VERSION);
+			buffer.putLong(APPLIED_OFFSET, 0);
+			buffer.putLong(BASE_OFFSET, 0);
+			buffer.force(0, HEADER_SIZE);
+		} else if (buffer.getInt(0) != MAGIC) {
+			close();
+			throw new IllegalStateException(file + " no es un registro de préstamos");
+		} else if (buffer.getInt(4) != FORMAT_VERSION) {
+			close();
+			throw new IllegalStateException("El registro de préstamos " + file + " tiene un formato no soportado ("
+					+ buffer.getInt(4) + ")");
+		}
+		// La secuencia base es cero salvo en los registros renumerados con rebase(long)
+		baseSequence = buffer.getLong(BASE_OFFSET);
+		appliedSequence = buffer.getLong(APPLIED_OFFSET);
+		lastSequence = recover();
+		discardTail(lastSequence);
+		durableSequence = lastSequence;
+		log.info("Registro de préstamos {}: {} eventos, {} pendientes de aplicar", file, lastSequence - baseSequence,
+				lastSequence - appliedSequence);
+	}
+
+	/**
+	 * Añade un evento al final del registro. El evento no es duradero hasta que se llama a
+	 * {@link #awaitDurable(long)} con su secuencia.
+	 *
+	 * @param type el tipo de evento
+	 * @param iSBN el ISBN del libro
+	 * @param borrowerId el identificador de quien se lleva el libro, o null si no se conoce
+	 * @param dueAt la fecha de devolución de un préstamo, en milisegundos desde la época (0 en las devoluciones)
+	 * @param applied true si el cambio ya está escrito en la base de datos
+	 * @return el evento con su secuencia
+	 */
+	public synchronized LoanEvent append(LoanEvent.Type type, long iSBN, Long borrowerId, long dueAt, boolean applied) {
+		long sequence = lastSequence + 1;
+		long offset = offset(sequence);
+		if (offset + RECORD_SIZE > buffer.capacity()) {
+			grow(offset + RECORD_SIZE);
+		}
+		LoanEvent event = new LoanEvent(sequence, type, iSBN, borrowerId, System.currentTimeMillis(), dueAt, applied);
+		write(buffer, (int) offset, event);
+		lastSequence = sequence;
+		return event;
+	}
+
+	/**
+	 * Espera a que el evento indicado y todos los anteriores estén escritos en disco.
+	 * Los hilos que esperan a la vez comparten un único {@code force}.
+	 *
+	 * @param sequence la secuencia del evento
+	 */
+	public void awaitDurable(long sequence) {
+		if (durableSequence >= sequence) {
+			return;
+		}
+		syncLock.lock();
+		try {
+			if (durableSequence >= sequence) {
+				return;
+			}
+			MappedByteBuffer target;
+			long last;
+			synchronized (this) {
+				target = buffer;
+				last = lastSequence;
+			}
+			if (fsync) {
+				long from = offset(durableSequence + 1);
+				target.force((int) from, (int) (offset(last + 1) - from));
+			}
+			durableSequence = last;
+		} finally {
+			syncLock.unlock();
+		}
+	}
+
+	/**
+	 * Lee los eventos con secuencia entre {@code from} y {@code to}, ambas incluidas.
+	 *
+	 * @param from la primera secuencia
+	 * @param to la última secuencia
+	 * @return los eventos en orden de secuencia
+	 */
+	public List<LoanEvent> read(long from, long to) {
+		long last;
+		long base;
+		MappedByteBuffer source;
+		// La proyección, la secuencia base y la última secuencia cambian juntas al ampliar o compactar el registro
+		synchronized (this) {
+			last = Math.min(to, lastSequence);
+			base = baseSequence;
+			source = buffer;
+		}
+		List<LoanEvent> events = new ArrayList<>((int) Math.max(last - from + 1, 0));
+		for (long sequence = Math.max(from, base + 1); sequence <= last; sequence++) {
+			events.add(read(source, (int) offset(base, sequence)));
+		}
+		return events;
+	}
+
+	/**
+	 * Registra en la cabecera que los eventos hasta la secuencia indicada ya están en tb_books, y compacta
+	 * el registro si los eventos aplicados ocupan {@code library.loans.log.compact-size} o más.
+	 * Sólo lo llama el escritor de préstamos.
+	 *
+	 * @param sequence la secuencia del último evento aplicado
+	 */
+	public void checkpoint(long sequence) {
+		MappedByteBuffer target = buffer;
+		target.putLong(APPLIED_OFFSET, sequence);
+		if (fsync) {
+			target.force(0, HEADER_SIZE);
+		}
+		appliedSequence = sequence;
+		if (offset(sequence + 1) - HEADER_SIZE >= compactSize.toBytes()) {
+			compact();
+		}
+	}
+
+	/**
+	 * Hace que un registro vacío continúe la numeración a partir de la secuencia indicada, como si
+	 * ya contuviera y tuviera aplicados los eventos hasta ella. Sirve para seguir la numeración de una
+	 * base de datos persistente cuando el registro con el que se escribió ya no existe.
+	 *
+	 * @param sequence la secuencia del último evento de la numeración anterior
+	 * @throws IllegalStateException si el registro tiene eventos
+	 */
+	public synchronized void rebase(long sequence) {
+		if (!isEmpty()) {
+			throw new IllegalStateException("El registro de préstamos " + file + " tiene eventos y no se puede renumerar");
+		}
+		buffer.putLong(BASE_OFFSET, sequence);
+		buffer.putLong(APPLIED_OFFSET, sequence);
+		if (fsync) {
+			buffer.force(0, HEADER_SIZE);
+		}
+		baseSequence = sequence;
+		appliedSequence = sequence;
+		durableSequence = sequence;
+		lastSequence = sequence;
+	}
+
+	/**
+	 * Indica si el registro no tiene ningún evento.
+	 *
+	 * @return true si no se ha escrito ningún evento desde su creación o su última renumeración
+	 */
+	public boolean isEmpty() {
+		return lastSequence == baseSequence;
+	}
+
+	/**
+	 * Devuelve la secuencia del último evento escrito.
+	 *
+	 * @return la última secuencia, o la secuencia base si el registro está vacío
+	 */
+	public long lastSequence() {
+		return lastSequence;
+	}
+
+	/**
+	 * Devuelve la secuencia del último evento aplicado a tb_books.
+	 *
+	 * @return la secuencia del último punto de control
+	 */
+	public long appliedSequence() {
+		return appliedSequence;
+	}
+
+	/**
+	 * Escribe en disco lo pendiente y cierra el fichero. Un registro temporal se borra.
+	 *
+	 * @throws IOException si falla el cierre del fichero
+	 */
+	@PreDestroy
+	public synchronized void close() throws IOException {
+		if (channel == null || !channel.isOpen()) {
+			return;
+		}
+		buffer.force();
+		fileLock.release();
+		channel.close();
+		if (temporary) {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * Sustituye el fichero por uno que sólo contiene los eventos posteriores al punto de control.
+	 * El fichero nuevo se escribe completo antes de renombrarlo sobre el actual, de modo que tras una
+	 * caída queda uno de los dos enteros. Las escrituras y las esperas a disco se detienen mientras tanto;
+	 * si falla, se sigue con el fichero actual.
+	 */
+	private void compact() {
+		syncLock.lock();
+		try {
+			synchronized (this) {
+				long start = System.currentTimeMillis();
+				long applied = appliedSequence;
+				long pending = lastSequence - applied;
+				Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+				FileChannel target;
+				FileLock targetLock;
+				MappedByteBuffer mapped;
+				try {
+					target = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+							StandardOpenOption.READ, StandardOpenOption.WRITE);
+				} catch (IOException ex) {
+					log.warn("No se pudo compactar el registro de préstamos {}; se sigue con el fichero actual", file, ex);
+					return;
+				}
+				try {
+					targetLock = target.tryLock();
+					if (targetLock == null) {
+						throw new IOException(compacted + " está en uso por otro proceso");
+					}
+					long size = Math.max(initialSize.toBytes(), HEADER_SIZE + (pending + 1) * RECORD_SIZE);
+					mapped = target.map(FileChannel.MapMode.READ_WRITE, 0, size);
+					mapped.putInt(0, MAGIC);
+					mapped.putInt(4, FORMAT_VERSION);
+					mapped.putLong(APPLIED_OFFSET, applied);
+					mapped.putLong(BASE_OFFSET, applied);
+					mapped.put(HEADER_SIZE, buffer, (int) offset(applied + 1), (int) (pending * RECORD_SIZE));
+					mapped.force();
+					Files.move(compacted, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				} catch (IOException | RuntimeException ex) {
+					log.warn("No se pudo compactar el registro de préstamos {}; se sigue con el fichero actual", file, ex);
+					try {
+						target.close();
+						Files.deleteIfExists(compacted);
+					} catch (IOException closeEx) {
+						log.debug("No se pudo borrar {}", compacted, closeEx);
+					}
+					return;
+				}
+
+				FileChannel previous = channel;
+				channel = target;
+				fileLock = targetLock;
+				buffer = mapped;
+				baseSequence = applied;
+				durableSequence = lastSequence;
+				try {
+					// El fichero anterior ya no tiene nombre: cerrarlo libera también su bloqueo
+					previous.close();
+				} catch (IOException ex) {
+					log.debug("No se pudo cerrar el registro de préstamos anterior", ex);
+				}
+				log.debug("Registro de préstamos compactado hasta el evento {}: {} eventos pendientes copiados en {} ms", applied,
+						pending, System.currentTimeMillis() - start);
+			}
+		} finally {
+			syncLock.unlock();
+		}
+	}
+
+	/**
+	 * Busca el último evento válido a partir del punto de control: los eventos se hacen duraderos antes
+	 * de aplicarse, así que los anteriores están en disco aunque el fichero se haya cortado después.
+	 */
+	private long recover() {
+		long sequence = Math.max(baseSequence, appliedSequence);
+		while (offset(sequence + 1) + RECORD_SIZE <= buffer.capacity()) {
+			int offset = (int) offset(sequence + 1);
+			if (buffer.getLong(offset) != sequence + 1 || buffer.getInt(offset + CHECKSUMMED_SIZE) != checksum(buffer, offset)) {
+				break;
+			}
+			sequence++;
+		}
+		return sequence;
+	}
+
+	/**
+	 * Borra los registros que siguen al último válido, para que un registro antiguo que quedara
+	 * detrás de uno corrupto no reaparezca cuando la secuencia vuelva a alcanzarlo.
+	 */
+	private void discardTail(long last) {
+		long sequence = last + 1;
+		while (offset(sequence) + RECORD_SIZE <= buffer.capacity() && buffer.getLong((int) offset(sequence)) != 0) {
+			int offset = (int) offset(sequence);
+			for (int i = 0; i < RECORD_SIZE; i += Long.BYTES) {
+				buffer.putLong(offset + i, 0);
+			}
+			sequence++;
+		}
+		if (sequence > last + 1 && fsync) {
+			buffer.force();
+		}
+	}
+
+	private void grow(long required) {
+		long size = buffer.capacity();
+		while (size < required) {
+			size *= 2;
+		}
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalStateException("El registro de préstamos " + file + " está lleno");
+		}
+		try {
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private long offset(long sequence) {
+		return offset(baseSequence, sequence);
+	}
+
+	private static long offset(long base, long sequence) {
+		return HEADER_SIZE + (sequence - base - 1) * RECORD_SIZE;
+	}
+
+	private static void write(MappedByteBuffer target, int offset, LoanEvent event) {
+		target.putLong(offset, event.getSequence());
+		target.putLong(offset + 8, event.getISBN());
+		target.putLong(offset + 16, event.getTimestamp());
+		target.putLong(offset + 24, event.getBorrowerId() != null ? event.getBorrowerId() : 0);
+		target.putLong(offset + 32, event.getDueAt());
+		target.put(offset + 40, (byte) (event.getType().ordinal() + 1));
+		target.put(offset + 41, (byte) ((event.isApplied() ? APPLIED : 0) | (event.getBorrowerId() != null ? HAS_BORROWER : 0)));
+		target.putShort(offset + 42, (short) 0);
+		target.putInt(offset + CHECKSUMMED_SIZE, checksum(target, offset));
+	}
+
+	private static LoanEvent read(MappedByteBuffer source, int offset) {
+		byte flags = source.get(offset + 41);
+		return new LoanEvent(source.getLong(offset), LoanEvent.Type.values()[source.get(offset + 40) - 1],
+				source.getLong(offset + 8), (flags & HAS_BORROWER) != 0 ? source.getLong(offset + 24) : null,
+				source.getLong(offset + 16), source.getLong(offset + 32), (flags & APPLIED) != 0);
+	}
+
+	private static int checksum(MappedByteBuffer source, int offset) {
+		CRC32 crc = new CRC32();
+		crc.update(source.slice(offset, CHECKSUMMED_SIZE));
+		return (int) crc.getValue();
+	}
+}
@@ -0,0 +1,392 @@
+package com.hillogy.LibraryManagement.loan;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hillogy.LibraryManagement.event.BookEvent;
+import com.hillogy.LibraryManagement.event.LoansAppliedEvent;
+import com.hillogy.LibraryManagement.repository.BookRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Escritor diferido de préstamos y devoluciones (write-behind).
+ *
+ * Los préstamos se aceptan en cuanto su evento está en disco en el {@link LoanEventLog}; un único
+ * hilo ("loan-writer") los lleva después a tb_books en lotes de hasta {@code library.loans.batch-size}
+ * eventos, cada lote en una transacción con una actualización JDBC por lotes de los ejemplares disponibles
+ * y la apertura o el cierre de los préstamos correspondientes en tb_loans. El hilo despierta cada
+ * {@code library.loans.flush-interval}, o antes si se llena un lote o alguien espera con {@link #flush()}.
+ *
+ * Cada evento suma o resta un ejemplar con una actualización condicional que guarda en la fila la
+ * secuencia del evento (loan_sequence) y sólo se aplica si la fila no tiene ya un evento posterior, lo que
+ * hace idempotente volver a aplicarlo: al arrancar se reaplican los eventos posteriores al último punto de
+ * control, aunque parte de ellos ya llegara a la base de datos antes de una caída. La actualización
+ * tampoco deja el contador fuera de [0, copies]; si durante el funcionamiento normal no se aplica (otro
+ * proceso escribió la fila directamente), se avisa y se vuelve a publicar el estado de la base de datos.
+ *
+ * Quien vaya a escribir la disponibilidad directamente en la base de datos debe llamar antes a
+ * {@link #flush()} para no adelantarse a los préstamos pendientes.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@Component
+public class LoanWriter {
+
+	private static final Logger log = LoggerFactory.getLogger(LoanWriter.class);
+
+	private static final String UPDATE_COPIES = "UPDATE tb_books SET available_copies = available_copies + ?, loan_sequence = ?"
+			+ " WHERE isbn = ? AND loan_sequence < ? AND available_copies + ? BETWEEN 0 AND copies";
+	private static final String INSERT_LOAN = "INSERT INTO tb_loans (isbn, borrower_id, loaned_at, due_at) VALUES (?, ?, ?, ?)";
+	private static final String LAST_LOAN_SEQUENCE = "SELECT COALESCE(MAX(loan_sequence), 0) FROM tb_books";
+	private static final String CLOSE_LOAN = "UPDATE tb_loans SET returned_at = ? WHERE id = COALESCE("
+			+ "(SELECT MIN(id) FROM tb_loans WHERE isbn = ? AND borrower_id = ? AND returned_at IS NULL),"
+			+ " (SELECT MIN(id) FROM tb_loans WHERE isbn = ? AND returned_at IS NULL))";
+
+	@Autowired
+	private LoanEventLog loanEventLog;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${library.loans.write-behind:true}")
+	private boolean writeBehind = true;
+
+	@Value("${library.loans.batch-size:500}")
+	private int batchSize = 500;
+
+	@Value("${library.loans.flush-interval:10ms}")
+	private Duration flushInterval = Duration.ofMillis(10);
+
+	private final Object monitor = new Object();
+	private volatile boolean running;
+	private Thread thread;
+
+	/**
+	 * Reaplica los eventos pendientes de la ejecución anterior y arranca el hilo escritor.
+	 * La reaplicación termina antes de que la aplicación acepte peticiones y de que se construyan
+	 * los índices, que así parten ya del estado recuperado.
+	 */
+	@PostConstruct
+	public void start() {
+		alignWithDatabase();
+		long pending = loanEventLog.lastSequence() - loanEventLog.appliedSequence();
+		if (pending > 0) {
+			log.info("Reaplicando {} préstamos y devoluciones pendientes del registro", pending);
+			while (applyNext(false) > 0) {
+				// Se aplica lote a lote hasta vaciar el registro
+			}
+		}
+		Gauge.builder("library.loans.pending", loanEventLog, events -> events.lastSequence() - events.appliedSequence())
+				.description("Préstamos y devoluciones aceptados y aún no escritos en tb_books")
+				.register(meterRegistry);
+		running = true;
+		thread = new Thread(this::run, "loan-writer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Comprueba que el registro no va por detrás de la base de datos. Con una base de datos persistente
+	 * y un registro nuevo (borrado, o temporal porque no se configuró su ruta) la numeración volvería a
+	 * empezar y la actualización condicional rechazaría los préstamos de todos los libros prestados
+	 * alguna vez, así que el registro vacío continúa la numeración de la base de datos. Un registro con
+	 * eventos que va por detrás es de otra base de datos y no se puede aplicar.
+	 */
+	private void alignWithDatabase() {
+		long databaseSequence = jdbcTemplate.queryForObject(LAST_LOAN_SEQUENCE, Long.class);
+		if (databaseSequence <= loanEventLog.lastSequence()) {
+			return;
+		}
+		if (!loanEventLog.isEmpty()) {
+			throw new IllegalStateException("El registro de préstamos llega hasta el evento " + loanEventLog.lastSequence()
+					+ " pero la base de datos ya tiene aplicado el " + databaseSequence + ": no corresponden a la misma base de datos");
+		}
+		log.info("Registro de préstamos nuevo sobre una base de datos con préstamos: se continúa desde el evento {}",
+				databaseSequence);
+		loanEventLog.rebase(databaseSequence);
+	}
+
+	/**
+	 * Indica si los préstamos se aceptan con el registro y se escriben en diferido.
+	 *
+	 * @return true si está activa la escritura diferida
+	 */
+	public boolean isWriteBehind() {
+		return writeBehind;
+	}
+
+	/**
+	 * Añade al registro un préstamo o devolución que todavía no está en la base de datos.
+	 * El evento no es duradero hasta que se llama a {@link #awaitDurable()}.
+	 *
+	 * @param type el tipo de evento
+	 * @param iSBN el ISBN del libro
+	 * @param borrowerId el identificador de quien se lleva el libro, o null si no se conoce
+	 * @param dueAt la fecha límite de devolución de un préstamo, o null en las devoluciones
+	 * @return el evento registrado
+	 */
+	public LoanEvent enqueue(LoanEvent.Type type, long iSBN, Long borrowerId, Instant dueAt) {
+		LoanEvent event = loanEventLog.append(type, iSBN, borrowerId, dueAt != null ? dueAt.toEpochMilli() : 0, false);
+		if (event.getSequence() - loanEventLog.appliedSequence() >= batchSize) {
+			wakeUp();
+		}
+		return event;
+	}
+
+	/**
+	 * Espera a que todos los eventos registrados hasta ahora estén en disco. Los hilos que
+	 * esperan a la vez comparten la misma escritura.
+	 */
+	public void awaitDurable() {
+		loanEventLog.awaitDurable(loanEventLog.lastSequence());
+	}
+
+	/**
+	 * Añade al registro un préstamo o devolución que ya se ha escrito en la base de datos,
+	 * para que el registro conserve el orden de todos los movimientos.
+	 *
+	 * @param type el tipo de evento
+	 * @param iSBN el ISBN del libro
+	 * @param borrowerId el identificador de quien se lleva el libro, o null si no se conoce
+	 * @param dueAt la fecha límite de devolución de un préstamo, o null en las devoluciones
+	 */
+	public void record(LoanEvent.Type type, long iSBN, Long borrowerId, Instant dueAt) {
+		loanEventLog.append(type, iSBN, borrowerId, dueAt != null ? dueAt.toEpochMilli() : 0, true);
+	}
+
+	/**
+	 * Espera a que todos los eventos registrados hasta ahora estén escritos en tb_books.
+	 */
+	public void flush() {
+		long target = loanEventLog.lastSequence();
+		if (loanEventLog.appliedSequence() >= target) {
+			return;
+		}
+		synchronized (monitor) {
+			monitor.notifyAll();
+			while (loanEventLog.appliedSequence() < target) {
+				if (!running) {
+					throw new IllegalStateException("El escritor de préstamos está detenido");
+				}
+				try {
+					monitor.wait(flushInterval.toMillis() + 1);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrumpido esperando a los préstamos pendientes", ex);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Detiene el hilo escritor y escribe en tb_books los eventos que queden pendientes.
+	 *
+	 * @throws InterruptedException si se interrumpe la espera al hilo escritor
+	 */
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		running = false;
+		wakeUp();
+		thread.join();
+		while (applyNext(false) > 0) {
+			// Se aplica lote a lote hasta vaciar el registro
+		}
+	}
+
+	private void run() {
+		while (running) {
+			try {
+				if (applyNext(true) < batchSize) {
+					synchronized (monitor) {
+						if (running) {
+							monitor.wait(flushInterval.toMillis());
+						}
+					}
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException ex) {
+				log.error("Error escribiendo préstamos en la base de datos; se reintentará", ex);
+				pause();
+			}
+		}
+	}
+
+	/**
+	 * Escribe en tb_books el siguiente lote de eventos pendientes y avanza el punto de control.
+	 *
+	 * Fuera del funcionamiento normal (al reaplicar el registro al arrancar o al vaciarlo al parar)
+	 * no se publican eventos: los índices y la caché aún no existen o ya se han destruido, y que
+	 * una actualización no se aplique sólo indica que ya se aplicó antes.
+	 *
+	 * @param live true si la aplicación está en funcionamiento normal
+	 * @return el número de eventos procesados, 0 si no había ninguno pendiente
+	 */
+	private int applyNext(boolean live) {
+		long from = loanEventLog.appliedSequence() + 1;
+		long to = Math.min(loanEventLog.lastSequence(), from + batchSize - 1);
+		if (to < from) {
+			return 0;
+		}
+		// El evento debe ser duradero antes que su efecto: así el registro nunca va por detrás de la base de datos
+		loanEventLog.awaitDurable(to);
+		List<LoanEvent> events = loanEventLog.read(from, to).stream().filter(event -> !event.isApplied()).toList();
+		int[] counts = events.isEmpty() ? new int[0] : new TransactionTemplate(transactionManager).execute(status -> {
+			int[] updated = jdbcTemplate.batchUpdate(UPDATE_COPIES, new BatchPreparedStatementSetter() {
+
+				@Override
+				public void setValues(PreparedStatement ps, int i) throws SQLException {
+					LoanEvent event = events.get(i);
+					ps.setInt(1, event.copiesDelta());
+					ps.setLong(2, event.getSequence());
+					ps.setLong(3, event.getISBN());
+					ps.setLong(4, event.getSequence());
+					ps.setInt(5, event.copiesDelta());
+				}
+
+				@Override
+				public int getBatchSize() {
+					return events.size();
+				}
+			});
+			List<LoanEvent> applied = new ArrayList<>(events.size());
+			for (int i = 0; i < events.size(); i++) {
+				if (updated[i] > 0) {
+					applied.add(events.get(i));
+				}
+			}
+			writeLoans(applied);
+			return updated;
+		});
+		loanEventLog.checkpoint(to);
+		synchronized (monitor) {
+			monitor.notifyAll();
+		}
+		if (live && !events.isEmpty()) {
+			Set<Long> iSBNs = new LinkedHashSet<>();
+			for (int i = 0; i < events.size(); i++) {
+				iSBNs.add(events.get(i).getISBN());
+				if (counts[i] == 0) {
+					resync(events.get(i));
+				}
+			}
+			eventPublisher.publishEvent(new LoansAppliedEvent(iSBNs));
+			meterRegistry.summary("library.loans.batch.size").record(events.size());
+		}
+		return (int) (to - from + 1);
+	}
+
+	/**
+	 * Abre y cierra en tb_loans los préstamos de los eventos que han cambiado los ejemplares disponibles.
+	 * Cerrar un préstamo depende de que se haya abierto antes, así que los eventos se reparten en
+	 * rondas con como mucho un evento por libro, que se escriben en orden; dentro de cada ronda los
+	 * préstamos se abren con una inserción por lotes y se cierran con una actualización por lotes,
+	 * que cierra el préstamo abierto más antiguo de cada libro de quien lo devuelve (o el más antiguo
+	 * del libro si no se conoce o no tiene ninguno, como {@code LoanRepository.closeLoan}).
+	 * Los eventos que no se aplicaron (ya aplicados antes de una caída) no se escriben.
+	 *
+	 * @param events los eventos aplicados, en orden de secuencia
+	 */
+	private void writeLoans(List<LoanEvent> events) {
+		List<List<LoanEvent>> rounds = new ArrayList<>();
+		Map<Long, Integer> seen = new HashMap<>();
+		for (LoanEvent event : events) {
+			int round = seen.merge(event.getISBN(), 1, Integer::sum) - 1;
+			if (round == rounds.size()) {
+				rounds.add(new ArrayList<>());
+			}
+			rounds.get(round).add(event);
+		}
+		for (List<LoanEvent> round : rounds) {
+			List<Object[]> checkouts = new ArrayList<>();
+			List<Object[]> returns = new ArrayList<>();
+			for (LoanEvent event : round) {
+				if (event.getType() == LoanEvent.Type.CHECKOUT) {
+					checkouts.add(new Object[] { event.getISBN(), event.getBorrowerId(),
+							toTimestamp(event.getTimestamp()), toTimestamp(event.getDueAt()) });
+				} else {
+					returns.add(new Object[] { toTimestamp(event.getTimestamp()), event.getISBN(), event.getBorrowerId(),
+							event.getISBN() });
+				}
+			}
+			if (!checkouts.isEmpty()) {
+				jdbcTemplate.batchUpdate(INSERT_LOAN, checkouts,
+						new int[] { Types.BIGINT, Types.BIGINT, Types.TIMESTAMP_WITH_TIMEZONE, Types.TIMESTAMP_WITH_TIMEZONE });
+			}
+			if (!returns.isEmpty()) {
+				jdbcTemplate.batchUpdate(CLOSE_LOAN, returns,
+						new int[] { Types.TIMESTAMP_WITH_TIMEZONE, Types.BIGINT, Types.BIGINT, Types.BIGINT });
+			}
+		}
+	}
+
+	private static OffsetDateTime toTimestamp(long millis) {
+		return OffsetDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+	}
+
+	/**
+	 * Vuelve a publicar el estado de la base de datos de un libro cuyo evento no se pudo aplicar.
+	 *
+	 * @param event el evento no aplicado
+	 */
+	private void resync(LoanEvent event) {
+		log.warn("El préstamo {} del libro {} no encontró ejemplares que prestar o devolver; se toma el estado de la base de datos",
+				event.getSequence(), event.getISBN());
+		bookRepository.findBookByISBN(event.getISBN())
+				.ifPresent(book -> eventPublisher.publishEvent(BookEvent.updated(book)));
+	}
+
+	private void wakeUp() {
+		synchronized (monitor) {
+			monitor.notifyAll();
+		}
+	}
+
+	private void pause() {
+		try {
+			Thread.sleep(Math.max(flushInterval.toMillis(), 100));
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package com.hillogy.LibraryManagement.mapper;
+
+import org.springframework.stereotype.Component;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.model.Book;
+
+/**
+ * Componente que convierte entre la entidad Book y el objeto BookDTO.
+ * Las lecturas de sólo consulta no lo necesitan: el repositorio construye los BookDTO
+ * directamente en la consulta. Se usa en las escrituras, que sí trabajan con entidades.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@Component
+public class BookMapper {
+
+	/**
+	 * Convierte un objeto Book en un objeto BookDTO.
+	 * 
+	 * @param book objeto Book a convertir
+	 * @return objeto BookDTO convertido
+	 */
+	public BookDTO toDTO(Book book) {
+		return new BookDTO(book.getiSBN(), book.getTitle(), book.getAuthor(), book.getCopies(), book.getAvailableCopies());
+	}
+
+	/**
+	 * Convierte un objeto BookDTO en un objeto Book.
+	 * Un libro nuevo entra con todos sus ejemplares disponibles, o con ninguno si se da de alta como no disponible.
+	 * 
+	 * @param bookDTO objeto BookDTO a convertir
+	 * @return objeto Book convertido
+	 */
+	public Book toEntity(BookDTO bookDTO) {
+		Book book = new Book();
+		book.setiSBN(bookDTO.getISBN());
+		book.setTitle(bookDTO.getTitle());
+		book.setAuthor(bookDTO.getAuthor());
+		book.setCopies(bookDTO.getCopies());
+		book.setAvailableCopies(bookDTO.isAvailable() ? bookDTO.getCopies() : 0);
+		return book;
+	}
+}
@@ -0,0 +1,129 @@
+package com.hillogy.LibraryManagement.metrics;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.hillogy.LibraryManagement.dto.BookPageDTO;
+import com.hillogy.LibraryManagement.dto.LoanPageDTO;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Aspecto que mide cada método público de la capa de servicio.
+ * Registra en Micrometer:
+ * <ul>
+ * <li>{@code library.service.calls}: temporizador con histograma por servicio, método y resultado.</li>
+ * <li>{@code library.service.results}: número de libros devueltos por los métodos que devuelven listas o páginas.</li>
+ * <li>{@code library.service.errors}: contador de excepciones por método y tipo (p. ej. BookNotFoundException).</li>
+ * </ul>
+ * Se ejecuta por fuera de la transacción, de modo que los tiempos incluyen la confirmación.
+ * En los servicios reactivos la medida empieza al suscribirse al Mono o Flux devuelto y termina con su última señal.
+ * Los tiempos de las consultas del repositorio los publica Spring Data en {@code spring.data.repository.invocations}.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	/**
+	 * Mide una llamada a un servicio.
+	 *
+	 * @param joinPoint la llamada interceptada
+	 * @return el resultado de la llamada
+	 * @throws Throwable la excepción lanzada por el servicio, sin modificar
+	 */
+	@Around("execution(public * com.hillogy.LibraryManagement.service..*(..))")
+	public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+		String service = joinPoint.getSignature().getDeclaringType().getSimpleName();
+		String method = joinPoint.getSignature().getName();
+		String exception = "none";
+		boolean deferred = false;
+		Timer.Sample sample = Timer.start(meterRegistry);
+		try {
+			Object result = joinPoint.proceed();
+			if (result instanceof Mono<?> mono) {
+				deferred = true;
+				return measure(service, method, mono);
+			} else if (result instanceof Flux<?> flux) {
+				deferred = true;
+				return measure(service, method, flux);
+			}
+			recordResultSize(service, method, result);
+			return result;
+		} catch (Throwable ex) {
+			exception = recordError(service, method, ex);
+			throw ex;
+		} finally {
+			if (!deferred) {
+				stop(sample, service, method, exception);
+			}
+		}
+	}
+
+	private <T> Mono<T> measure(String service, String method, Mono<T> mono) {
+		return Mono.defer(() -> {
+			Timer.Sample sample = Timer.start(meterRegistry);
+			return mono.doOnSuccess(value -> stop(sample, service, method, "none"))
+					.doOnError(ex -> stop(sample, service, method, recordError(service, method, ex)));
+		});
+	}
+
+	private <T> Flux<T> measure(String service, String method, Flux<T> flux) {
+		return Flux.defer(() -> {
+			Timer.Sample sample = Timer.start(meterRegistry);
+			AtomicInteger size = new AtomicInteger();
+			return flux.doOnNext(value -> size.incrementAndGet())
+					.doOnComplete(() -> {
+						meterRegistry.summary("library.service.results", "service", service, "method", method)
+								.record(size.get());
+						stop(sample, service, method, "none");
+					})
+					.doOnError(ex -> stop(sample, service, method, recordError(service, method, ex)));
+		});
+	}
+
+	private String recordError(String service, String method, Throwable ex) {
+		String exception = ex.getClass().getSimpleName();
+		meterRegistry.counter("library.service.errors", "service", service, "method", method, "exception", exception)
+				.increment();
+		return exception;
+	}
+
+	private void stop(Timer.Sample sample, String service, String method, String exception) {
+		sample.stop(Timer.builder("library.service.calls")
+				.description("Tiempo de las llamadas a la capa de servicio")
+				.tags("service", service, "method", method, "exception", exception)
+				.register(meterRegistry));
+	}
+
+	private void recordResultSize(String service, String method, Object result) {
+		int size;
+		if (result instanceof Collection<?> collection) {
+			size = collection.size();
+		} else if (result instanceof BookPageDTO page) {
+			size = page.getSize();
+		} else if (result instanceof LoanPageDTO page) {
+			size = page.getSize();
+		} else {
+			return;
+		}
+		meterRegistry.summary("library.service.results", "service", service, "method", method).record(size);
+	}
+}
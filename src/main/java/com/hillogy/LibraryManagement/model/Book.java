@@ -1,27 +1,41 @@
 package com.hillogy.LibraryManagement.model;
 
+import org.hibernate.annotations.Check;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 /**
  * Clase que representa un libro en el sistema de gestión de la biblioteca.
- * Contiene información como el título, el autor y la disponibilidad del libro.
+ * Contiene información como el título, el autor y los ejemplares del libro: un título con varios
+ * ejemplares es una sola fila con el total de ejemplares y los que quedan disponibles. La disponibilidad
+ * (hay al menos un ejemplar disponible) la calcula la base de datos a partir del contador, por lo que
+ * la entidad no la escribe nunca.
+ * El esquema de la tabla lo crean las migraciones de Flyway (db/migration); las restricciones
+ * e índices declarados aquí las reflejan.
  * 
  * @author oscaralejandroflorez@gmail.com
  * @version 1.0
  */
 @Entity
-@Table(name = "tb_books")
+@Table(name = "tb_books",
+		uniqueConstraints = @UniqueConstraint(name = "uk_tb_books_title_author", columnNames = { "title", "author" }),
+		indexes = @Index(name = "idx_tb_books_available", columnList = "available"))
+@Check(name = "ck_tb_books_copies", constraints = "available_copies BETWEEN 0 AND copies")
 public class Book {
 
 	
     private Long iSBN;
     private String title;
     private String author;
+    private int copies = 1;
+    private int availableCopies;
     private boolean available;
 
     /**
@@ -39,9 +53,22 @@ public class Book {
      * @param available Indica si el libro está disponible.
      */
 	public Book( String title, String author, boolean available) {
+		this(title, author, 1, available ? 1 : 0);
+	}
+
+    /**
+     * Constructor de la clase Book con varios ejemplares.
+     * 
+     * @param title El título del libro.
+     * @param author El autor del libro.
+     * @param copies El número de ejemplares.
+     * @param availableCopies El número de ejemplares disponibles.
+     */
+	public Book(String title, String author, int copies, int availableCopies) {
 		this.title = title;
 		this.author = author;
-		this.available = available;
+		this.copies = copies;
+		setAvailableCopies(availableCopies);
 	}
 	
 	@Id
@@ -72,7 +99,26 @@ public class Book {
 		this.author = author;
 	}
 
-	@Column(name = "available", nullable = false)
+	@Column(name = "copies", nullable = false)
+	public int getCopies() {
+		return copies;
+	}
+
+	public void setCopies(int copies) {
+		this.copies = copies;
+	}
+
+	@Column(name = "available_copies", nullable = false)
+	public int getAvailableCopies() {
+		return availableCopies;
+	}
+
+	public void setAvailableCopies(int availableCopies) {
+		this.availableCopies = availableCopies;
+		this.available = availableCopies > 0;
+	}
+
+	@Column(name = "available", insertable = false, updatable = false)
 	public boolean isAvailable() {
 		return available;
 	}
@@ -0,0 +1,117 @@
+package com.hillogy.LibraryManagement.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+/**
+ * Clase que representa un préstamo de un libro: quién se lo lleva, cuándo y hasta cuándo.
+ * El préstamo está abierto mientras no tenga fecha de devolución.
+ * El esquema de la tabla lo crean las migraciones de Flyway (db/migration); los índices
+ * declarados aquí los reflejan.
+ * 
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@Entity
+@Table(name = "tb_loans", indexes = {
+		@Index(name = "idx_tb_loans_isbn", columnList = "isbn, id"),
+		@Index(name = "idx_tb_loans_open", columnList = "isbn, returned_at, id"),
+		@Index(name = "idx_tb_loans_borrower", columnList = "borrower_id, returned_at, id"),
+		@Index(name = "idx_tb_loans_due", columnList = "returned_at, due_at, id") })
+public class Loan {
+
+	private Long id;
+	private Book book;
+	private Long borrowerId;
+	private Instant loanedAt;
+	private Instant dueAt;
+	private Instant returnedAt;
+
+	/**
+	 * Constructor por defecto de la clase Loan.
+	 */
+	public Loan() {
+	}
+
+	/**
+	 * Constructor de la clase Loan para un préstamo nuevo, todavía abierto.
+	 * 
+	 * @param book El libro prestado.
+	 * @param borrowerId El identificador de quien se lleva el libro, o null si no se conoce.
+	 * @param loanedAt El instante del préstamo.
+	 * @param dueAt La fecha límite de devolución.
+	 */
+	public Loan(Book book, Long borrowerId, Instant loanedAt, Instant dueAt) {
+		this.book = book;
+		this.borrowerId = borrowerId;
+		this.loanedAt = loanedAt;
+		this.dueAt = dueAt;
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	@ManyToOne(fetch = FetchType.LAZY, optional = false)
+	@JoinColumn(name = "isbn", nullable = false, foreignKey = @ForeignKey(name = "fk_tb_loans_book"))
+	public Book getBook() {
+		return book;
+	}
+
+	public void setBook(Book book) {
+		this.book = book;
+	}
+
+	@Column(name = "borrower_id")
+	public Long getBorrowerId() {
+		return borrowerId;
+	}
+
+	public void setBorrowerId(Long borrowerId) {
+		this.borrowerId = borrowerId;
+	}
+
+	@Column(name = "loaned_at", nullable = false)
+	public Instant getLoanedAt() {
+		return loanedAt;
+	}
+
+	public void setLoanedAt(Instant loanedAt) {
+		this.loanedAt = loanedAt;
+	}
+
+	@Column(name = "due_at", nullable = false)
+	public Instant getDueAt() {
+		return dueAt;
+	}
+
+	public void setDueAt(Instant dueAt) {
+		this.dueAt = dueAt;
+	}
+
+	@Column(name = "returned_at")
+	public Instant getReturnedAt() {
+		return returnedAt;
+	}
+
+	public void setReturnedAt(Instant returnedAt) {
+		this.returnedAt = returnedAt;
+	}
+}
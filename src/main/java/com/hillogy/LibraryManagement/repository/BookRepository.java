@@ -1,21 +1,60 @@
 package com.hillogy.LibraryManagement.repository;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
 import com.hillogy.LibraryManagement.model.Book;
 
 /**
  * Repositorio para acceder a la entidad Book en la base de datos.
  * Proporciona métodos para realizar operaciones CRUD y consultas personalizadas.
+ * Las consultas de lectura devuelven BookDTO construidos en la propia consulta (proyección por constructor),
+ * de modo que no se crean entidades gestionadas ni se comprueban cambios al cerrar la transacción.
  * 
  * @author oscaralejandroflorez@gmail.com
  * @version 1.0
  */
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookSearchRepository {
+
+	/**
+     * Expresión JPQL que construye un BookDTO a partir del libro {@code b}.
+     */
+	String BOOK_DTO = "new com.hillogy.LibraryManagement.dto.BookDTO(b.iSBN, b.title, b.author, b.copies, b.availableCopies)";
+
+	/**
+     * Recupera todos los libros como BookDTO.
+     * 
+     * @return Lista con todos los libros del catálogo.
+     */
+	@Query("SELECT " + BOOK_DTO + " FROM Book b")
+	List<BookDTO> findAllBooks();
+
+	/**
+     * Busca un libro por su ISBN y lo devuelve como BookDTO.
+     * 
+     * @param iSBN El ISBN del libro.
+     * @return El libro encontrado, o vacío si no existe.
+     */
+	@Query("SELECT " + BOOK_DTO + " FROM Book b WHERE b.iSBN = :iSBN")
+	Optional<BookDTO> findBookByISBN(@Param("iSBN") Long iSBN);
 
 	/**
      * Busca libros cuyo título contenga la cadena especificada, ignorando mayúsculas y minúsculas.
@@ -23,7 +62,9 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      * @param title El título (o parte del título) a buscar.
      * @return Lista de libros que coinciden con el título especificado.
      */
-	List<Book> findByTitleContainingIgnoreCase(String title);
+	@Query("SELECT " + BOOK_DTO + " FROM Book b"
+			+ " WHERE UPPER(b.title) LIKE UPPER(CONCAT('%', :#{escape(#title)}, '%')) ESCAPE :#{escapeCharacter()}")
+	List<BookDTO> findByTitleContainingIgnoreCase(@Param("title") String title);
 
 	/**
      * Busca libros cuyo autor contenga la cadena especificada, ignorando mayúsculas y minúsculas.
@@ -31,7 +72,9 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      * @param author El autor (o parte del autor) a buscar.
      * @return Lista de libros cuyo autor coincide con el especificado.
      */
-	List<Book> findByAuthorContainingIgnoreCase(String author);
+	@Query("SELECT " + BOOK_DTO + " FROM Book b"
+			+ " WHERE UPPER(b.author) LIKE UPPER(CONCAT('%', :#{escape(#author)}, '%')) ESCAPE :#{escapeCharacter()}")
+	List<BookDTO> findByAuthorContainingIgnoreCase(@Param("author") String author);
 
 	/**
      * Busca libros disponibles o no disponibles según el parámetro booleano especificado.
@@ -39,7 +82,16 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      * @param available Indica si se desean libros disponibles (true) o no disponibles (false).
      * @return Lista de libros que están disponibles o no disponibles según el parámetro.
      */
-	List<Book> findByAvailable(boolean available);
+	@Query("SELECT " + BOOK_DTO + " FROM Book b WHERE b.available = :available")
+	List<BookDTO> findByAvailable(@Param("available") boolean available);
+
+	/**
+     * Cuenta los libros según su disponibilidad.
+     * 
+     * @param available Disponibilidad de los libros a contar.
+     * @return El número de libros con esa disponibilidad.
+     */
+	long countByAvailable(boolean available);
 
 	/**
      * Verifica si existe un libro con el título y autor especificados.
@@ -50,4 +102,83 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      */
 	boolean existsByTitleAndAuthor(String title, String author);
 
+	/**
+     * Recupera los pares (título, autor) existentes para un conjunto de títulos.
+     * Se usa en la importación masiva para detectar duplicados de un bloque con una sola consulta.
+     * 
+     * @param titles Los títulos a comprobar.
+     * @return Lista de pares [título, autor] de los libros cuyo título está en el conjunto.
+     */
+	@Query("SELECT b.title, b.author FROM Book b WHERE b.title IN :titles")
+	List<Object[]> findTitleAndAuthorByTitleIn(@Param("titles") Collection<String> titles);
+
+	/**
+     * Recupera la siguiente página de libros usando paginación por clave (keyset):
+     * devuelve los libros cuyo ISBN es mayor que el indicado, ordenados por ISBN.
+     * A diferencia de la paginación por desplazamiento, el coste no crece con el número de página.
+     * 
+     * @param after El último ISBN de la página anterior (exclusivo).
+     * @param pageable Limita el número de filas devueltas; se ignora la ordenación.
+     * @return Lista de libros con ISBN mayor que {@code after}, en orden ascendente.
+     */
+	@Query("SELECT " + BOOK_DTO + " FROM Book b WHERE b.iSBN > :after ORDER BY b.iSBN ASC")
+	List<BookDTO> findNextPage(@Param("after") Long after, Pageable pageable);
+
+	/**
+     * Recorre todo el catálogo ordenado por ISBN como un cursor de base de datos.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     * 
+     * @return Stream de libros ordenados por ISBN.
+     */
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	@Query("SELECT " + BOOK_DTO + " FROM Book b ORDER BY b.iSBN ASC")
+	Stream<BookDTO> streamAll();
+
+	/**
+     * Recorre los libros con la disponibilidad indicada en orden de ISBN con un cursor de base de datos.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     * 
+     * @param available Disponibilidad de los libros a recorrer.
+     * @return Stream de libros ordenados por ISBN.
+     */
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	@Query("SELECT " + BOOK_DTO + " FROM Book b WHERE b.available = :available ORDER BY b.iSBN ASC")
+	Stream<BookDTO> streamByAvailable(@Param("available") boolean available);
+
+	/**
+     * Presta un ejemplar de un libro sólo si le queda alguno disponible, en una única sentencia
+     * {@code UPDATE ... SET available_copies = available_copies - 1 WHERE available_copies > 0}.
+     * La condición se evalúa sobre el valor vigente de la fila, sin leerla antes, por lo que los
+     * préstamos concurrentes de un mismo título nunca dejan el contador por debajo de cero.
+     * 
+     * @param iSBN El ISBN del libro a prestar.
+     * @return 1 si se ha prestado un ejemplar, 0 si el libro no existe o no le quedan ejemplares.
+     */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Book b SET b.availableCopies = b.availableCopies - 1 WHERE b.iSBN = :iSBN AND b.availableCopies > 0")
+	int markAsBorrowed(@Param("iSBN") Long iSBN);
+
+	/**
+     * Devuelve un ejemplar de un libro sólo si tenía alguno prestado.
+     * 
+     * @param iSBN El ISBN del libro a devolver.
+     * @return 1 si se ha devuelto un ejemplar, 0 si el libro no existe o tenía todos sus ejemplares.
+     */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE Book b SET b.availableCopies = b.availableCopies + 1 WHERE b.iSBN = :iSBN AND b.availableCopies < b.copies")
+	int markAsReturned(@Param("iSBN") Long iSBN);
+
+	/**
+     * Recupera varios libros por ISBN en una sola consulta, bloqueando sus filas
+     * ({@code SELECT ... FOR UPDATE}) hasta el final de la transacción. Equivale a
+     * {@code findAllById} pero impide que otro préstamo cambie la disponibilidad
+     * de esos libros mientras se procesa el lote.
+     * 
+     * @param iSBNs Los ISBN de los libros a recuperar.
+     * @return Lista de los libros encontrados, en cualquier orden.
+     */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT b FROM Book b WHERE b.iSBN IN :iSBNs")
+	List<Book> findAllByIdForUpdate(@Param("iSBNs") Collection<Long> iSBNs);
+
 }
@@ -0,0 +1,26 @@
+package com.hillogy.LibraryManagement.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.model.Book;
+
+/**
+ * Fragmento de {@link BookRepository} para las búsquedas combinadas con especificaciones.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public interface BookSearchRepository {
+
+	/**
+     * Busca los libros que cumplen una especificación y los devuelve como BookDTO,
+     * con una única consulta y sin cargar entidades.
+     * 
+     * @param specification La especificación que deben cumplir los libros.
+     * @return Lista de libros ordenados por ISBN.
+     */
+	List<BookDTO> findAllBooks(Specification<Book> specification);
+}
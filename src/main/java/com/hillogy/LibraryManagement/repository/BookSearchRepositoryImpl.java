@@ -0,0 +1,44 @@
+package com.hillogy.LibraryManagement.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.model.Book;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Implementación del fragmento {@link BookSearchRepository} con la API Criteria de JPA.
+ * Proyecta directamente a BookDTO con {@code CriteriaBuilder#construct}, igual que
+ * las consultas de lectura de {@link BookRepository}.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public class BookSearchRepositoryImpl implements BookSearchRepository {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public List<BookDTO> findAllBooks(Specification<Book> specification) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<BookDTO> query = cb.createQuery(BookDTO.class);
+		Root<Book> root = query.from(Book.class);
+		query.select(cb.construct(BookDTO.class, root.get("iSBN"), root.get("title"), root.get("author"),
+				root.get("copies"), root.get("availableCopies")));
+		Predicate predicate = specification.toPredicate(root, query, cb);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		query.orderBy(cb.asc(root.get("iSBN")));
+		return entityManager.createQuery(query).getResultList();
+	}
+}
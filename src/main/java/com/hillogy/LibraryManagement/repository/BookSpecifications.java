@@ -0,0 +1,95 @@
+package com.hillogy.LibraryManagement.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.hillogy.LibraryManagement.dto.BookSearchCriteria;
+import com.hillogy.LibraryManagement.model.Book;
+
+/**
+ * Especificaciones JPA para las búsquedas combinadas de libros.
+ * {@link #matching(BookSearchCriteria)} compila los criterios en una única consulta. El orden de
+ * los predicados en el WHERE no influye en el plan: H2 elige el índice (la clave primaria si hay ISBN)
+ * y evalúa el resto sobre las filas que devuelve.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public final class BookSpecifications {
+
+	private static final char ESCAPE = '\\';
+
+	private BookSpecifications() {
+	}
+
+	/**
+	 * Combina todos los criterios no nulos en una especificación.
+	 *
+	 * @param criteria los criterios de búsqueda
+	 * @return la especificación combinada; sin criterios devuelve todos los libros
+	 */
+	public static Specification<Book> matching(BookSearchCriteria criteria) {
+		List<Specification<Book>> predicates = new ArrayList<>();
+		if (criteria.getISBN() != null) {
+			predicates.add(hasISBN(criteria.getISBN()));
+		}
+		if (criteria.getTitle() != null) {
+			predicates.add(titleContains(criteria.getTitle()));
+		}
+		if (criteria.getAuthor() != null) {
+			predicates.add(authorContains(criteria.getAuthor()));
+		}
+		if (criteria.getAvailable() != null) {
+			predicates.add(hasAvailability(criteria.getAvailable()));
+		}
+		return Specification.allOf(predicates);
+	}
+
+	/**
+	 * Libros con el ISBN indicado.
+	 *
+	 * @param iSBN el ISBN
+	 * @return la especificación
+	 */
+	public static Specification<Book> hasISBN(Long iSBN) {
+		return (root, query, cb) -> cb.equal(root.get("iSBN"), iSBN);
+	}
+
+	/**
+	 * Libros cuyo título contiene la cadena, sin distinguir mayúsculas.
+	 *
+	 * @param title parte del título
+	 * @return la especificación
+	 */
+	public static Specification<Book> titleContains(String title) {
+		return (root, query, cb) -> cb.like(cb.upper(root.get("title")), containing(title), ESCAPE);
+	}
+
+	/**
+	 * Libros cuyo autor contiene la cadena, sin distinguir mayúsculas.
+	 *
+	 * @param author parte del autor
+	 * @return la especificación
+	 */
+	public static Specification<Book> authorContains(String author) {
+		return (root, query, cb) -> cb.like(cb.upper(root.get("author")), containing(author), ESCAPE);
+	}
+
+	/**
+	 * Libros con la disponibilidad indicada.
+	 *
+	 * @param available la disponibilidad
+	 * @return la especificación
+	 */
+	public static Specification<Book> hasAvailability(boolean available) {
+		return (root, query, cb) -> cb.equal(root.get("available"), available);
+	}
+
+	private static String containing(String text) {
+		String escaped = text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+		return "%" + escaped.toUpperCase(Locale.ROOT) + "%";
+	}
+}
@@ -0,0 +1,108 @@
+package com.hillogy.LibraryManagement.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.hillogy.LibraryManagement.dto.LoanDTO;
+import com.hillogy.LibraryManagement.model.Loan;
+
+/**
+ * Repositorio para acceder a la entidad Loan en la base de datos.
+ * Las consultas de lectura devuelven LoanDTO construidos en la propia consulta y usan paginación por
+ * clave sobre el id del préstamo (o sobre la fecha límite y el id en los vencidos): cada una recorre
+ * un tramo de uno de los índices de tb_loans, de modo que el coste no crece con el número de página.
+ * 
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@Repository
+public interface LoanRepository extends JpaRepository<Loan, Long> {
+
+	/**
+     * Expresión JPQL que construye un LoanDTO a partir del préstamo {@code l}.
+     */
+	String LOAN_DTO = "new com.hillogy.LibraryManagement.dto.LoanDTO(l.id, l.book.iSBN, l.borrowerId, l.loanedAt, l.dueAt, l.returnedAt)";
+
+	/**
+     * Recupera los préstamos de un libro, del más antiguo al más reciente (índice idx_tb_loans_isbn).
+     * 
+     * @param iSBN El ISBN del libro.
+     * @param after El id del último préstamo de la página anterior (exclusivo).
+     * @param pageable Limita el número de filas devueltas; se ignora la ordenación.
+     * @return Lista de préstamos del libro con id mayor que {@code after}.
+     */
+	@Query("SELECT " + LOAN_DTO + " FROM Loan l WHERE l.book.iSBN = :iSBN AND l.id > :after ORDER BY l.id ASC")
+	List<LoanDTO> findByISBN(@Param("iSBN") Long iSBN, @Param("after") Long after, Pageable pageable);
+
+	/**
+     * Recupera los préstamos abiertos de un usuario en orden de préstamo (índice idx_tb_loans_borrower).
+     * 
+     * @param borrowerId El identificador del usuario.
+     * @param after El id del último préstamo de la página anterior (exclusivo).
+     * @param pageable Limita el número de filas devueltas; se ignora la ordenación.
+     * @return Lista de préstamos abiertos del usuario con id mayor que {@code after}.
+     */
+	@Query("SELECT " + LOAN_DTO + " FROM Loan l WHERE l.borrowerId = :borrowerId AND l.returnedAt IS NULL"
+			+ " AND l.id > :after ORDER BY l.id ASC")
+	List<LoanDTO> findActiveByBorrower(@Param("borrowerId") Long borrowerId, @Param("after") Long after, Pageable pageable);
+
+	/**
+     * Recupera los préstamos abiertos cuya fecha límite es anterior a {@code now}, del más atrasado
+     * al menos atrasado (índice idx_tb_loans_due). La página empieza después del préstamo con
+     * fecha límite {@code afterDueAt} e id {@code after}.
+     * 
+     * @param now El instante de referencia.
+     * @param afterDueAt La fecha límite del último préstamo de la página anterior.
+     * @param after El id del último préstamo de la página anterior (exclusivo).
+     * @param pageable Limita el número de filas devueltas; se ignora la ordenación.
+     * @return Lista de préstamos vencidos ordenados por fecha límite e id.
+     */
+	@Query("SELECT " + LOAN_DTO + " FROM Loan l WHERE l.returnedAt IS NULL AND l.dueAt < :now"
+			+ " AND l.dueAt >= :afterDueAt AND (l.dueAt > :afterDueAt OR l.id > :after)"
+			+ " ORDER BY l.dueAt ASC, l.id ASC")
+	List<LoanDTO> findOverdue(@Param("now") Instant now, @Param("afterDueAt") Instant afterDueAt,
+			@Param("after") Long after, Pageable pageable);
+
+	/**
+     * Recupera la fecha límite de un préstamo, con la que continuar la paginación de los vencidos.
+     * 
+     * @param id El id del préstamo.
+     * @return La fecha límite, o vacío si el préstamo no existe.
+     */
+	@Query("SELECT l.dueAt FROM Loan l WHERE l.id = :id")
+	Optional<Instant> findDueAtById(@Param("id") Long id);
+
+	/**
+     * Cuenta los préstamos de cada libro, abiertos o no (recorre idx_tb_loans_isbn).
+     *
+     * @return Pares [ISBN, número de préstamos] de los libros con algún préstamo.
+     */
+	@Query("SELECT l.book.iSBN, COUNT(l) FROM Loan l GROUP BY l.book.iSBN")
+	List<Object[]> countLoansByISBN();
+
+	/**
+     * Cierra el préstamo abierto más antiguo de un libro de quien lo devuelve. Las devoluciones no
+     * dicen qué ejemplar se devuelve, así que los préstamos de un usuario con varios ejemplares del
+     * título se cierran por orden. Si no se conoce quién lo devuelve, o no tiene ningún préstamo
+     * abierto del libro, se cierra el préstamo abierto más antiguo del libro, para que siga habiendo
+     * tantos préstamos abiertos como ejemplares prestados.
+     * 
+     * @param iSBN El ISBN del libro devuelto.
+     * @param borrowerId El identificador de quien devuelve el libro, o null si no se conoce.
+     * @param returnedAt El instante de la devolución.
+     * @return El número de préstamos cerrados (0 si el libro no tenía ninguno abierto).
+     */
+	@Modifying(flushAutomatically = true)
+	@Query("UPDATE Loan l SET l.returnedAt = :returnedAt WHERE l.id = COALESCE("
+			+ "(SELECT MIN(o.id) FROM Loan o WHERE o.book.iSBN = :iSBN AND o.borrowerId = :borrowerId AND o.returnedAt IS NULL),"
+			+ " (SELECT MIN(o.id) FROM Loan o WHERE o.book.iSBN = :iSBN AND o.returnedAt IS NULL))")
+	int closeLoan(@Param("iSBN") Long iSBN, @Param("borrowerId") Long borrowerId, @Param("returnedAt") Instant returnedAt);
+}
@@ -0,0 +1,94 @@
+package com.hillogy.LibraryManagement.repository;
+
+import java.util.function.BiFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Repositorio reactivo para acceder a la tabla tb_books mediante R2DBC.
+ * Ofrece las mismas consultas que {@link BookRepository} que usa la API reactiva; los resultados
+ * se emiten fila a fila según los pide el suscriptor, por lo que respetan la contrapresión.
+ * 
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@Repository
+public class ReactiveBookRepository {
+
+	private static final String SELECT_BOOK = "SELECT isbn, title, author, copies, available_copies FROM tb_books";
+
+	private static final BiFunction<Row, RowMetadata, BookDTO> BOOK_DTO = (row, metadata) -> new BookDTO(
+			row.get("isbn", Long.class), row.get("title", String.class), row.get("author", String.class),
+			row.get("copies", Integer.class), row.get("available_copies", Integer.class));
+
+	@Autowired
+	private DatabaseClient databaseClient;
+
+	/**
+	 * Recupera todos los libros ordenados por ISBN.
+	 * 
+	 * @return Flux con todos los libros del catálogo.
+	 */
+	public Flux<BookDTO> findAll() {
+		return databaseClient.sql(SELECT_BOOK + " ORDER BY isbn").map(BOOK_DTO).all();
+	}
+
+	/**
+	 * Busca un libro por su ISBN.
+	 * 
+	 * @param iSBN El ISBN del libro.
+	 * @return Mono con el libro, o vacío si no existe.
+	 */
+	public Mono<BookDTO> findById(Long iSBN) {
+		return databaseClient.sql(SELECT_BOOK + " WHERE isbn = :isbn").bind("isbn", iSBN).map(BOOK_DTO).one();
+	}
+
+	/**
+	 * Busca libros cuyo título contenga la cadena especificada, ignorando mayúsculas y minúsculas.
+	 * 
+	 * @param title El título (o parte del título) a buscar.
+	 * @return Flux de libros que coinciden con el título especificado.
+	 */
+	public Flux<BookDTO> findByTitleContainingIgnoreCase(String title) {
+		return databaseClient.sql(SELECT_BOOK + " WHERE UPPER(title) LIKE UPPER(:pattern) ESCAPE '\\'")
+				.bind("pattern", containing(title)).map(BOOK_DTO).all();
+	}
+
+	/**
+	 * Busca libros cuyo autor contenga la cadena especificada, ignorando mayúsculas y minúsculas.
+	 * 
+	 * @param author El autor (o parte del autor) a buscar.
+	 * @return Flux de libros cuyo autor coincide con el especificado.
+	 */
+	public Flux<BookDTO> findByAuthorContainingIgnoreCase(String author) {
+		return databaseClient.sql(SELECT_BOOK + " WHERE UPPER(author) LIKE UPPER(:pattern) ESCAPE '\\'")
+				.bind("pattern", containing(author)).map(BOOK_DTO).all();
+	}
+
+	/**
+	 * Busca libros disponibles o no disponibles según el parámetro especificado.
+	 * 
+	 * @param available Indica si se desean libros disponibles (true) o no disponibles (false).
+	 * @return Flux de libros con la disponibilidad indicada.
+	 */
+	public Flux<BookDTO> findByAvailable(boolean available) {
+		return databaseClient.sql(SELECT_BOOK + " WHERE available = :available").bind("available", available)
+				.map(BOOK_DTO).all();
+	}
+
+	/**
+	 * Construye el patrón LIKE que busca el texto literal en cualquier posición.
+	 */
+	private static String containing(String text) {
+		return "%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+	}
+}
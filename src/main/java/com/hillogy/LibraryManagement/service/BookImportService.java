@@ -0,0 +1,37 @@
+package com.hillogy.LibraryManagement.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.hillogy.LibraryManagement.dto.ImportResultDTO;
+
+/**
+ * Interfaz para el servicio de importación masiva de libros.
+ * Define la carga de catálogos completos leídos de un flujo de entrada.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public interface BookImportService {
+
+	/**
+	 * Formatos de entrada admitidos por la importación.
+	 */
+	enum Format {
+		/** Un objeto JSON por línea con los campos title, author, available (opcional) y copies (opcional). */
+		NDJSON,
+		/** Líneas CSV con las columnas title,author[,available[,copies]] y cabecera opcional. */
+		CSV
+	}
+
+	/**
+	 * Importa los libros leídos del flujo de entrada, confirmándolos por bloques.
+	 * Las filas inválidas o duplicadas (por título y autor) se rechazan sin interrumpir la importación.
+	 *
+	 * @param input flujo con el contenido a importar, codificado en UTF-8
+	 * @param format formato del contenido
+	 * @return objeto ImportResultDTO con el número de filas aceptadas y rechazadas
+	 * @throws IOException si falla la lectura del flujo
+	 */
+	ImportResultDTO importBooks(InputStream input, Format format) throws IOException;
+}
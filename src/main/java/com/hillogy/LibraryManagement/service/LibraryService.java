@@ -1,8 +1,12 @@
 package com.hillogy.LibraryManagement.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.dto.BookPageDTO;
+import com.hillogy.LibraryManagement.dto.BookSearchCriteria;
+import com.hillogy.LibraryManagement.dto.SuggestionDTO;
 import com.hillogy.LibraryManagement.exception.BookNotFoundException;
 
 
@@ -23,6 +27,16 @@ public interface LibraryService {
      */
 	BookDTO createNewBook(BookDTO bookDTO);
 
+	/**
+     * Crea un nuevo libro en la biblioteca de forma idempotente: repetir la petición con la misma
+     * clave devuelve el libro creado la primera vez sin volver a crearlo.
+     * 
+     * @param bookDTO objeto BookDTO que representa el nuevo libro a crear
+     * @param idempotencyKey la clave que identifica la petición, o null para crear sin clave
+     * @return objeto BookDTO que representa el libro creado
+     */
+	BookDTO createNewBook(BookDTO bookDTO, String idempotencyKey);
+
 	/**
      * Obtiene un libro de la biblioteca por su ISBN.
      * 
@@ -39,6 +53,23 @@ public interface LibraryService {
      */
 	List<BookDTO> getAllBooks();
 
+	/**
+     * Obtiene una página del catálogo usando paginación por clave (keyset) sobre el ISBN.
+     *
+     * @param after el último ISBN de la página anterior, o null para empezar desde el principio
+     * @param size el número máximo de libros de la página
+     * @return objeto BookPageDTO con los libros y el token para pedir la siguiente página
+     */
+	BookPageDTO getBooksPage(Long after, int size);
+
+	/**
+     * Recorre todo el catálogo en orden de ISBN entregando cada libro al consumidor
+     * según se lee de la base de datos, sin construir la lista completa en memoria.
+     *
+     * @param action consumidor que recibe cada libro
+     */
+	void streamAllBooks(Consumer<BookDTO> action);
+
 	/**
      * Busca libros en la biblioteca por su título.
      * 
@@ -55,6 +86,34 @@ public interface LibraryService {
      */
 	List<BookDTO> searchBooksByAuthor(String author);
 
+	/**
+     * Busca libros que cumplan a la vez todos los criterios indicados
+     * (título, autor, ISBN y disponibilidad; los nulos no se aplican).
+     * 
+     * @param criteria los criterios de búsqueda
+     * @return lista de objetos BookDTO que cumplen todos los criterios, ordenados por ISBN
+     */
+	List<BookDTO> searchBooks(BookSearchCriteria criteria);
+
+	/**
+     * Busca libros por texto libre sobre el título y el autor, ordenados por relevancia.
+     * Tolera tildes, mayúsculas y pequeñas erratas en las palabras de la consulta.
+     *
+     * @param query el texto de la consulta
+     * @param limit el número máximo de libros a devolver
+     * @return lista de objetos BookDTO, del más al menos relevante
+     */
+	List<BookDTO> searchBooksRanked(String query, int limit);
+
+	/**
+     * Sugiere los títulos y autores más populares que empiezan por el texto escrito.
+     *
+     * @param prefix el comienzo del título o autor
+     * @param limit el número máximo de sugerencias
+     * @return lista de sugerencias, de más a menos popular
+     */
+	List<SuggestionDTO> suggestBooks(String prefix, int limit);
+
 	/**
      * Elimina un libro de la biblioteca por su ISBN.
      * 
@@ -0,0 +1,42 @@
+package com.hillogy.LibraryManagement.service;
+
+import com.hillogy.LibraryManagement.dto.LoanPageDTO;
+
+/**
+ * Interfaz para el servicio de préstamos.
+ * Define las consultas de préstamos que usa el mostrador de circulación, todas paginadas por clave.
+ * 
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public interface LoanService {
+
+    /**
+     * Recupera una página de los préstamos abiertos de un usuario.
+     * 
+     * @param borrowerId el identificador del usuario
+     * @param after el id del último préstamo de la página anterior, o null para la primera página
+     * @param size el número máximo de préstamos de la página
+     * @return la página de préstamos con el token de la siguiente
+     */
+    LoanPageDTO getActiveLoans(Long borrowerId, Long after, int size);
+
+    /**
+     * Recupera una página de los préstamos vencidos y no devueltos, del más atrasado al menos atrasado.
+     * 
+     * @param after el id del último préstamo de la página anterior, o null para la primera página
+     * @param size el número máximo de préstamos de la página
+     * @return la página de préstamos con el token de la siguiente
+     */
+    LoanPageDTO getOverdueLoans(Long after, int size);
+
+    /**
+     * Recupera una página del historial de préstamos de un libro, del más antiguo al más reciente.
+     * 
+     * @param iSBN el ISBN del libro
+     * @param after el id del último préstamo de la página anterior, o null para la primera página
+     * @param size el número máximo de préstamos de la página
+     * @return la página de préstamos con el token de la siguiente
+     */
+    LoanPageDTO getLoanHistory(Long iSBN, Long after, int size);
+}
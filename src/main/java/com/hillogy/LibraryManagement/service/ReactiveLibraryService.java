@@ -0,0 +1,49 @@
+package com.hillogy.LibraryManagement.service;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.exception.BookNotFoundException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Interfaz para la edición reactiva del servicio de la biblioteca.
+ * Refleja las consultas de {@link LibraryService}, pero devuelve flujos que no bloquean
+ * ningún hilo mientras se leen y que sólo producen los libros que pide el suscriptor.
+ * 
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public interface ReactiveLibraryService {
+
+    /**
+     * Recupera todos los libros de la biblioteca ordenados por ISBN.
+     * 
+     * @return Flux de objetos BookDTO que representan todos los libros
+     */
+    Flux<BookDTO> getAllBooks();
+
+    /**
+     * Obtiene un libro por su ISBN.
+     * 
+     * @param iSBN el ISBN del libro a buscar
+     * @return Mono con el libro encontrado, o que termina con {@link BookNotFoundException} si no existe
+     */
+    Mono<BookDTO> getBookByISBN(Long iSBN);
+
+    /**
+     * Busca libros por título.
+     * 
+     * @param title el título del libro a buscar
+     * @return Flux de objetos BookDTO que coinciden con el título especificado
+     */
+    Flux<BookDTO> searchBooksByTitle(String title);
+
+    /**
+     * Busca libros por autor.
+     * 
+     * @param author el autor del libro a buscar
+     * @return Flux de objetos BookDTO que coinciden con el autor especificado
+     */
+    Flux<BookDTO> searchBooksByAuthor(String author);
+}
@@ -0,0 +1,47 @@
+package com.hillogy.LibraryManagement.service;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.exception.BookAlreadyBorrowedException;
+import com.hillogy.LibraryManagement.exception.BookNotFoundException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Interfaz para la edición reactiva del servicio del usuario.
+ * Refleja las operaciones de {@link UserService}; los errores se señalan en el propio flujo.
+ * El préstamo y la devolución se resuelven con el propio {@link UserService}, que es bloqueante, fuera
+ * de los hilos del servidor.
+ * 
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public interface ReactiveUserService {
+
+    /**
+     * Busca libros disponibles para préstamo.
+     * 
+     * @param available indica si se desean buscar libros disponibles o no
+     * @return Flux de objetos BookDTO con la disponibilidad indicada
+     */
+    Flux<BookDTO> searchAvailableBooks(boolean available);
+
+    /**
+     * Realiza la orden de un libro para préstamo.
+     * 
+     * @param iSBN el ISBN del libro a ordenar
+     * @param borrowerId el identificador de quien se lleva el libro, o null si no se conoce
+     * @return Mono con el libro ordenado, o que termina con {@link BookNotFoundException}
+     *         si el libro no existe o con {@link BookAlreadyBorrowedException} si ya está prestado
+     */
+    Mono<BookDTO> orderBook(Long iSBN, Long borrowerId);
+
+    /**
+     * Devuelve un libro que ha sido prestado.
+     * 
+     * @param iSBN el ISBN del libro a devolver
+     * @param borrowerId el identificador de quien devuelve el libro, o null si no se conoce
+     * @return Mono con el libro devuelto, o que termina con {@link BookNotFoundException} si no existe
+     */
+    Mono<BookDTO> returnBook(Long iSBN, Long borrowerId);
+}
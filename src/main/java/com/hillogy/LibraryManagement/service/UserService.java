@@ -1,8 +1,11 @@
 package com.hillogy.LibraryManagement.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.dto.BookOperationResultDTO;
+import com.hillogy.LibraryManagement.exception.BookAlreadyBorrowedException;
 import com.hillogy.LibraryManagement.exception.BookNotFoundException;
 
 /**
@@ -21,22 +24,68 @@ public interface UserService {
      * @return lista de objetos BookDTO que representan los libros disponibles
      */
     List<BookDTO> searchAvailableBooks(boolean available);
+
+    /**
+     * Recorre en orden de ISBN los libros según su disponibilidad, entregando cada libro
+     * al consumidor sin construir la lista completa en memoria.
+     * 
+     * @param available indica si se desean recorrer los libros disponibles o no
+     * @param action consumidor que recibe cada libro
+     */
+    void streamAvailableBooks(boolean available, Consumer<BookDTO> action);
+
+    /**
+     * Indica si un libro está disponible para préstamo.
+     * 
+     * @param iSBN el ISBN del libro a consultar
+     * @return true si el libro no está prestado
+     * @throws BookNotFoundException si el libro no se encuentra en la biblioteca
+     */
+    boolean isBookAvailable(Long iSBN) throws BookNotFoundException;
+
+    /**
+     * Cuenta los libros disponibles para préstamo.
+     * 
+     * @return el número de libros disponibles
+     */
+    long countAvailableBooks();
     
     /**
-     * Realiza la orden de un libro para préstamo.
+     * Realiza la orden de un ejemplar de un libro para préstamo y abre el préstamo correspondiente.
      * 
      * @param iSBN el ISBN del libro a ordenar
+     * @param borrowerId el identificador de quien se lleva el libro, o null si no se conoce
      * @return objeto BookDTO que representa el libro ordenado
      * @throws BookNotFoundException si el libro no se encuentra en la biblioteca
+     * @throws BookAlreadyBorrowedException si no queda ningún ejemplar del libro disponible
      */
-    BookDTO orderBook(Long iSBN) throws BookNotFoundException;
+    BookDTO orderBook(Long iSBN, Long borrowerId) throws BookNotFoundException;
     
     /**
-     * Devuelve un libro que ha sido prestado.
+     * Devuelve un ejemplar prestado de un libro y cierra el préstamo de quien lo devuelve.
      * 
      * @param iSBN el ISBN del libro a devolver
+     * @param borrowerId el identificador de quien devuelve el libro, o null si no se conoce
      * @return objeto BookDTO que representa el libro devuelto
      * @throws BookNotFoundException si el libro no se encuentra en la biblioteca
      */
-    BookDTO returnBook(Long iSBN) throws BookNotFoundException;
+    BookDTO returnBook(Long iSBN, Long borrowerId) throws BookNotFoundException;
+
+    /**
+     * Realiza la orden de varios libros en una sola petición.
+     * 
+     * @param iSBNs los ISBN de los libros a ordenar
+     * @param borrowerId el identificador de quien se lleva los libros, o null si no se conoce
+     * @return lista con el resultado de cada ISBN, en el mismo orden de la petición
+     */
+    List<BookOperationResultDTO> orderBooks(List<Long> iSBNs, Long borrowerId);
+
+    /**
+     * Devuelve varios libros prestados en una sola petición.
+     * 
+     * @param iSBNs los ISBN de los libros a devolver
+     * @param borrowerId el identificador de quien devuelve los libros, o null si no se conoce
+     * @return lista con el resultado de cada ISBN, en el mismo orden de la petición
+     */
+    List<BookOperationResultDTO> returnBooks(List<Long> iSBNs, Long borrowerId);
 }
@@ -0,0 +1,301 @@
+package com.hillogy.LibraryManagement.service.implementation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.dto.ImportResultDTO;
+import com.hillogy.LibraryManagement.event.BookEvent;
+import com.hillogy.LibraryManagement.index.BookDuplicateFilter;
+import com.hillogy.LibraryManagement.index.BookIndexSynchronizer;
+import com.hillogy.LibraryManagement.mapper.BookMapper;
+import com.hillogy.LibraryManagement.model.Book;
+import com.hillogy.LibraryManagement.repository.BookRepository;
+import com.hillogy.LibraryManagement.service.BookImportService;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Implementación del servicio de importación masiva de libros.
+ * Lee la entrada línea a línea y la procesa por bloques de tamaño configurable
+ * (library.import.chunk-size). Cada bloque se deduplica en memoria, se comprueba contra
+ * la base de datos con una sola consulta (sólo para las filas que el filtro de duplicados no
+ * descarta, y ninguna si las descarta todas) y se inserta en su propia transacción usando
+ * el batching JDBC de Hibernate, de modo que la memoria usada no depende del tamaño de la entrada.
+ * Si el índice único de título y autor rechaza el bloque, se reintenta fila a fila.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@Service
+public class BookImportServiceImpl implements BookImportService {
+
+	/** Índice único de título y autor (migración V2). */
+	private static final String TITLE_AUTHOR_CONSTRAINT = "uk_tb_books_title_author";
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private BookMapper bookMapper;
+
+	@Autowired
+	private BookDuplicateFilter bookDuplicateFilter;
+
+	@Autowired
+	private BookIndexSynchronizer bookIndexSynchronizer;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Value("${library.import.chunk-size:1000}")
+	private int chunkSize;
+
+	/**
+	 * Importa los libros del flujo de entrada por bloques.
+	 *
+	 * @param input flujo con el contenido a importar, codificado en UTF-8
+	 * @param format formato del contenido
+	 * @return objeto ImportResultDTO con el número de filas aceptadas y rechazadas
+	 * @throws IOException si falla la lectura del flujo
+	 */
+	@Override
+	public ImportResultDTO importBooks(InputStream input, Format format) throws IOException {
+		ImportResultDTO result = new ImportResultDTO();
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		List<Row> chunk = new ArrayList<>(chunkSize);
+		BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+		String line;
+		long lineNumber = 0;
+		while ((line = reader.readLine()) != null) {
+			lineNumber++;
+			if (line.isBlank() || (format == Format.CSV && lineNumber == 1 && isCsvHeader(line))) {
+				continue;
+			}
+			try {
+				BookDTO book = format == Format.CSV ? parseCsv(line) : parseJson(line);
+				if (isBlank(book.getTitle()) || isBlank(book.getAuthor())) {
+					result.reject(lineNumber, "el título y el autor son obligatorios");
+					continue;
+				}
+				if (book.getCopies() < 1) {
+					result.reject(lineNumber, "el número de ejemplares debe ser al menos 1");
+					continue;
+				}
+				chunk.add(new Row(lineNumber, book));
+			} catch (IllegalArgumentException | JsonProcessingException ex) {
+				result.reject(lineNumber, "fila con formato inválido");
+				continue;
+			}
+			if (chunk.size() >= chunkSize) {
+				importChunk(chunk, result, transactionTemplate);
+				chunk.clear();
+			}
+		}
+		if (!chunk.isEmpty()) {
+			importChunk(chunk, result, transactionTemplate);
+		}
+		return result;
+	}
+
+	/**
+	 * Deduplica e inserta un bloque de filas en una única transacción.
+	 *
+	 * @param chunk las filas del bloque
+	 * @param result el resultado acumulado de la importación
+	 * @param transactionTemplate plantilla con la que abrir la transacción del bloque
+	 */
+	private void importChunk(List<Row> chunk, ImportResultDTO result, TransactionTemplate transactionTemplate) {
+		boolean filtered = bookIndexSynchronizer.isReady();
+		List<Row> candidates = !filtered ? chunk : chunk.stream()
+				.filter(row -> bookDuplicateFilter.mightContain(row.book.getTitle(), row.book.getAuthor()))
+				.collect(Collectors.toList());
+		Set<String> titles = candidates.stream().map(row -> row.book.getTitle()).collect(Collectors.toSet());
+		Set<String> existing = titles.isEmpty() ? Set.of() : bookRepository.findTitleAndAuthorByTitleIn(titles).stream()
+				.map(pair -> key((String) pair[0], (String) pair[1]))
+				.collect(Collectors.toSet());
+		if (filtered) {
+			for (Row row : candidates) {
+				bookDuplicateFilter.confirm(existing.contains(key(row.book.getTitle(), row.book.getAuthor())));
+			}
+		}
+		Set<String> seen = new HashSet<>(existing);
+
+		List<Row> accepted = new ArrayList<>(chunk.size());
+		for (Row row : chunk) {
+			if (!seen.add(key(row.book.getTitle(), row.book.getAuthor()))) {
+				result.reject(row.line, "el libro ya existe");
+				continue;
+			}
+			accepted.add(row);
+		}
+		if (accepted.isEmpty()) {
+			return;
+		}
+
+		try {
+			transactionTemplate.executeWithoutResult(status -> insert(accepted));
+			result.accept(accepted.size());
+		} catch (DataIntegrityViolationException ex) {
+			// Otra alta concurrente ha insertado alguno de los libros, o alguna fila no cabe en tb_books:
+			// se reintenta fila a fila
+			for (Row row : accepted) {
+				try {
+					transactionTemplate.executeWithoutResult(status -> insert(List.of(row)));
+					result.accept(1);
+				} catch (DataIntegrityViolationException rowEx) {
+					result.reject(row.line, isDuplicate(rowEx) ? "el libro ya existe"
+							: "la base de datos rechaza la fila (por ejemplo, un título o autor de más de 255 caracteres)");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Inserta las filas en la transacción en curso y publica sus eventos de creación,
+	 * que se aplican a los índices sólo si la transacción se confirma.
+	 *
+	 * @param rows las filas a insertar
+	 */
+	private void insert(List<Row> rows) {
+		List<Book> books = rows.stream()
+				.map(row -> bookMapper.toEntity(row.book))
+				.collect(Collectors.toList());
+		// El repositorio traduce los errores del flush a DataIntegrityViolationException
+		bookRepository.saveAllAndFlush(books);
+		entityManager.clear();
+		for (Book book : books) {
+			eventPublisher.publishEvent(BookEvent.created(bookMapper.toDTO(book)));
+		}
+	}
+
+	private BookDTO parseJson(String line) throws JsonProcessingException {
+		JsonNode node = objectMapper.readTree(line);
+		if (!node.isObject()) {
+			throw new IllegalArgumentException("Se esperaba un objeto JSON");
+		}
+		BookDTO book = new BookDTO(null, node.path("title").asText(null), node.path("author").asText(null),
+				node.path("available").asBoolean(true));
+		book.setCopies(node.path("copies").asInt(1));
+		return book;
+	}
+
+	private BookDTO parseCsv(String line) {
+		List<String> fields = splitCsv(line);
+		if (fields.size() < 2 || fields.size() > 4) {
+			throw new IllegalArgumentException("Número de columnas inválido");
+		}
+		boolean available = fields.size() < 3 || fields.get(2).isBlank() || Boolean.parseBoolean(fields.get(2).trim());
+		BookDTO book = new BookDTO(null, fields.get(0).trim(), fields.get(1).trim(), available);
+		if (fields.size() == 4 && !fields.get(3).isBlank()) {
+			book.setCopies(Integer.parseInt(fields.get(3).trim()));
+		}
+		return book;
+	}
+
+	/**
+	 * Separa una línea CSV en campos, admitiendo campos entre comillas dobles
+	 * con comas en su interior y comillas escapadas como {@code ""}.
+	 */
+	private static List<String> splitCsv(String line) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					field.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					field.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		if (quoted) {
+			throw new IllegalArgumentException("Comillas sin cerrar");
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+
+	private static boolean isCsvHeader(String line) {
+		return line.trim().toLowerCase(Locale.ROOT).startsWith("title,");
+	}
+
+	private static boolean isBlank(String value) {
+		return value == null || value.isBlank();
+	}
+
+	/**
+	 * Indica si la violación de integridad se debe al índice único de título y autor, y no a otra
+	 * restricción de tb_books.
+	 */
+	private static boolean isDuplicate(DataIntegrityViolationException ex) {
+		for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+			if (cause instanceof ConstraintViolationException violation) {
+				String constraint = violation.getConstraintName();
+				return constraint != null && constraint.toLowerCase(Locale.ROOT).contains(TITLE_AUTHOR_CONSTRAINT);
+			}
+		}
+		return false;
+	}
+
+	private static String key(String title, String author) {
+		return title + '\u0000' + author;
+	}
+
+	/**
+	 * Fila leída de la entrada junto con su número de línea.
+	 */
+	private static final class Row {
+
+		private final long line;
+		private final BookDTO book;
+
+		private Row(long line, BookDTO book) {
+			this.line = line;
+			this.book = book;
+		}
+	}
+}
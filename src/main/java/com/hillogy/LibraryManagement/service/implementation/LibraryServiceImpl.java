@@ -1,22 +1,55 @@
 package com.hillogy.LibraryManagement.service.implementation;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.hillogy.LibraryManagement.configuration.CacheConfig;
 import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.dto.BookPageDTO;
+import com.hillogy.LibraryManagement.dto.BookSearchCriteria;
+import com.hillogy.LibraryManagement.dto.SuggestionDTO;
+import com.hillogy.LibraryManagement.event.BookEvent;
 import com.hillogy.LibraryManagement.exception.BookAlreadyBorrowedException;
 import com.hillogy.LibraryManagement.exception.BookAlreadyExistsException;
 import com.hillogy.LibraryManagement.exception.BookNotFoundException;
+import com.hillogy.LibraryManagement.exception.IdempotencyKeyReusedException;
+import com.hillogy.LibraryManagement.index.BookDuplicateFilter;
+import com.hillogy.LibraryManagement.index.BookIndexSynchronizer;
+import com.hillogy.LibraryManagement.index.BookRankingIndex;
+import com.hillogy.LibraryManagement.index.BookSearchIndex;
+import com.hillogy.LibraryManagement.index.BookSuggestionIndex;
+import com.hillogy.LibraryManagement.loan.LoanWriter;
+import com.hillogy.LibraryManagement.mapper.BookMapper;
 import com.hillogy.LibraryManagement.model.Book;
 import com.hillogy.LibraryManagement.repository.BookRepository;
+import com.hillogy.LibraryManagement.repository.BookSpecifications;
 import com.hillogy.LibraryManagement.service.LibraryService;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * Implementación del servicio de la biblioteca.
  * Proporciona métodos para realizar operaciones relacionadas con los libros.
+ * Las lecturas se ejecutan en transacciones de sólo lectura y obtienen los BookDTO
+ * directamente del repositorio, sin cargar entidades en el contexto de persistencia.
  * 
  * @author oscaralejandroflorez@gmail.com
  * @version 1.0
@@ -27,19 +60,113 @@ public class LibraryServiceImpl implements LibraryService {
 	@Autowired
 	private BookRepository bookRepository;
 
+	@Autowired
+	private BookSearchIndex bookSearchIndex;
+
+	@Autowired
+	private BookRankingIndex bookRankingIndex;
+
+	@Autowired
+	private BookSuggestionIndex bookSuggestionIndex;
+
+	@Autowired
+	private BookIndexSynchronizer bookIndexSynchronizer;
+
+	@Autowired
+	private BookDuplicateFilter bookDuplicateFilter;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private BookMapper bookMapper;
+
+	@Autowired
+	private LoanWriter loanWriter;
+
+	@Value("${library.idempotency.ttl:24h}")
+	private Duration idempotencyTtl = Duration.ofHours(24);
+
+	@Value("${library.idempotency.max-keys:100000}")
+	private long idempotencyMaxKeys = 100_000;
+
+	@Value("${library.stream.page-size:500}")
+	private int streamPageSize = 500;
+
+	/** Altas hechas con clave de idempotencia; el futuro se completa cuando termina el alta. */
+	private Cache<String, CompletableFuture<IdempotentCreate>> idempotentCreates;
+
+	/**
+	 * Crea el registro de claves de idempotencia de las altas.
+	 */
+	@PostConstruct
+	public void init() {
+		idempotentCreates = Caffeine.newBuilder()
+				.expireAfterWrite(idempotencyTtl)
+				.maximumSize(idempotencyMaxKeys)
+				.build();
+	}
+
 	/**
 	 * Recupera todos los libros de la base de datos.
 	 * 
 	 * @return lista de objetos BookDTO que representan los libros
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<BookDTO> getAllBooks() {
-		List<Book> books = bookRepository.findAll();
-		return books.stream().map(this::convertToDTO).collect(Collectors.toList());
+		return bookRepository.findAllBooks();
+	}
+
+	/**
+	 * Recupera una página del catálogo con paginación por clave sobre el ISBN.
+	 * Se pide una fila de más para saber si existe una página siguiente.
+	 * 
+	 * @param after el último ISBN de la página anterior, o null para la primera página
+	 * @param size el número máximo de libros de la página
+	 * @return objeto BookPageDTO con los libros y el token de la siguiente página
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public BookPageDTO getBooksPage(Long after, int size) {
+		long from = after != null ? after : Long.MIN_VALUE;
+		List<BookDTO> books = bookRepository.findNextPage(from, PageRequest.of(0, size + 1));
+		boolean hasNext = books.size() > size;
+		List<BookDTO> content = hasNext ? books.subList(0, size) : books;
+		Long nextAfter = hasNext ? content.get(content.size() - 1).getISBN() : null;
+		return new BookPageDTO(content, nextAfter);
+	}
+
+	/**
+	 * Recorre el catálogo completo en páginas por clave sobre el ISBN.
+	 * Cada página se lee en su propia transacción corta y se entrega al consumidor después, sin
+	 * ninguna conexión ocupada: un cliente lento que descarga el catálogo no retiene una conexión
+	 * del pool mientras dura la descarga. La memoria usada sólo depende del tamaño de página
+	 * ({@code library.stream.page-size}). Como cada página es una lectura distinta, un libro que
+	 * cambia durante el recorrido se entrega con los datos de la página en la que se lee, pero
+	 * ningún libro se repite ni se salta.
+	 * 
+	 * @param action consumidor que recibe cada libro convertido a BookDTO
+	 */
+	@Override
+	public void streamAllBooks(Consumer<BookDTO> action) {
+		long after = Long.MIN_VALUE;
+		List<BookDTO> page;
+		do {
+			page = bookRepository.findNextPage(after, PageRequest.of(0, streamPageSize));
+			page.forEach(action);
+			if (!page.isEmpty()) {
+				after = page.get(page.size() - 1).getISBN();
+			}
+		} while (page.size() == streamPageSize);
 	}
 
 	/**
 	 * Crea un nuevo libro en la biblioteca.
+	 * La unicidad de título y autor la garantiza el índice único de tb_books, por lo que
+	 * dos altas simultáneas del mismo libro no pueden insertarse ambas. Antes, el filtro de
+	 * duplicados descarta sin consultar la base de datos los libros que seguro que no existen;
+	 * sólo los posibles duplicados se comprueban con una consulta, que evita intentar la inserción.
 	 * 
 	 * @param bookDTO objeto BookDTO que representa el libro a crear
 	 * @return objeto BookDTO que representa el libro creado
@@ -47,32 +174,83 @@ public class LibraryServiceImpl implements LibraryService {
 	 */
 	@Override
 	public BookDTO createNewBook(BookDTO bookDTO) throws BookAlreadyExistsException {
-		// Verificar si el libro ya existe en la base de datos
-		if (bookRepository.existsByTitleAndAuthor(bookDTO.getTitle(), bookDTO.getAuthor())) {
+		if (bookIndexSynchronizer.isReady()
+				&& bookDuplicateFilter.isDuplicate(bookDTO.getTitle(), bookDTO.getAuthor(), bookRepository::existsByTitleAndAuthor)) {
 			throw new BookAlreadyExistsException("El libro ya existe en la base de datos");
 		}
+		Book book = bookMapper.toEntity(bookDTO);
+		Book savedBook;
+		try {
+			savedBook = bookRepository.saveAndFlush(book);
+		} catch (DataIntegrityViolationException ex) {
+			throw new BookAlreadyExistsException("El libro ya existe en la base de datos", ex);
+		}
+		BookDTO savedBookDTO = bookMapper.toDTO(savedBook);
+		eventPublisher.publishEvent(BookEvent.created(savedBookDTO));
+		return savedBookDTO;
+	}
 
-		// Si el libro no existe, se crea y se guarda en el repositorio
-		Book book = convertToEntity(bookDTO);
-		Book savedBook = bookRepository.save(book);
-		return convertToDTO(savedBook);
+	/**
+	 * Crea un nuevo libro en la biblioteca de forma idempotente.
+	 * La primera petición con una clave crea el libro; las repeticiones con la misma clave, incluso
+	 * simultáneas, esperan a que termine y devuelven el mismo libro. Un alta fallida no consume la
+	 * clave. Las claves se recuerdan durante {@code library.idempotency.ttl} y no sobreviven a un reinicio.
+	 * 
+	 * @param bookDTO objeto BookDTO que representa el libro a crear
+	 * @param idempotencyKey la clave que identifica la petición, o null para crear sin clave
+	 * @return objeto BookDTO que representa el libro creado
+	 * @throws BookAlreadyExistsException si el libro ya existe en la base de datos
+	 * @throws IdempotencyKeyReusedException si la clave ya se usó para crear otro libro
+	 */
+	@Override
+	public BookDTO createNewBook(BookDTO bookDTO, String idempotencyKey) {
+		if (idempotencyKey == null || idempotencyKey.isBlank()) {
+			return createNewBook(bookDTO);
+		}
+		CompletableFuture<IdempotentCreate> created = new CompletableFuture<>();
+		CompletableFuture<IdempotentCreate> previous = idempotentCreates.asMap().putIfAbsent(idempotencyKey, created);
+		if (previous == null) {
+			try {
+				created.complete(new IdempotentCreate(bookDTO, createNewBook(bookDTO)));
+			} catch (RuntimeException ex) {
+				idempotentCreates.asMap().remove(idempotencyKey, created);
+				created.completeExceptionally(ex);
+				throw ex;
+			}
+			return created.join().book;
+		}
+		IdempotentCreate replay;
+		try {
+			replay = previous.join();
+		} catch (CompletionException ex) {
+			throw (RuntimeException) ex.getCause();
+		}
+		if (!replay.matches(bookDTO)) {
+			throw new IdempotencyKeyReusedException("La clave de idempotencia ya se usó para dar de alta otro libro");
+		}
+		return replay.book;
 	}
 
 	/**
 	 * Recupera un libro por su ISBN.
+	 * El resultado se guarda en la caché de libros; las escrituras la actualizan
+	 * a través de BookCacheSynchronizer, por lo que nunca devuelve un estado anterior a un cambio confirmado.
 	 * 
 	 * @param iSBN el ISBN del libro a recuperar
 	 * @return objeto BookDTO que representa el libro encontrado
 	 * @throws BookNotFoundException si el libro no se encuentra en la base de datos
 	 */
 	@Override
+	@Cacheable(CacheConfig.BOOKS_CACHE)
+	@Transactional(readOnly = true)
 	public BookDTO getBookByISBN(Long iSBN) throws BookNotFoundException {
-		Book book = bookRepository.findById(iSBN).orElseThrow(() -> new BookNotFoundException("Libro no encontrado"));
-		return convertToDTO(book);
+		return bookRepository.findBookByISBN(iSBN).orElseThrow(() -> new BookNotFoundException("Libro no encontrado"));
 	}
 
 	/**
 	 * Elimina un libro de la biblioteca por su ISBN.
+	 * Antes se escriben los préstamos pendientes del registro, para que la comprobación de
+	 * disponibilidad vea también los préstamos aceptados y aún no escritos en tb_books.
 	 * 
 	 * @param iSBN el ISBN del libro a eliminar
 	 * @throws BookNotFoundException si el libro no se encuentra en la base de datos
@@ -80,65 +258,152 @@ public class LibraryServiceImpl implements LibraryService {
 	 */
 	@Override
 	public void deleteBook(Long iSBN) throws BookNotFoundException {
+		loanWriter.flush();
 		Book book = bookRepository.findById(iSBN).orElseThrow(() -> new BookNotFoundException("Libro no encontrado"));
-		if (!book.isAvailable()) {
-			throw new BookAlreadyBorrowedException("No se puede borrar el libro porque está prestado.");
+		if (book.getAvailableCopies() < book.getCopies()) {
+			throw new BookAlreadyBorrowedException("No se puede borrar el libro porque tiene ejemplares prestados.");
 		}
 		bookRepository.delete(book);
+		eventPublisher.publishEvent(BookEvent.deleted(bookMapper.toDTO(book)));
 	}
 
 	/**
 	 * Busca libros por su título.
+	 * Se resuelve con el índice de trigramas en memoria; mientras se construye
+	 * al arrancar, la búsqueda se delega en la base de datos.
 	 * 
 	 * @param title el título del libro a buscar
 	 * @return lista de objetos BookDTO que representan los libros encontrados
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<BookDTO> searchBooksByTitle(String title) {
-		List<Book> books = bookRepository.findByTitleContainingIgnoreCase(title);
-		return books.stream().map(this::convertToDTO).collect(Collectors.toList());
+		if (bookIndexSynchronizer.isReady()) {
+			return bookSearchIndex.searchByTitle(title);
+		}
+		return bookRepository.findByTitleContainingIgnoreCase(title);
 	}
 
 	/**
 	 * Busca libros por su autor.
+	 * Se resuelve con el índice de trigramas en memoria; mientras se construye
+	 * al arrancar, la búsqueda se delega en la base de datos.
 	 * 
 	 * @param author el autor del libro a buscar
 	 * @return lista de objetos BookDTO que representan los libros encontrados
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<BookDTO> searchBooksByAuthor(String author) {
-		List<Book> books = bookRepository.findByAuthorContainingIgnoreCase(author);
-		return books.stream().map(this::convertToDTO).collect(Collectors.toList());
+		if (bookIndexSynchronizer.isReady()) {
+			return bookSearchIndex.searchByAuthor(author);
+		}
+		return bookRepository.findByAuthorContainingIgnoreCase(author);
+	}
+
+	/**
+	 * Busca libros que cumplan todos los criterios, eligiendo el plan más barato:
+	 * <ul>
+	 * <li>con ISBN, o sin índice disponible, una única consulta en la base de datos con todos los
+	 * predicados (ver BookSpecifications);</li>
+	 * <li>con título o autor y el índice de trigramas listo, se buscan en el índice los candidatos del
+	 * criterio de texto más selectivo y se filtran en memoria con el resto de criterios;</li>
+	 * <li>sólo con disponibilidad, la consulta usa el índice idx_tb_books_available.</li>
+	 * </ul>
+	 * 
+	 * @param criteria los criterios de búsqueda
+	 * @return lista de objetos BookDTO que cumplen todos los criterios, ordenados por ISBN
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<BookDTO> searchBooks(BookSearchCriteria criteria) {
+		List<BookDTO> candidates = criteria.getISBN() == null ? indexCandidates(criteria) : null;
+		if (candidates == null) {
+			return bookRepository.findAllBooks(BookSpecifications.matching(criteria));
+		}
+		return candidates.stream().filter(criteria::matches).collect(Collectors.toList());
 	}
 
 	/**
-	 * Convierte un objeto Book en un objeto BookDTO.
+	 * Busca libros por relevancia con el índice de palabras en memoria (ver BookRankingIndex).
+	 * Mientras los índices se construyen al arrancar, se devuelven sin ordenar por relevancia
+	 * los libros cuyo título o autor contienen el texto completo de la consulta.
 	 * 
-	 * @param book objeto Book a convertir
-	 * @return objeto BookDTO convertido
+	 * @param query el texto de la consulta
+	 * @param limit el número máximo de libros a devolver
+	 * @return lista de objetos BookDTO, del más al menos relevante
 	 */
-	private BookDTO convertToDTO(Book book) {
-		BookDTO bookDTO = new BookDTO();
-		bookDTO.setISBN(book.getiSBN());
-		bookDTO.setTitle(book.getTitle());
-		bookDTO.setAuthor(book.getAuthor());
-		bookDTO.setAvailable(book.isAvailable());
-		return bookDTO;
+	@Override
+	@Transactional(readOnly = true)
+	public List<BookDTO> searchBooksRanked(String query, int limit) {
+		if (!bookIndexSynchronizer.isReady()) {
+			List<BookDTO> books = bookRepository.findAllBooks(
+					BookSpecifications.titleContains(query).or(BookSpecifications.authorContains(query)));
+			return books.size() > limit ? books.subList(0, limit) : books;
+		}
+		List<BookDTO> books = new ArrayList<>(limit);
+		for (Long iSBN : bookRankingIndex.search(query, limit)) {
+			BookDTO book = bookSearchIndex.get(iSBN);
+			// Un libro borrado entre la búsqueda y la lectura simplemente no se devuelve
+			if (book != null) {
+				books.add(book);
+			}
+		}
+		return books;
 	}
 
 	/**
-	 * Convierte un objeto BookDTO en un objeto Book.
+	 * Sugiere títulos y autores con el árbol de prefijos en memoria (ver BookSuggestionIndex).
+	 * Las sugerencias se piden en cada pulsación de tecla, así que mientras el índice se construye
+	 * al arrancar no se recorre la base de datos: simplemente no hay sugerencias.
 	 * 
-	 * @param bookDTO objeto BookDTO a convertir
-	 * @return objeto Book convertido
+	 * @param prefix el comienzo del título o autor
+	 * @param limit el número máximo de sugerencias
+	 * @return lista de sugerencias, de más a menos popular
+	 */
+	@Override
+	public List<SuggestionDTO> suggestBooks(String prefix, int limit) {
+		if (!bookIndexSynchronizer.isReady()) {
+			return new ArrayList<>();
+		}
+		return bookSuggestionIndex.suggest(prefix, limit);
+	}
+
+	/**
+	 * Obtiene del índice de trigramas los candidatos del criterio de texto más selectivo.
 	 * 
+	 * @param criteria los criterios de búsqueda
+	 * @return los candidatos, o null si el índice no puede resolver la búsqueda
+	 */
+	private List<BookDTO> indexCandidates(BookSearchCriteria criteria) {
+		String title = criteria.getTitle();
+		String author = criteria.getAuthor();
+		if ((title == null && author == null) || !bookIndexSynchronizer.isReady()) {
+			return null;
+		}
+		if (author == null
+				|| (title != null && bookSearchIndex.estimateTitleMatches(title) <= bookSearchIndex.estimateAuthorMatches(author))) {
+			return bookSearchIndex.searchByTitle(title);
+		}
+		return bookSearchIndex.searchByAuthor(author);
+	}
+
+	/**
+	 * Alta hecha con una clave de idempotencia: la petición original y el libro creado.
 	 */
-	private Book convertToEntity(BookDTO bookDTO) {
-		Book book = new Book();
-		book.setiSBN(bookDTO.getISBN());
-		book.setTitle(bookDTO.getTitle());
-		book.setAuthor(bookDTO.getAuthor());
-		book.setAvailable(bookDTO.isAvailable());
-		return book;
+	private static final class IdempotentCreate {
+
+		private final BookDTO request;
+		private final BookDTO book;
+
+		private IdempotentCreate(BookDTO request, BookDTO book) {
+			this.request = request;
+			this.book = book;
+		}
+
+		private boolean matches(BookDTO other) {
+			return Objects.equals(request.getTitle(), other.getTitle()) && Objects.equals(request.getAuthor(), other.getAuthor())
+					&& request.getCopies() == other.getCopies() && request.isAvailable() == other.isAvailable();
+		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package com.hillogy.LibraryManagement.service.implementation;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hillogy.LibraryManagement.dto.LoanDTO;
+import com.hillogy.LibraryManagement.dto.LoanPageDTO;
+import com.hillogy.LibraryManagement.repository.LoanRepository;
+import com.hillogy.LibraryManagement.service.LoanService;
+
+/**
+ * Implementación del servicio de préstamos.
+ * Las consultas leen tb_loans, que con la escritura diferida de préstamos puede ir por detrás
+ * de los últimos préstamos aceptados lo que tarda el escritor en aplicar su lote
+ * (library.loans.flush-interval).
+ * 
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@Service
+public class LoanServiceImpl implements LoanService {
+
+	@Autowired
+	private LoanRepository loanRepository;
+
+	/**
+	 * Recupera una página de los préstamos abiertos de un usuario.
+	 * Se pide una fila de más para saber si existe una página siguiente.
+	 * 
+	 * @param borrowerId el identificador del usuario
+	 * @param after el id del último préstamo de la página anterior, o null para la primera página
+	 * @param size el número máximo de préstamos de la página
+	 * @return la página de préstamos con el token de la siguiente
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public LoanPageDTO getActiveLoans(Long borrowerId, Long after, int size) {
+		return toPage(loanRepository.findActiveByBorrower(borrowerId, startAfter(after), PageRequest.of(0, size + 1)), size);
+	}
+
+	/**
+	 * Recupera una página de los préstamos vencidos y no devueltos.
+	 * La página siguiente empieza después de la fecha límite y el id del último préstamo de la anterior.
+	 * 
+	 * @param after el id del último préstamo de la página anterior, o null para la primera página
+	 * @param size el número máximo de préstamos de la página
+	 * @return la página de préstamos con el token de la siguiente
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public LoanPageDTO getOverdueLoans(Long after, int size) {
+		Instant afterDueAt = after != null ? loanRepository.findDueAtById(after).orElse(Instant.EPOCH) : Instant.EPOCH;
+		return toPage(loanRepository.findOverdue(Instant.now(), afterDueAt, startAfter(after), PageRequest.of(0, size + 1)), size);
+	}
+
+	/**
+	 * Recupera una página del historial de préstamos de un libro.
+	 * 
+	 * @param iSBN el ISBN del libro
+	 * @param after el id del último préstamo de la página anterior, o null para la primera página
+	 * @param size el número máximo de préstamos de la página
+	 * @return la página de préstamos con el token de la siguiente
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public LoanPageDTO getLoanHistory(Long iSBN, Long after, int size) {
+		return toPage(loanRepository.findByISBN(iSBN, startAfter(after), PageRequest.of(0, size + 1)), size);
+	}
+
+	private static long startAfter(Long after) {
+		return after != null ? after : Long.MIN_VALUE;
+	}
+
+	private static LoanPageDTO toPage(List<LoanDTO> loans, int size) {
+		boolean hasNext = loans.size() > size;
+		List<LoanDTO> content = hasNext ? loans.subList(0, size) : loans;
+		Long nextAfter = hasNext ? content.get(content.size() - 1).getId() : null;
+		return new LoanPageDTO(content, nextAfter);
+	}
+}
@@ -0,0 +1,85 @@
+package com.hillogy.LibraryManagement.service.implementation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.exception.BookNotFoundException;
+import com.hillogy.LibraryManagement.index.BookIndexSynchronizer;
+import com.hillogy.LibraryManagement.index.BookSearchIndex;
+import com.hillogy.LibraryManagement.repository.ReactiveBookRepository;
+import com.hillogy.LibraryManagement.service.ReactiveLibraryService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementación reactiva del servicio de la biblioteca.
+ * Las lecturas van a la base de datos por R2DBC; las búsquedas por título y autor usan,
+ * igual que {@link LibraryServiceImpl}, el índice de trigramas en memoria cuando está listo.
+ * 
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@Service
+public class ReactiveLibraryServiceImpl implements ReactiveLibraryService {
+
+	@Autowired
+	private ReactiveBookRepository reactiveBookRepository;
+
+	@Autowired
+	private BookSearchIndex bookSearchIndex;
+
+	@Autowired
+	private BookIndexSynchronizer bookIndexSynchronizer;
+
+	/**
+	 * Recupera todos los libros de la base de datos ordenados por ISBN.
+	 * 
+	 * @return Flux de objetos BookDTO que representan los libros
+	 */
+	@Override
+	public Flux<BookDTO> getAllBooks() {
+		return reactiveBookRepository.findAll();
+	}
+
+	/**
+	 * Recupera un libro por su ISBN.
+	 * 
+	 * @param iSBN el ISBN del libro a recuperar
+	 * @return Mono con el libro, o que termina con BookNotFoundException si no existe
+	 */
+	@Override
+	public Mono<BookDTO> getBookByISBN(Long iSBN) {
+		return reactiveBookRepository.findById(iSBN)
+				.switchIfEmpty(Mono.error(() -> new BookNotFoundException("Libro no encontrado")));
+	}
+
+	/**
+	 * Busca libros por su título.
+	 * 
+	 * @param title el título del libro a buscar
+	 * @return Flux de objetos BookDTO que representan los libros encontrados
+	 */
+	@Override
+	public Flux<BookDTO> searchBooksByTitle(String title) {
+		if (bookIndexSynchronizer.isReady()) {
+			return Flux.defer(() -> Flux.fromIterable(bookSearchIndex.searchByTitle(title)));
+		}
+		return reactiveBookRepository.findByTitleContainingIgnoreCase(title);
+	}
+
+	/**
+	 * Busca libros por su autor.
+	 * 
+	 * @param author el autor del libro a buscar
+	 * @return Flux de objetos BookDTO que representan los libros encontrados
+	 */
+	@Override
+	public Flux<BookDTO> searchBooksByAuthor(String author) {
+		if (bookIndexSynchronizer.isReady()) {
+			return Flux.defer(() -> Flux.fromIterable(bookSearchIndex.searchByAuthor(author)));
+		}
+		return reactiveBookRepository.findByAuthorContainingIgnoreCase(author);
+	}
+}
@@ -0,0 +1,71 @@
+package com.hillogy.LibraryManagement.service.implementation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.repository.ReactiveBookRepository;
+import com.hillogy.LibraryManagement.service.ReactiveUserService;
+import com.hillogy.LibraryManagement.service.UserService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Implementación reactiva del servicio de usuario.
+ * Sólo el listado de disponibles va por R2DBC. Los préstamos y devoluciones no son reactivos: se
+ * delegan en {@link UserService}, que usa JPA y el registro de préstamos, y ocupan un hilo del
+ * planificador boundedElastic mientras abren o cierran el préstamo en tb_loans junto con el cambio de
+ * disponibilidad y esperan a que el registro esté en disco. Así ambas APIs pasan por el mismo bitmap
+ * de disponibilidad, el mismo registro y los mismos eventos, a costa de que su concurrencia la limite
+ * ese planificador y no el pool de conexiones R2DBC.
+ * 
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@Service
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+
+	@Autowired
+	private ReactiveBookRepository reactiveBookRepository;
+
+	@Autowired
+	private UserService userService;
+
+	/**
+	 * Busca libros disponibles según la disponibilidad.
+	 * 
+	 * @param available indica si los libros están disponibles
+	 * @return Flux de objetos BookDTO que representan los libros encontrados
+	 */
+	@Override
+	public Flux<BookDTO> searchAvailableBooks(boolean available) {
+		return reactiveBookRepository.findByAvailable(available);
+	}
+
+	/**
+	 * Marca un libro como prestado por un usuario, con una llamada bloqueante en boundedElastic.
+	 * 
+	 * @param iSBN el ISBN del libro a marcar como prestado
+	 * @param borrowerId el identificador de quien se lleva el libro, o null si no se conoce
+	 * @return Mono con el libro actualizado
+	 */
+	@Override
+	public Mono<BookDTO> orderBook(Long iSBN, Long borrowerId) {
+		return Mono.fromCallable(() -> userService.orderBook(iSBN, borrowerId)).subscribeOn(Schedulers.boundedElastic());
+	}
+
+	/**
+	 * Marca un libro como devuelto por un usuario, con una llamada bloqueante en boundedElastic.
+	 * Devolver un libro que ya está disponible no tiene efecto.
+	 * 
+	 * @param iSBN el ISBN del libro a marcar como devuelto
+	 * @param borrowerId el identificador de quien devuelve el libro, o null si no se conoce
+	 * @return Mono con el libro actualizado
+	 */
+	@Override
+	public Mono<BookDTO> returnBook(Long iSBN, Long borrowerId) {
+		return Mono.fromCallable(() -> userService.returnBook(iSBN, borrowerId)).subscribeOn(Schedulers.boundedElastic());
+	}
+}
@@ -1,15 +1,41 @@
 package com.hillogy.LibraryManagement.service.implementation;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.dto.BookOperationResultDTO;
+import com.hillogy.LibraryManagement.dto.BookOperationResultDTO.Status;
+import com.hillogy.LibraryManagement.event.BookEvent;
+import com.hillogy.LibraryManagement.exception.BookAlreadyBorrowedException;
 import com.hillogy.LibraryManagement.exception.BookNotFoundException;
+import com.hillogy.LibraryManagement.index.AvailabilityIndex;
+import com.hillogy.LibraryManagement.index.BookIndexSynchronizer;
+import com.hillogy.LibraryManagement.index.BookSearchIndex;
+import com.hillogy.LibraryManagement.loan.LoanEvent;
+import com.hillogy.LibraryManagement.loan.LoanWriter;
+import com.hillogy.LibraryManagement.mapper.BookMapper;
 import com.hillogy.LibraryManagement.model.Book;
+import com.hillogy.LibraryManagement.model.Loan;
 import com.hillogy.LibraryManagement.repository.BookRepository;
+import com.hillogy.LibraryManagement.repository.LoanRepository;
 import com.hillogy.LibraryManagement.service.UserService;
 
 /**
@@ -25,61 +51,430 @@ public class UserServiceImpl implements UserService {
 	@Autowired
 	private BookRepository bookRepository;
 
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private BookMapper bookMapper;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private AvailabilityIndex availabilityIndex;
+
+	@Autowired
+	private BookSearchIndex bookSearchIndex;
+
+	@Autowired
+	private BookIndexSynchronizer bookIndexSynchronizer;
+
+	@Autowired
+	private LoanWriter loanWriter;
+
+	@Autowired
+	private LoanRepository loanRepository;
+
+	@Value("${library.loans.period:14d}")
+	private Duration loanPeriod = Duration.ofDays(14);
+
+	private final Object[] loanLocks = new Object[256];
+
+	/**
+	 * Constructor de la clase UserServiceImpl.
+	 */
+	public UserServiceImpl() {
+		for (int i = 0; i < loanLocks.length; i++) {
+			loanLocks[i] = new Object();
+		}
+	}
+
 	/**
 	 * Busca libros disponibles según la disponibilidad.
+	 * Los ISBN se toman del bitmap de disponibilidad y los libros del índice de trigramas,
+	 * sin consultar la base de datos; mientras los índices se construyen al arrancar,
+	 * la búsqueda se delega en la base de datos.
 	 * 
 	 * @param available indica si los libros están disponibles
-	 * @return lista de objetos BookDTO que representan los libros encontrados
+	 * @return lista de objetos BookDTO que representan los libros encontrados, ordenados por ISBN
 	 */
 	@Override
 	public List<BookDTO> searchAvailableBooks(boolean available) {
-		List<Book> books = bookRepository.findByAvailable(available);
-		return books.stream().map(this::convertToDTO).collect(Collectors.toList());
+		if (!bookIndexSynchronizer.isReady()) {
+			return bookRepository.findByAvailable(available);
+		}
+		long expected = available ? availabilityIndex.countAvailable() : availabilityIndex.size() - availabilityIndex.countAvailable();
+		List<BookDTO> books = new ArrayList<>((int) Math.max(expected, 0));
+		forEachIndexed(available, books::add);
+		return books;
 	}
 
 	/**
-	 * Marca un libro como prestado por un usuario.
+	 * Recorre los libros según su disponibilidad en orden de ISBN.
+	 * Se resuelve con los índices en memoria, de modo que no se ocupa ninguna conexión
+	 * mientras el consumidor escribe la respuesta; mientras los índices se construyen
+	 * al arrancar, se recorre la base de datos con un cursor.
+	 * 
+	 * @param available indica si se desean recorrer los libros disponibles o no
+	 * @param action consumidor que recibe cada libro
+	 */
+	@Override
+	public void streamAvailableBooks(boolean available, Consumer<BookDTO> action) {
+		if (bookIndexSynchronizer.isReady()) {
+			forEachIndexed(available, action);
+			return;
+		}
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(true);
+		transactionTemplate.executeWithoutResult(status -> {
+			try (Stream<BookDTO> books = bookRepository.streamByAvailable(available)) {
+				books.forEach(action);
+			}
+		});
+	}
+
+	/**
+	 * Recorre los ISBN del bitmap de disponibilidad tomando cada libro del índice de trigramas.
+	 * 
+	 * @param available indica si se desean recorrer los libros disponibles o no
+	 * @param action consumidor que recibe cada libro
+	 */
+	private void forEachIndexed(boolean available, Consumer<BookDTO> action) {
+		availabilityIndex.forEach(available, iSBN -> {
+			BookDTO book = bookSearchIndex.get(iSBN);
+			// Los índices se actualizan uno tras otro: se descarta un libro que acaba de cambiar
+			if (book != null && book.isAvailable() == available) {
+				action.accept(book);
+			}
+		});
+	}
+
+	/**
+	 * Indica si un libro está disponible para préstamo consultando el bitmap de disponibilidad.
+	 * 
+	 * @param iSBN el ISBN del libro a consultar
+	 * @return true si el libro no está prestado
+	 * @throws BookNotFoundException si el libro no se encuentra en la biblioteca
+	 */
+	@Override
+	public boolean isBookAvailable(Long iSBN) throws BookNotFoundException {
+		if (!bookIndexSynchronizer.isReady()) {
+			return bookRepository.findBookByISBN(iSBN)
+					.orElseThrow(() -> new BookNotFoundException("Libro no encontrado"))
+					.isAvailable();
+		}
+		if (!availabilityIndex.contains(iSBN)) {
+			throw new BookNotFoundException("Libro no encontrado");
+		}
+		return availabilityIndex.isAvailable(iSBN);
+	}
+
+	/**
+	 * Cuenta los libros disponibles para préstamo con el contador del bitmap de disponibilidad.
+	 * 
+	 * @return el número de libros disponibles
+	 */
+	@Override
+	public long countAvailableBooks() {
+		if (!bookIndexSynchronizer.isReady()) {
+			return bookRepository.countByAvailable(true);
+		}
+		return availabilityIndex.countAvailable();
+	}
+
+	/**
+	 * Presta un ejemplar de un libro a un usuario y abre su préstamo, con fecha límite
+	 * {@code library.loans.period} después del préstamo.
+	 * Con la escritura diferida activa, el préstamo se acepta con los contadores del índice de
+	 * disponibilidad y el registro de préstamos y se escribe en tb_books y tb_loans en segundo plano.
+	 * Si no, el contador de ejemplares disponibles se decrementa con una actualización condicional,
+	 * de modo que los préstamos concurrentes de un mismo título nunca prestan más ejemplares de los
+	 * que hay, y el préstamo se abre en la misma transacción.
 	 * 
 	 * @param iSBN el ISBN del libro a marcar como prestado
+	 * @param borrowerId el identificador de quien se lleva el libro, o null si no se conoce
 	 * @return objeto BookDTO que representa el libro actualizado
 	 * @throws BookNotFoundException si el libro no se encuentra en la base de datos
+	 * @throws BookAlreadyBorrowedException si no le quedaba ningún ejemplar disponible
 	 */
 	@Override
-	public BookDTO orderBook(Long iSBN) throws BookNotFoundException {
-		Book book = bookRepository.findById(iSBN).orElseThrow(() -> new BookNotFoundException("Libro no encontrado"));
-		book.setAvailable(false);
-		Book updatedBook = bookRepository.save(book);
-		return convertToDTO(updatedBook);
+	public BookDTO orderBook(Long iSBN, Long borrowerId) throws BookNotFoundException {
+		if (isWriteBehindReady()) {
+			BookDTO book = submitLoan(LoanEvent.Type.CHECKOUT, iSBN, borrowerId, true);
+			if (book == null) {
+				throw new BookAlreadyBorrowedException("El libro ya está prestado.");
+			}
+			return book;
+		}
+		loanWriter.flush();
+		return newTransaction().execute(status -> {
+			if (bookRepository.markAsBorrowed(iSBN) == 0) {
+				if (!bookRepository.existsById(iSBN)) {
+					return Optional.<BookDTO>empty();
+				}
+				throw new BookAlreadyBorrowedException("El libro ya está prestado.");
+			}
+			openLoan(bookRepository.getReferenceById(iSBN), borrowerId);
+			return publishUpdate(iSBN);
+		}).orElseThrow(() -> new BookNotFoundException("Libro no encontrado"));
 	}
 
 	/**
-	 * Marca un libro como devuelto por un usuario.
+	 * Devuelve un ejemplar de un libro y cierra el préstamo abierto más antiguo del libro de quien
+	 * lo devuelve; si no se conoce o no tiene ninguno abierto, el préstamo abierto más antiguo del libro.
+	 * Devolver un libro que tiene todos sus ejemplares no tiene efecto.
 	 * 
 	 * @param iSBN el ISBN del libro a marcar como devuelto
+	 * @param borrowerId el identificador de quien devuelve el libro, o null si no se conoce
 	 * @return objeto BookDTO que representa el libro actualizado
 	 * @throws BookNotFoundException si el libro no se encuentra en la base de datos
 	 */
 	@Override
-	public BookDTO returnBook(Long iSBN) throws BookNotFoundException {
-		Book book = bookRepository.findById(iSBN).orElseThrow(() -> new BookNotFoundException("Libro no encontrado"));
-		book.setAvailable(true);
-		Book updatedBook = bookRepository.save(book);
-		return convertToDTO(updatedBook);
+	public BookDTO returnBook(Long iSBN, Long borrowerId) throws BookNotFoundException {
+		if (isWriteBehindReady()) {
+			BookDTO book = submitLoan(LoanEvent.Type.RETURN, iSBN, borrowerId, true);
+			return book != null ? book : indexedBook(iSBN);
+		}
+		loanWriter.flush();
+		return newTransaction().execute(status -> {
+			if (bookRepository.markAsReturned(iSBN) == 0) {
+				return bookRepository.findBookByISBN(iSBN);
+			}
+			closeLoan(iSBN, borrowerId);
+			return publishUpdate(iSBN);
+		}).orElseThrow(() -> new BookNotFoundException("Libro no encontrado"));
+	}
+
+	/**
+	 * Marca varios libros como prestados a un mismo usuario.
+	 * Con la escritura diferida activa, cada libro se acepta como en {@link #orderBook(Long, Long)} y se
+	 * espera una sola vez a que el registro esté en disco. Si no, los libros se cargan con una sola
+	 * consulta que bloquea sus filas, y los cambios de disponibilidad se escriben juntos al confirmar la transacción.
+	 * 
+	 * @param iSBNs los ISBN de los libros a marcar como prestados
+	 * @param borrowerId el identificador de quien se lleva los libros, o null si no se conoce
+	 * @return lista con el resultado de cada ISBN, en el mismo orden de la petición
+	 */
+	@Override
+	public List<BookOperationResultDTO> orderBooks(List<Long> iSBNs, Long borrowerId) {
+		return changeAvailability(iSBNs, false, borrowerId);
+	}
+
+	/**
+	 * Marca varios libros como devueltos por un mismo usuario, cerrando sus préstamos como en
+	 * {@link #returnBook(Long, Long)}.
+	 * 
+	 * @param iSBNs los ISBN de los libros a marcar como devueltos
+	 * @param borrowerId el identificador de quien devuelve los libros, o null si no se conoce
+	 * @return lista con el resultado de cada ISBN, en el mismo orden de la petición
+	 */
+	@Override
+	public List<BookOperationResultDTO> returnBooks(List<Long> iSBNs, Long borrowerId) {
+		return changeAvailability(iSBNs, true, borrowerId);
+	}
+
+	/**
+	 * Presta o devuelve un ejemplar de cada libro de un lote.
+	 * Un ISBN repetido en el lote se trata como una segunda operación sobre el mismo libro.
+	 * 
+	 * @param iSBNs los ISBN de los libros
+	 * @param available true para devolver un ejemplar, false para prestarlo
+	 * @param borrowerId el identificador de quien se lleva o devuelve los libros
+	 * @return lista con el resultado de cada ISBN
+	 */
+	private List<BookOperationResultDTO> changeAvailability(List<Long> iSBNs, boolean available, Long borrowerId) {
+		if (!isWriteBehindReady()) {
+			loanWriter.flush();
+			return newTransaction().execute(status -> changeAvailabilityInDatabase(iSBNs, available, borrowerId));
+		}
+		LoanEvent.Type type = available ? LoanEvent.Type.RETURN : LoanEvent.Type.CHECKOUT;
+		List<BookOperationResultDTO> results = new ArrayList<>(iSBNs.size());
+		for (Long iSBN : iSBNs) {
+			try {
+				BookDTO book = submitLoan(type, iSBN, borrowerId, false);
+				if (book != null) {
+					results.add(new BookOperationResultDTO(iSBN, available ? Status.RETURNED : Status.ORDERED, book));
+				} else {
+					Status status = available ? Status.ALREADY_AVAILABLE : Status.ALREADY_BORROWED;
+					results.add(new BookOperationResultDTO(iSBN, status, indexedBook(iSBN)));
+				}
+			} catch (BookNotFoundException ex) {
+				results.add(new BookOperationResultDTO(iSBN, Status.NOT_FOUND, null));
+			}
+		}
+		loanWriter.awaitDurable();
+		return results;
+	}
+
+	/**
+	 * Presta o devuelve un ejemplar de cada libro de un lote, bloqueados para la transacción en curso.
+	 * 
+	 * @param iSBNs los ISBN de los libros
+	 * @param available true para devolver un ejemplar, false para prestarlo
+	 * @param borrowerId el identificador de quien se lleva o devuelve los libros
+	 * @return lista con el resultado de cada ISBN
+	 */
+	private List<BookOperationResultDTO> changeAvailabilityInDatabase(List<Long> iSBNs, boolean available, Long borrowerId) {
+		Map<Long, Book> books = bookRepository.findAllByIdForUpdate(iSBNs).stream()
+				.collect(Collectors.toMap(Book::getiSBN, Function.identity()));
+		List<BookOperationResultDTO> results = new ArrayList<>(iSBNs.size());
+		for (Long iSBN : iSBNs) {
+			Book book = books.get(iSBN);
+			if (book == null) {
+				results.add(new BookOperationResultDTO(iSBN, Status.NOT_FOUND, null));
+			} else if (available ? book.getAvailableCopies() == book.getCopies() : book.getAvailableCopies() == 0) {
+				Status status = available ? Status.ALREADY_AVAILABLE : Status.ALREADY_BORROWED;
+				results.add(new BookOperationResultDTO(iSBN, status, bookMapper.toDTO(book)));
+			} else {
+				book.setAvailableCopies(book.getAvailableCopies() + (available ? 1 : -1));
+				if (available) {
+					closeLoan(iSBN, borrowerId);
+				} else {
+					openLoan(book, borrowerId);
+				}
+				BookDTO bookDTO = bookMapper.toDTO(book);
+				eventPublisher.publishEvent(BookEvent.updated(bookDTO));
+				results.add(new BookOperationResultDTO(iSBN, available ? Status.RETURNED : Status.ORDERED, bookDTO));
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Acepta un préstamo o una devolución con escritura diferida.
+	 * Los contadores del índice de disponibilidad deciden qué peticiones ganan ante préstamos
+	 * concurrentes del mismo libro; el cerrojo del libro mantiene además el orden de los eventos del
+	 * registro y de los BookEvent igual que el de los cambios en los contadores. La espera a que el
+	 * evento esté en disco se hace fuera del cerrojo, para que los préstamos simultáneos de un título
+	 * con muchos ejemplares compartan la misma escritura en lugar de esperar cada uno la suya.
+	 * 
+	 * @param type el tipo de evento
+	 * @param iSBN el ISBN del libro
+	 * @param borrowerId el identificador de quien se lleva o devuelve el libro
+	 * @param durable true para esperar a que el evento esté en disco antes de devolver el libro
+	 * @return el libro tras el cambio, o null si no le quedaban ejemplares que prestar o devolver
+	 * @throws BookNotFoundException si el libro no se encuentra en el catálogo
+	 */
+	private BookDTO submitLoan(LoanEvent.Type type, Long iSBN, Long borrowerId, boolean durable) throws BookNotFoundException {
+		boolean checkout = type == LoanEvent.Type.CHECKOUT;
+		BookDTO book;
+		synchronized (loanLocks[Math.floorMod(iSBN.hashCode(), loanLocks.length)]) {
+			int availableCopies = checkout ? availabilityIndex.borrowCopy(iSBN) : availabilityIndex.returnCopy(iSBN);
+			if (availableCopies < 0) {
+				if (!availabilityIndex.contains(iSBN)) {
+					throw new BookNotFoundException("Libro no encontrado");
+				}
+				return null;
+			}
+			try {
+				book = indexedBook(iSBN, availableCopies);
+				loanWriter.enqueue(type, iSBN, borrowerId, checkout ? Instant.now().plus(loanPeriod) : null);
+			} catch (BookNotFoundException | RuntimeException ex) {
+				if (checkout) {
+					availabilityIndex.returnCopy(iSBN);
+				} else {
+					availabilityIndex.borrowCopy(iSBN);
+				}
+				throw ex;
+			}
+			eventPublisher.publishEvent(BookEvent.updated(book));
+		}
+		if (durable) {
+			loanWriter.awaitDurable();
+		}
+		return book;
+	}
+
+	/**
+	 * Construye el estado actual de un libro a partir del índice de trigramas y los contadores
+	 * del índice de disponibilidad.
+	 * 
+	 * @param iSBN el ISBN del libro
+	 * @return objeto BookDTO que representa el libro
+	 * @throws BookNotFoundException si el libro no está en el índice
+	 */
+	private BookDTO indexedBook(Long iSBN) throws BookNotFoundException {
+		return indexedBook(iSBN, availabilityIndex.availableCopies(iSBN));
+	}
+
+	/**
+	 * Construye el estado de un libro a partir del índice de trigramas con los ejemplares disponibles
+	 * indicados, ya que el índice se actualiza después que los contadores.
+	 * 
+	 * @param iSBN el ISBN del libro
+	 * @param availableCopies los ejemplares disponibles del libro
+	 * @return objeto BookDTO que representa el libro
+	 * @throws BookNotFoundException si el libro no está en el índice
+	 */
+	private BookDTO indexedBook(Long iSBN, int availableCopies) throws BookNotFoundException {
+		BookDTO indexed = bookSearchIndex.get(iSBN);
+		if (indexed == null) {
+			throw new BookNotFoundException("Libro no encontrado");
+		}
+		return new BookDTO(iSBN, indexed.getTitle(), indexed.getAuthor(), availabilityIndex.copies(iSBN), availableCopies);
+	}
+
+	private boolean isWriteBehindReady() {
+		return loanWriter.isWriteBehind() && bookIndexSynchronizer.isReady();
+	}
+
+	private TransactionTemplate newTransaction() {
+		return new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * Abre el préstamo de un libro en la transacción en curso y lo añade al registro de préstamos
+	 * cuando se confirme.
+	 * 
+	 * @param book el libro prestado
+	 * @param borrowerId el identificador de quien se lleva el libro
+	 */
+	private void openLoan(Book book, Long borrowerId) {
+		Instant now = Instant.now();
+		Instant dueAt = now.plus(loanPeriod);
+		loanRepository.save(new Loan(book, borrowerId, now, dueAt));
+		recordAfterCommit(LoanEvent.Type.CHECKOUT, book.getiSBN(), borrowerId, dueAt);
+	}
+
+	/**
+	 * Cierra el préstamo del libro de quien lo devuelve en la transacción en curso y añade la
+	 * devolución al registro de préstamos cuando se confirme.
+	 * 
+	 * @param iSBN el ISBN del libro devuelto
+	 * @param borrowerId el identificador de quien devuelve el libro, o null si no se conoce
+	 */
+	private void closeLoan(Long iSBN, Long borrowerId) {
+		loanRepository.closeLoan(iSBN, borrowerId, Instant.now());
+		recordAfterCommit(LoanEvent.Type.RETURN, iSBN, borrowerId, null);
+	}
+
+	/**
+	 * Añade el préstamo o la devolución al registro de préstamos cuando se confirme la transacción en curso.
+	 * 
+	 * @param type el tipo de evento
+	 * @param iSBN el ISBN del libro
+	 * @param borrowerId el identificador de quien se lleva o devuelve el libro
+	 * @param dueAt la fecha límite de un préstamo
+	 */
+	private void recordAfterCommit(LoanEvent.Type type, Long iSBN, Long borrowerId, Instant dueAt) {
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				loanWriter.record(type, iSBN, borrowerId, dueAt);
+			}
+		});
 	}
 
 	/**
-	 * Convierte un objeto Book en un objeto BookDTO.
+	 * Lee el estado del libro tras una actualización y publica el evento correspondiente.
 	 * 
-	 * @param book objeto Book a convertir
-	 * @return objeto BookDTO convertido
+	 * @param iSBN el ISBN del libro actualizado
+	 * @return objeto BookDTO que representa el libro actualizado, o vacío si se ha eliminado entretanto
 	 */
-	private BookDTO convertToDTO(Book book) {
-		BookDTO bookDTO = new BookDTO();
-		bookDTO.setISBN(book.getiSBN());
-		bookDTO.setTitle(book.getTitle());
-		bookDTO.setAuthor(book.getAuthor());
-		bookDTO.setAvailable(book.isAvailable());
-		return bookDTO;
+	private Optional<BookDTO> publishUpdate(Long iSBN) {
+		Optional<BookDTO> updatedBookDTO = bookRepository.findBookByISBN(iSBN);
+		updatedBookDTO.ifPresent(book -> eventPublisher.publishEvent(BookEvent.updated(book)));
+		return updatedBookDTO;
 	}
 
 }
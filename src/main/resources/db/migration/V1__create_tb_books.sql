@@ -0,0 +1,10 @@
+-- Esquema inicial del catálogo, equivalente al que generaba Hibernate con ddl-auto.
+CREATE SEQUENCE tb_books_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE tb_books (
+    isbn      BIGINT       NOT NULL,
+    title     VARCHAR(255) NOT NULL,
+    author    VARCHAR(255) NOT NULL,
+    available BOOLEAN      NOT NULL,
+    CONSTRAINT pk_tb_books PRIMARY KEY (isbn)
+);
@@ -0,0 +1,6 @@
+-- Un libro se identifica por su título y autor: el índice único sustituye a la comprobación
+-- previa existsByTitleAndAuthor y sirve también las búsquedas de duplicados por título.
+CREATE UNIQUE INDEX uk_tb_books_title_author ON tb_books (title, author);
+
+-- Consultas por disponibilidad (findByAvailable).
+CREATE INDEX idx_tb_books_available ON tb_books (available);
@@ -0,0 +1,20 @@
+-- Préstamos: uno por cada vez que se presta un libro, abierto hasta su devolución (returned_at nulo).
+CREATE TABLE tb_loans (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    isbn        BIGINT                   NOT NULL,
+    borrower_id BIGINT,
+    loaned_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    due_at      TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    returned_at TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT pk_tb_loans PRIMARY KEY (id),
+    CONSTRAINT fk_tb_loans_book FOREIGN KEY (isbn) REFERENCES tb_books (isbn) ON DELETE CASCADE
+);
+
+-- Historial de un libro en orden de préstamo (y cierre del préstamo abierto al devolverlo).
+CREATE INDEX idx_tb_loans_isbn ON tb_loans (isbn, id);
+
+-- Préstamos abiertos de un usuario, paginados por id.
+CREATE INDEX idx_tb_loans_borrower ON tb_loans (borrower_id, returned_at, id);
+
+-- Préstamos vencidos: abiertos con due_at anterior a la fecha de consulta, paginados por (due_at, id).
+CREATE INDEX idx_tb_loans_due ON tb_loans (returned_at, due_at, id);
@@ -0,0 +1,22 @@
+-- Inventario por ejemplares: un título con varios ejemplares es una sola fila con dos contadores,
+-- el total de ejemplares y los disponibles. Prestar y devolver son actualizaciones condicionales
+-- del contador (available_copies - 1 WHERE available_copies > 0), sin leer la fila antes.
+ALTER TABLE tb_books ADD COLUMN copies INTEGER DEFAULT 1 NOT NULL;
+ALTER TABLE tb_books ADD COLUMN available_copies INTEGER DEFAULT 1 NOT NULL;
+UPDATE tb_books SET available_copies = CASE WHEN available THEN 1 ELSE 0 END;
+ALTER TABLE tb_books ADD CONSTRAINT ck_tb_books_copies CHECK (available_copies BETWEEN 0 AND copies);
+
+-- La disponibilidad pasa a derivarse del contador, de modo que no puede desincronizarse de él;
+-- las consultas por disponibilidad siguen usando la columna y su índice.
+DROP INDEX idx_tb_books_available;
+ALTER TABLE tb_books DROP COLUMN available;
+ALTER TABLE tb_books ADD COLUMN available BOOLEAN GENERATED ALWAYS AS (available_copies > 0);
+CREATE INDEX idx_tb_books_available ON tb_books (available);
+
+-- Secuencia del último evento del registro de préstamos aplicado a la fila. El escritor diferido
+-- suma o resta un ejemplar sólo si la fila no tiene ya aplicado el evento, lo que mantiene
+-- idempotente reaplicar el registro tras una caída.
+ALTER TABLE tb_books ADD COLUMN loan_sequence BIGINT DEFAULT 0 NOT NULL;
+
+-- Al devolver un ejemplar se cierra el préstamo abierto más antiguo del título.
+CREATE INDEX idx_tb_loans_open ON tb_loans (isbn, returned_at, id);
@@ -0,0 +1,178 @@
+package com.hillogy.LibraryManagement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.index.AvailabilityIndex;
+
+/**
+ * Clase de pruebas unitarias para el bitmap de disponibilidad AvailabilityIndex.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public class AvailabilityIndexTest {
+
+    private AvailabilityIndex index;
+
+    /**
+     * Prepara un índice con algunos libros de ejemplo, uno de ellos prestado.
+     */
+    @Before
+    public void setUp() {
+        index = new AvailabilityIndex();
+        index.add(new BookDTO(3L, "Rayuela", "Julio Cortázar", true));
+        index.add(new BookDTO(1L, "Cien años de soledad", "Gabriel García Márquez", true));
+        index.add(new BookDTO(2L, "El amor en los tiempos del cólera", "Gabriel García Márquez", false));
+    }
+
+    /**
+     * Prueba que préstamos y devoluciones actualizan la disponibilidad y el contador.
+     */
+    @Test
+    public void testOrderAndReturnUpdateCount() {
+        assertEquals(2, index.countAvailable());
+        assertFalse(index.isAvailable(2L));
+
+        index.update(new BookDTO(1L, "Cien años de soledad", "Gabriel García Márquez", false));
+        assertFalse(index.isAvailable(1L));
+        assertEquals(1, index.countAvailable());
+
+        index.update(new BookDTO(2L, "El amor en los tiempos del cólera", "Gabriel García Márquez", true));
+        assertTrue(index.isAvailable(2L));
+        assertEquals(2, index.countAvailable());
+        assertEquals(3, index.size());
+    }
+
+    /**
+     * Prueba que repetir un evento no descuadra el contador, ya que los eventos
+     * pueden llegar también durante una reconstrucción.
+     */
+    @Test
+    public void testRepeatedEventsAreIdempotent() {
+        index.update(new BookDTO(1L, "Cien años de soledad", "Gabriel García Márquez", false));
+        index.update(new BookDTO(1L, "Cien años de soledad", "Gabriel García Márquez", false));
+        index.remove(3L);
+        index.remove(3L);
+
+        assertEquals(0, index.countAvailable());
+        assertEquals(2, index.size());
+        assertFalse(index.contains(3L));
+    }
+
+    /**
+     * Prueba que los ejemplares de un título se prestan hasta agotarse, que el libro deja de estar
+     * disponible con el último y que no se devuelven más ejemplares de los que tiene.
+     */
+    @Test
+    public void testBorrowAndReturnCopies() {
+        index.add(new BookDTO(4L, "Ficciones", "Jorge Luis Borges", 2, 2));
+        assertEquals(3, index.countAvailable());
+
+        assertEquals(1, index.borrowCopy(4L));
+        assertTrue(index.isAvailable(4L));
+        assertEquals(0, index.borrowCopy(4L));
+        assertFalse(index.isAvailable(4L));
+        assertEquals(-1, index.borrowCopy(4L));
+        assertEquals(2, index.countAvailable());
+
+        assertEquals(1, index.returnCopy(4L));
+        assertEquals(2, index.returnCopy(4L));
+        assertEquals(-1, index.returnCopy(4L));
+        assertEquals(2, index.copies(4L));
+        assertEquals(2, index.availableCopies(4L));
+
+        // Los libros de un solo ejemplar se describen sólo con el bitmap
+        assertEquals(-1, index.borrowCopy(2L));
+        assertEquals(1, index.returnCopy(2L));
+        assertEquals(-1, index.borrowCopy(99L));
+        assertEquals(0, index.copies(99L));
+    }
+
+    /**
+     * Prueba que los ISBN se recorren en orden ascendente según su disponibilidad.
+     */
+    @Test
+    public void testForEachVisitsInOrder() {
+        List<Long> available = new ArrayList<>();
+        index.forEach(true, available::add);
+        assertEquals(Arrays.asList(1L, 3L), available);
+
+        List<Long> borrowed = new ArrayList<>();
+        index.forEach(false, borrowed::add);
+        assertEquals(Arrays.asList(2L), borrowed);
+    }
+
+    /**
+     * Prueba que los libros de distintos segmentos se recorren en orden ascendente y que los
+     * contadores suman los de todos los segmentos.
+     */
+    @Test
+    public void testForEachAcrossSegmentsVisitsInOrder() {
+        index.clear();
+        for (long iSBN = 1; iSBN <= 10_000; iSBN++) {
+            index.add(new BookDTO(iSBN, "Libro " + iSBN, "Autor", iSBN % 3 != 0));
+        }
+        assertEquals(10_000, index.size());
+        assertEquals(6667, index.countAvailable());
+
+        List<Long> borrowed = new ArrayList<>();
+        index.forEach(false, borrowed::add);
+        assertEquals(3333, borrowed.size());
+        for (int i = 0; i < borrowed.size(); i++) {
+            assertEquals(Long.valueOf(3L * (i + 1)), borrowed.get(i));
+        }
+    }
+
+    /**
+     * Prueba que los préstamos simultáneos de libros repartidos por todos los segmentos no prestan
+     * más ejemplares de los que hay ni descuadran los contadores.
+     */
+    @Test
+    public void testConcurrentBorrowsKeepCountersConsistent() throws Exception {
+        index.clear();
+        int books = 1000;
+        for (long iSBN = 0; iSBN < books; iSBN++) {
+            index.add(new BookDTO(iSBN, "Libro " + iSBN, "Autor", 2, 2));
+        }
+        AtomicInteger borrowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (long iSBN = 0; iSBN < books; iSBN++) {
+                        if (index.borrowCopy(iSBN) >= 0) {
+                            borrowed.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2 * books, borrowed.get());
+        assertEquals(0, index.countAvailable());
+        assertEquals(books, index.size());
+        assertEquals(1, index.returnCopy(500L));
+        assertEquals(1, index.countAvailable());
+    }
+}
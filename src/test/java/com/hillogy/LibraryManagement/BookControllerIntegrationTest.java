@@ -1,38 +1,73 @@
 package com.hillogy.LibraryManagement;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.hillogy.LibraryManagement.cache.CatalogueVersion;
 import com.hillogy.LibraryManagement.controller.BookController;
 import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.dto.BookOperationResultDTO;
+import com.hillogy.LibraryManagement.dto.BookPageDTO;
+import com.hillogy.LibraryManagement.dto.BookSearchCriteria;
+import com.hillogy.LibraryManagement.dto.ImportResultDTO;
+import com.hillogy.LibraryManagement.dto.LoanDTO;
+import com.hillogy.LibraryManagement.dto.LoanPageDTO;
+import com.hillogy.LibraryManagement.dto.SuggestionDTO;
+import com.hillogy.LibraryManagement.event.BookEvent;
+import com.hillogy.LibraryManagement.exception.BookAlreadyBorrowedException;
 import com.hillogy.LibraryManagement.exception.BookAlreadyExistsException;
 import com.hillogy.LibraryManagement.exception.BookNotFoundException;
+import com.hillogy.LibraryManagement.exception.IdempotencyKeyReusedException;
 import com.hillogy.LibraryManagement.model.Book;
 import com.hillogy.LibraryManagement.repository.BookRepository;
+import com.hillogy.LibraryManagement.service.BookImportService;
 import com.hillogy.LibraryManagement.service.LibraryService;
+import com.hillogy.LibraryManagement.service.LoanService;
 import com.hillogy.LibraryManagement.service.UserService;
 
 import org.mockito.junit.MockitoJUnitRunner;
@@ -52,9 +87,27 @@ public class BookControllerIntegrationTest {
     @Mock
     private UserService userService;
     
+    @Mock
+    private LoanService loanService;
+
+    @Mock
+    private BookImportService bookImportService;
+
     @Mock
     private BookRepository bookRepository;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private CatalogueVersion catalogueVersion = new CatalogueVersion();
+
+    @Spy
+    private ContentNegotiationManager contentNegotiationManager = new ContentNegotiationManager();
+
+    @Spy
+    private MappingJackson2CborHttpMessageConverter cborConverter = new MappingJackson2CborHttpMessageConverter();
+
     @InjectMocks
     private BookController bookController;
 
@@ -70,16 +123,69 @@ public class BookControllerIntegrationTest {
     /**
      * Prueba para el método searchBooks del controlador BookController.
      * 
-     * @throws BookNotFoundException si no se encuentra un libro.
+     * @throws Exception si no se encuentra un libro o falla la escritura de la respuesta.
      */
     @Test
-    public void testSearchBooks() throws BookNotFoundException {
+    public void testSearchBooks() throws Exception {
         List<BookDTO> books = new ArrayList<>();
         books.add(new BookDTO());
         when(libraryService.searchBooksByTitle("Title")).thenReturn(books);
 
-        List<BookDTO> result = bookController.searchBooks("Title", null, null);
+        BookDTO[] result = readBooks(bookController.searchBooks("Title", null, null, null, request()));
+        assertEquals(1, result.length);
+    }
+
+    /**
+     * Prueba que varios criterios se combinan en una única búsqueda en lugar de usar sólo el primero.
+     * 
+     * @throws Exception si no se encuentra un libro o falla la escritura de la respuesta.
+     */
+    @Test
+    public void testSearchBooksCombinesCriteria() throws Exception {
+        when(libraryService.searchBooks(any(BookSearchCriteria.class)))
+                .thenReturn(Collections.singletonList(new BookDTO(7L, "Title", "Author", true)));
+
+        BookDTO[] result = readBooks(bookController.searchBooks("Title", "Author", null, true, request()));
+
+        assertEquals(1, result.length);
+        ArgumentCaptor<BookSearchCriteria> criteria = ArgumentCaptor.forClass(BookSearchCriteria.class);
+        verify(libraryService).searchBooks(criteria.capture());
+        assertEquals("Title", criteria.getValue().getTitle());
+        assertEquals("Author", criteria.getValue().getAuthor());
+        assertEquals(Boolean.TRUE, criteria.getValue().getAvailable());
+        verify(libraryService, never()).searchBooksByTitle(any());
+    }
+
+    /**
+     * Prueba que la búsqueda por relevancia conserva el orden del servicio y limita el número de resultados.
+     *
+     * @throws Exception si falla la escritura de la respuesta.
+     */
+    @Test
+    public void testSearchBooksRanked() throws Exception {
+        when(libraryService.searchBooksRanked("garcia marqez", 1000)).thenReturn(Arrays.asList(
+                new BookDTO(2L, "Cien años de soledad", "Gabriel García Márquez", true),
+                new BookDTO(1L, "Crónica de una muerte anunciada", "Gabriel García Márquez", true)));
+
+        BookDTO[] result = readBooks(bookController.searchBooksRanked("garcia marqez", 5000, request()));
+
+        assertEquals(2, result.length);
+        assertEquals(Long.valueOf(2L), result[0].getISBN());
+        assertEquals(Long.valueOf(1L), result[1].getISBN());
+    }
+
+    /**
+     * Prueba que el autocompletado limita el número de sugerencias al máximo configurado.
+     */
+    @Test
+    public void testSuggestBooks() {
+        when(libraryService.suggestBooks("cien", 1000)).thenReturn(Collections.singletonList(
+                new SuggestionDTO("Cien años de soledad", SuggestionDTO.Field.TITLE, 3)));
+
+        List<SuggestionDTO> result = bookController.suggestBooks("cien", 5000);
+
         assertEquals(1, result.size());
+        assertEquals("Cien años de soledad", result.get(0).getText());
     }
 
     /**
@@ -89,12 +195,24 @@ public class BookControllerIntegrationTest {
     public void testCreateNewBook() throws BookAlreadyExistsException {
         BookDTO bookDTO = new BookDTO();
         ResponseEntity<BookDTO> responseEntity = new ResponseEntity<>(bookDTO, HttpStatus.CREATED);
-        when(libraryService.createNewBook(any(BookDTO.class))).thenReturn(bookDTO);
+        when(libraryService.createNewBook(any(BookDTO.class), any())).thenReturn(bookDTO);
 
-        ResponseEntity<?> result = bookController.createNewBook(bookDTO);
+        ResponseEntity<?> result = bookController.createNewBook(bookDTO, null);
         assertEquals(HttpStatus.CREATED, result.getStatusCode());
     }
 
+    /**
+     * Prueba que reutilizar una clave de idempotencia con otro libro responde 422.
+     */
+    @Test
+    public void testCreateNewBookReusedIdempotencyKey() {
+        BookDTO bookDTO = new BookDTO(null, "Otro", "Autor", true);
+        when(libraryService.createNewBook(bookDTO, "alta-1")).thenThrow(new IdempotencyKeyReusedException("Clave reutilizada"));
+
+        ResponseEntity<?> result = bookController.createNewBook(bookDTO, "alta-1");
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, result.getStatusCode());
+    }
+
     /**
      * Prueba para el método deleteBook del controlador BookController.
      * 
@@ -118,12 +236,25 @@ public class BookControllerIntegrationTest {
     public void testOrderBook() throws BookNotFoundException {
         BookDTO bookDTO = new BookDTO();
         ResponseEntity<BookDTO> responseEntity = new ResponseEntity<>(bookDTO, HttpStatus.OK);
-        when(userService.orderBook(anyLong())).thenReturn(bookDTO);
+        when(userService.orderBook(anyLong(), any())).thenReturn(bookDTO);
 
-        ResponseEntity<?> result = bookController.orderBook(1L);
+        ResponseEntity<?> result = bookController.orderBook(1L, null);
         assertEquals(HttpStatus.OK, result.getStatusCode());
     }
 
+    /**
+     * Prueba que ordenar un libro ya prestado devuelve 409 (CONFLICT).
+     * 
+     * @throws BookNotFoundException si no se encuentra un libro.
+     */
+    @Test
+    public void testOrderBookAlreadyBorrowed() throws BookNotFoundException {
+        when(userService.orderBook(anyLong(), any())).thenThrow(new BookAlreadyBorrowedException("El libro ya está prestado."));
+
+        ResponseEntity<?> result = bookController.orderBook(1L, null);
+        assertEquals(HttpStatus.CONFLICT, result.getStatusCode());
+    }
+
     /**
      * Prueba para el método returnBook del controlador BookController.
      * 
@@ -133,21 +264,258 @@ public class BookControllerIntegrationTest {
     public void testReturnBook() throws BookNotFoundException {
         BookDTO bookDTO = new BookDTO();
         ResponseEntity<BookDTO> responseEntity = new ResponseEntity<>(bookDTO, HttpStatus.OK);
-        when(userService.returnBook(anyLong())).thenReturn(bookDTO);
+        when(userService.returnBook(anyLong(), any())).thenReturn(bookDTO);
 
-        ResponseEntity<?> result = bookController.returnBook(1L);
+        ResponseEntity<?> result = bookController.returnBook(1L, null);
         assertEquals(HttpStatus.OK, result.getStatusCode());
     }
 
+    /**
+     * Prueba para el método orderBooks del controlador BookController.
+     */
+    @Test
+    public void testOrderBooks() {
+        List<Long> iSBNs = Arrays.asList(1L, 2L);
+        List<BookOperationResultDTO> results = Arrays.asList(
+                new BookOperationResultDTO(1L, BookOperationResultDTO.Status.ORDERED, new BookDTO()),
+                new BookOperationResultDTO(2L, BookOperationResultDTO.Status.NOT_FOUND, null));
+        when(userService.orderBooks(iSBNs, null)).thenReturn(results);
+
+        ResponseEntity<?> result = bookController.orderBooks(iSBNs, null);
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(results, result.getBody());
+    }
+
+    /**
+     * Prueba que un lote vacío se rechaza sin llamar al servicio.
+     */
+    @Test
+    public void testReturnBooksEmptyBatch() {
+        ResponseEntity<?> result = bookController.returnBooks(Collections.emptyList(), null);
+        assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
+        verify(userService, times(0)).returnBooks(any(), any());
+    }
+
     /**
      * Prueba para el método getBooksByAvailability del controlador BookController.
+     * La lista se escribe según se recorren los libros disponibles.
+     * 
+     * @throws Exception si falla la escritura de la respuesta.
      */
     @Test
-    public void testGetBooksByAvailability() {
-        List<BookDTO> books = new ArrayList<>();
-        when(userService.searchAvailableBooks(true)).thenReturn(books);
+    @SuppressWarnings("unchecked")
+    public void testGetBooksByAvailability() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<BookDTO> action = invocation.getArgument(1);
+            action.accept(new BookDTO(1L, "Title", "Author", true));
+            return null;
+        }).when(userService).streamAvailableBooks(eq(true), any(Consumer.class));
+
+        ResponseEntity<StreamingResponseBody> responseEntity = bookController.getBooksByAvailability(request());
 
-        ResponseEntity<?> responseEntity = bookController.getBooksByAvailability();
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        BookDTO[] books = readBooks(responseEntity);
+        assertEquals(1, books.length);
+        assertEquals(Long.valueOf(1L), books[0].getISBN());
+    }
+
+    /**
+     * Prueba que la búsqueda sin parámetros escribe el catálogo completo según se lee.
+     * 
+     * @throws Exception si falla la escritura de la respuesta.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSearchBooksWithoutCriteriaStreams() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<BookDTO> action = invocation.getArgument(0);
+            action.accept(new BookDTO(1L, "Title", "Author", true));
+            action.accept(new BookDTO(2L, "Other", "Writer", false));
+            return null;
+        }).when(libraryService).streamAllBooks(any(Consumer.class));
+
+        BookDTO[] result = readBooks(bookController.searchBooks(null, null, null, null, request()));
+
+        assertEquals(2, result.length);
+        verify(libraryService, never()).getAllBooks();
+    }
+
+    /**
+     * Prueba los endpoints de disponibilidad de un libro y de recuento de disponibles.
+     * 
+     * @throws BookNotFoundException si no se encuentra un libro.
+     */
+    @Test
+    public void testAvailabilityEndpoints() throws BookNotFoundException {
+        when(userService.isBookAvailable(1L)).thenReturn(true);
+        when(userService.isBookAvailable(2L)).thenThrow(new BookNotFoundException("Libro no encontrado"));
+        when(userService.countAvailableBooks()).thenReturn(42L);
+
+        ResponseEntity<?> available = bookController.isBookAvailable(1L);
+        assertEquals(HttpStatus.OK, available.getStatusCode());
+        assertEquals(Boolean.TRUE, ((Map<?, ?>) available.getBody()).get("available"));
+        assertEquals(HttpStatus.NOT_FOUND, bookController.isBookAvailable(2L).getStatusCode());
+        assertEquals(42L, ((Map<?, ?>) bookController.countAvailableBooks().getBody()).get("available"));
+    }
+
+    /**
+     * Prueba que un If-None-Match con el ETag vigente responde 304 sin consultar el servicio
+     * y que un cambio del catálogo invalida el ETag.
+     */
+    @Test
+    public void testGetBooksByAvailabilityNotModified() throws Exception {
+        ServletWebRequest first = request();
+        bookController.getBooksByAvailability(first);
+        String eTag = first.getResponse().getHeader("ETag");
+        assertNotNull(eTag);
+
+        ServletWebRequest conditional = request();
+        ((MockHttpServletRequest) conditional.getRequest()).addHeader("If-None-Match", eTag);
+        assertNull(bookController.getBooksByAvailability(conditional));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), conditional.getResponse().getStatus());
+
+        catalogueVersion.onBookEvent(BookEvent.updated(new BookDTO(1L, "Title", "Author", false)));
+        ServletWebRequest afterChange = request();
+        ((MockHttpServletRequest) afterChange.getRequest()).addHeader("If-None-Match", eTag);
+        assertNotNull(bookController.getBooksByAvailability(afterChange));
+        assertNotEquals(eTag, afterChange.getResponse().getHeader("ETag"));
+    }
+
+    /**
+     * Prueba que el ETag de un libro sólo cambia con los cambios de ese libro.
+     */
+    @Test
+    public void testBookETagIgnoresOtherBooks() {
+        String eTag = catalogueVersion.bookETag(1L);
+        catalogueVersion.onBookEvent(BookEvent.updated(new BookDTO(2L, "Title", "Author", false)));
+        assertEquals(eTag, catalogueVersion.bookETag(1L));
+        catalogueVersion.onBookEvent(BookEvent.deleted(new BookDTO(1L, "Title", "Author", true)));
+        assertNotEquals(eTag, catalogueVersion.bookETag(1L));
+    }
+
+    /**
+     * Prueba que un libro eliminado no conserva su versión y que su ETag no vuelve a ninguno anterior.
+     */
+    @Test
+    public void testDeletedBookForgetsItsVersion() {
+        String unchanged = catalogueVersion.bookETag(1L);
+        catalogueVersion.onBookEvent(BookEvent.updated(new BookDTO(1L, "Title", "Author", false)));
+        String updated = catalogueVersion.bookETag(1L);
+        catalogueVersion.onBookEvent(BookEvent.deleted(new BookDTO(1L, "Title", "Author", false)));
+
+        Map<?, ?> bookVersions = (Map<?, ?>) ReflectionTestUtils.getField(catalogueVersion, "bookVersions");
+        assertTrue(bookVersions.isEmpty());
+        assertNotEquals(unchanged, catalogueVersion.bookETag(1L));
+        assertNotEquals(updated, catalogueVersion.bookETag(1L));
+    }
+
+    /**
+     * Prueba para el método searchBooksPage del controlador BookController.
+     * El tamaño de página solicitado se limita al máximo configurado.
+     */
+    @Test
+    public void testSearchBooksPage() {
+        BookPageDTO page = new BookPageDTO(Collections.singletonList(new BookDTO(5L, "Title", "Author", true)), 5L);
+        when(libraryService.getBooksPage(eq(4L), eq(1000))).thenReturn(page);
+
+        BookPageDTO result = bookController.searchBooksPage(4L, 50000);
+        assertEquals(1, result.getSize());
+        assertEquals(Long.valueOf(5L), result.getNextAfter());
+    }
+
+    /**
+     * Prueba para los métodos getActiveLoans y getOverdueLoans del controlador BookController.
+     * El tamaño de página solicitado se limita al intervalo configurado.
+     */
+    @Test
+    public void testLoanPages() {
+        LoanPageDTO page = new LoanPageDTO(Collections.singletonList(new LoanDTO(3L, 1L, 42L, null, null, null)), 3L);
+        when(loanService.getActiveLoans(eq(42L), eq(null), eq(1000))).thenReturn(page);
+        when(loanService.getOverdueLoans(eq(2L), eq(1))).thenReturn(page);
+
+        LoanPageDTO active = bookController.getActiveLoans(42L, null, 50000);
+        assertEquals(1, active.getSize());
+        assertEquals(Long.valueOf(3L), active.getNextAfter());
+        assertEquals(Long.valueOf(42L), active.getContent().get(0).getBorrowerId());
+        assertEquals(page, bookController.getOverdueLoans(2L, 0));
+    }
+
+    /**
+     * Prueba para el método streamBooks del controlador BookController.
+     * 
+     * @throws Exception si falla la escritura de la respuesta.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStreamBooks() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<BookDTO> action = invocation.getArgument(0);
+            action.accept(new BookDTO(1L, "Title", "Author", true));
+            action.accept(new BookDTO(2L, "Other", "Writer", false));
+            return null;
+        }).when(libraryService).streamAllBooks(any(Consumer.class));
+
+        ResponseEntity<StreamingResponseBody> response = bookController.streamBooks(request());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+
+        BookDTO[] books = objectMapper.readValue(output.toByteArray(), BookDTO[].class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, books.length);
+        assertEquals(Long.valueOf(2L), books[1].getISBN());
+    }
+
+    /**
+     * Prueba que el catálogo se puede descargar en CBOR y se lee con los mismos campos que en JSON.
+     * 
+     * @throws Exception si falla la escritura de la respuesta.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStreamBooksCbor() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<BookDTO> action = invocation.getArgument(0);
+            action.accept(new BookDTO(1L, "Title", "Author", true));
+            return null;
+        }).when(libraryService).streamAllBooks(any(Consumer.class));
+
+        ServletWebRequest request = request();
+        ((MockHttpServletRequest) request.getRequest()).addHeader("Accept", "application/cbor");
+        ResponseEntity<StreamingResponseBody> response = bookController.streamBooks(request);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+
+        assertEquals(MediaType.APPLICATION_CBOR, response.getHeaders().getContentType());
+        BookDTO[] books = cborConverter.getObjectMapper().readValue(output.toByteArray(), BookDTO[].class);
+        assertEquals(1, books.length);
+        assertEquals("Title", books[0].getTitle());
+        assertTrue(output.size() < objectMapper.writeValueAsBytes(books).length);
+    }
+
+    /**
+     * Prueba que el endpoint de importación elige el formato según el Content-Type.
+     * 
+     * @throws Exception si falla la lectura del cuerpo.
+     */
+    @Test
+    public void testImportBooksCsv() throws Exception {
+        InputStream body = new ByteArrayInputStream("Title,Author\n".getBytes());
+        ImportResultDTO importResult = new ImportResultDTO();
+        importResult.accept(1);
+        when(bookImportService.importBooks(body, BookImportService.Format.CSV)).thenReturn(importResult);
+
+        ResponseEntity<ImportResultDTO> result = bookController.importBooks(MediaType.valueOf("text/csv;charset=UTF-8"), body);
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(1, result.getBody().getAccepted());
+    }
+
+    private static ServletWebRequest request() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse());
+    }
+
+    private BookDTO[] readBooks(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+        return objectMapper.readValue(output.toByteArray(), BookDTO[].class);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,147 @@
+package com.hillogy.LibraryManagement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.index.BookDuplicateFilter;
+import com.hillogy.LibraryManagement.repository.BookRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Clase de pruebas unitarias para el filtro de duplicados BookDuplicateFilter.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public class BookDuplicateFilterTest {
+
+    private static final int BOOKS = 10_000;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @InjectMocks
+    private BookDuplicateFilter filter;
+
+    private SimpleMeterRegistry registry;
+
+    /**
+     * Prepara un filtro vacío dimensionado para {@link #BOOKS} libros con sus métricas.
+     */
+    @SuppressWarnings("deprecation")
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        registry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(filter, "meterRegistry", registry);
+        ReflectionTestUtils.setField(filter, "expectedBooks", 1000L);
+        ReflectionTestUtils.setField(filter, "falsePositiveRate", 0.01);
+        when(bookRepository.count()).thenReturn((long) BOOKS / 2);
+        filter.registerMetrics();
+        filter.clear();
+    }
+
+    /**
+     * Prueba que todos los libros añadidos se reconocen, sin distinguir mayúsculas ni espacios en
+     * los extremos, y que la tasa de falsos positivos está cerca de la configurada.
+     */
+    @Test
+    public void testNoFalseNegativesAndBoundedFalsePositives() {
+        for (int i = 0; i < BOOKS; i++) {
+            filter.add(new BookDTO((long) i, "Título " + i, "Autor " + (i % 100), true));
+        }
+        for (int i = 0; i < BOOKS; i++) {
+            assertTrue(filter.mightContain("título " + i, " AUTOR " + (i % 100) + " "));
+        }
+
+        int falsePositives = 0;
+        for (int i = BOOKS; i < 2 * BOOKS; i++) {
+            if (filter.mightContain("Título " + i, "Autor " + (i % 100))) {
+                falsePositives++;
+            }
+        }
+        assertTrue("Demasiados falsos positivos: " + falsePositives, falsePositives < BOOKS * 0.02);
+        assertTrue(filter.expectedFalsePositiveRate() < 0.02);
+        assertFalse(filter.mightContain("Título 1", "Autor 2"));
+        assertFalse(filter.mightContain("Autor 1", "Título 1"));
+    }
+
+    /**
+     * Prueba que la base de datos sólo se consulta para los posibles duplicados y que se cuentan
+     * los resultados de cada comprobación.
+     */
+    @Test
+    public void testIsDuplicateQueriesOnlyPossibleDuplicates() {
+        filter.add(new BookDTO(1L, "Ficciones", "Jorge Luis Borges", true));
+        AtomicInteger queries = new AtomicInteger();
+
+        assertTrue(filter.isDuplicate("Ficciones", "Jorge Luis Borges", (title, author) -> queries.incrementAndGet() > 0));
+        assertEquals(1, queries.get());
+        assertFalse(filter.isDuplicate("El Aleph", "Jorge Luis Borges", (title, author) -> queries.incrementAndGet() > 0));
+        assertEquals(1, queries.get());
+        // Un libro borrado sigue en el filtro: la base de datos lo descarta y cuenta como falso positivo
+        filter.remove(1L);
+        assertFalse(filter.isDuplicate("Ficciones", "Jorge Luis Borges", (title, author) -> queries.incrementAndGet() < 0));
+
+        assertEquals(1, registry.get("library.books.dedup.checks").tag("result", "new").functionCounter().count(), 0);
+        assertEquals(1, registry.get("library.books.dedup.checks").tag("result", "duplicate").functionCounter().count(), 0);
+        assertEquals(1, registry.get("library.books.dedup.checks").tag("result", "false-positive").functionCounter().count(), 0);
+        assertEquals(0.5, registry.get("library.books.dedup.false-positive-rate").tag("kind", "observed").gauge().value(), 0);
+    }
+
+    /**
+     * Prueba que un filtro dimensionado para pocos libros crece al superar su tasa de falsos
+     * positivos, sin perder ningún libro y sin pasar de la tasa configurada.
+     */
+    @Test
+    public void testGrowsBeyondCapacity() {
+        ReflectionTestUtils.setField(filter, "expectedBooks", 100L);
+        when(bookRepository.count()).thenReturn(0L);
+        filter.clear();
+
+        for (int i = 0; i < BOOKS; i++) {
+            filter.add(new BookDTO((long) i, "Título " + i, "Autor " + (i % 100), true));
+        }
+        assertTrue(filter.generations() > 1);
+        for (int i = 0; i < BOOKS; i++) {
+            assertTrue(filter.mightContain("Título " + i, "Autor " + (i % 100)));
+        }
+        assertTrue(filter.expectedFalsePositiveRate() <= 0.01);
+
+        int falsePositives = 0;
+        for (int i = BOOKS; i < 2 * BOOKS; i++) {
+            if (filter.mightContain("Título " + i, "Autor " + (i % 100))) {
+                falsePositives++;
+            }
+        }
+        assertTrue("Demasiados falsos positivos: " + falsePositives, falsePositives < BOOKS * 0.02);
+
+        filter.clear();
+        assertEquals(1, filter.generations());
+    }
+
+    /**
+     * Prueba que al reconstruirse el filtro queda vacío.
+     */
+    @Test
+    public void testClearEmptiesFilter() {
+        filter.add(new BookDTO(1L, "Rayuela", "Julio Cortázar", true));
+        assertTrue(filter.mightContain("Rayuela", "Julio Cortázar"));
+        filter.clear();
+        assertFalse(filter.mightContain("Rayuela", "Julio Cortázar"));
+        assertEquals(0, filter.expectedFalsePositiveRate(), 0);
+    }
+}
@@ -0,0 +1,106 @@
+package com.hillogy.LibraryManagement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.dto.ImportResultDTO;
+import com.hillogy.LibraryManagement.service.BookImportService;
+import com.hillogy.LibraryManagement.service.LibraryService;
+
+/**
+ * Pruebas de la importación masiva de libros contra la base de datos H2.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@SpringBootTest(properties = "library.import.chunk-size=2")
+class BookImportServiceTest {
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private LibraryService libraryService;
+
+    /**
+     * Importa NDJSON con una fila inválida y duplicados dentro y entre bloques.
+     */
+    @Test
+    void importNdjsonRejectsInvalidAndDuplicateRows() throws IOException {
+        String ndjson = String.join("\n",
+                "{\"title\":\"Ficciones\",\"author\":\"Borges\"}",
+                "{\"title\":\"Ficciones\",\"author\":\"Borges\"}",
+                "{\"title\":\"El Aleph\",\"author\":\"Borges\",\"available\":false}",
+                "no es json",
+                "{\"title\":\"Ficciones\",\"author\":\"Borges\"}",
+                "{\"author\":\"Sin título\"}");
+
+        ImportResultDTO result = bookImportService.importBooks(stream(ndjson), BookImportService.Format.NDJSON);
+
+        assertEquals(2, result.getAccepted());
+        assertEquals(4, result.getRejected());
+        List<BookDTO> aleph = libraryService.searchBooksByTitle("El Aleph");
+        assertEquals(1, aleph.size());
+        assertFalse(aleph.get(0).isAvailable());
+    }
+
+    /**
+     * Importa CSV con cabecera y campos entre comillas.
+     */
+    @Test
+    void importCsvWithHeaderAndQuotedFields() throws IOException {
+        String csv = String.join("\n",
+                "title,author,available",
+                "\"Pedro Páramo, edición crítica\",Juan Rulfo,true",
+                "\"El llano en llamas\",\"Juan \"\"El\"\" Rulfo\",",
+                "solo una columna");
+
+        ImportResultDTO result = bookImportService.importBooks(stream(csv), BookImportService.Format.CSV);
+
+        assertEquals(2, result.getAccepted());
+        assertEquals(1, result.getRejected());
+        assertEquals(1, libraryService.searchBooksByTitle("Pedro Páramo, edición crítica").size());
+        assertEquals("Juan \"El\" Rulfo", libraryService.searchBooksByTitle("El llano en llamas").get(0).getAuthor());
+    }
+
+    /**
+     * Una fila que no cabe en tb_books no se confunde con un duplicado, ni impide importar
+     * el resto de su bloque.
+     */
+    @Test
+    void importReportsOversizedRowsApartFromDuplicates() throws IOException {
+        String ndjson = String.join("\n",
+                "{\"title\":\"Cuentos de amor\",\"author\":\"Horacio Quiroga\"}",
+                "{\"title\":\"" + "x".repeat(300) + "\",\"author\":\"Horacio Quiroga\"}",
+                "{\"title\":\"Cuentos de amor\",\"author\":\"Horacio Quiroga\"}");
+
+        ImportResultDTO first = bookImportService.importBooks(stream(ndjson), BookImportService.Format.NDJSON);
+
+        assertEquals(1, first.getAccepted());
+        assertEquals(2, first.getRejected());
+        assertTrue(first.getErrors().get(0).startsWith("Línea 2: la base de datos rechaza la fila"));
+        assertTrue(first.getErrors().get(1).startsWith("Línea 3: el libro ya existe"));
+
+        ImportResultDTO second = bookImportService.importBooks(stream("{\"title\":\"Cuentos de amor\",\"author\":\"Horacio Quiroga\"}\n"
+                + "{\"title\":\"Anaconda\",\"author\":\"" + "y".repeat(300) + "\"}"), BookImportService.Format.NDJSON);
+        assertEquals(0, second.getAccepted());
+        assertTrue(second.getErrors().get(0).startsWith("Línea 1: el libro ya existe"));
+        assertTrue(second.getErrors().get(1).startsWith("Línea 2: la base de datos rechaza la fila"));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
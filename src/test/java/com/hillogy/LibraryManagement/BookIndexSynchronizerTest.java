@@ -0,0 +1,81 @@
+package com.hillogy.LibraryManagement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.event.BookEvent;
+import com.hillogy.LibraryManagement.index.BookIndex;
+import com.hillogy.LibraryManagement.index.BookIndexSynchronizer;
+import com.hillogy.LibraryManagement.index.BookSearchIndex;
+import com.hillogy.LibraryManagement.index.BookSuggestionIndex;
+import com.hillogy.LibraryManagement.repository.BookRepository;
+
+/**
+ * Clase de pruebas unitarias para la sincronización de los índices BookIndexSynchronizer.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public class BookIndexSynchronizerTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookSuggestionIndex bookSuggestionIndex;
+
+    @InjectMocks
+    private BookIndexSynchronizer synchronizer;
+
+    private BookSearchIndex index;
+
+    @SuppressWarnings("deprecation")
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        index = new BookSearchIndex();
+        ReflectionTestUtils.setField(synchronizer, "indexes", List.<BookIndex>of(index));
+    }
+
+    /**
+     * Prueba que un libro eliminado o actualizado mientras se recorre el catálogo no vuelve a los
+     * índices con la fila anterior al cambio que lee después el cursor.
+     */
+    @Test
+    public void testEventsDuringRebuildWinOverOlderRows() {
+        BookDTO first = new BookDTO(1L, "Ficciones", "Jorge Luis Borges", 1, 1);
+        BookDTO deleted = new BookDTO(2L, "El Aleph", "Jorge Luis Borges", 1, 1);
+        BookDTO updated = new BookDTO(3L, "Rayuela", "Julio Cortázar", 1, 1);
+        when(bookRepository.streamAll()).thenReturn(Stream.of(first, deleted, updated).map(book -> {
+            if (book == first) {
+                // Los cambios se confirman mientras el cursor sigue abierto con las filas anteriores
+                synchronizer.onBookEvent(BookEvent.deleted(deleted));
+                synchronizer.onBookEvent(BookEvent.updated(new BookDTO(3L, "Rayuela", "Julio Cortázar", 1, 0)));
+            }
+            return book;
+        }));
+
+        synchronizer.rebuild();
+
+        assertTrue(synchronizer.isReady());
+        verify(bookSuggestionIndex).loadLoans();
+        assertEquals(2, index.size());
+        assertEquals("Ficciones", index.get(1L).getTitle());
+        assertNull(index.get(2L));
+        assertEquals(0, index.get(3L).getAvailableCopies());
+    }
+}
@@ -0,0 +1,98 @@
+package com.hillogy.LibraryManagement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.index.BookRankingIndex;
+
+/**
+ * Clase de pruebas unitarias para el índice de búsqueda por relevancia BookRankingIndex.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public class BookRankingIndexTest {
+
+    private BookRankingIndex index;
+
+    /**
+     * Prepara un índice con algunos libros de ejemplo.
+     */
+    @Before
+    public void setUp() {
+        index = new BookRankingIndex();
+        index.add(new BookDTO(1L, "Cien años de soledad", "Gabriel García Márquez", true));
+        index.add(new BookDTO(2L, "El amor en los tiempos del cólera", "Gabriel García Márquez", true));
+        index.add(new BookDTO(3L, "Rayuela", "Julio Cortázar", true));
+        index.add(new BookDTO(4L, "El laberinto de la soledad", "Octavio Paz", true));
+        index.add(new BookDTO(5L, "Soledad", "Soledad Puértolas", true));
+    }
+
+    /**
+     * Prueba que la búsqueda no distingue tildes ni mayúsculas.
+     */
+    @Test
+    public void testSearchIgnoresAccentsAndCase() {
+        assertEquals(Arrays.asList(3L), index.search("CORTAZAR", 10));
+        assertEquals(Arrays.asList(2L), index.search("colera", 10));
+    }
+
+    /**
+     * Prueba que se toleran pequeñas erratas en las palabras de la consulta.
+     */
+    @Test
+    public void testSearchToleratesTypos() {
+        assertEquals(Arrays.asList(1L, 2L), index.search("garcia marqez", 10));
+        assertEquals(Arrays.asList(3L), index.search("rayuel", 10));
+        assertEquals(Arrays.asList(4L), index.search("laberinot", 10));
+    }
+
+    /**
+     * Prueba el orden por relevancia: pesan más los campos cortos y las coincidencias en varios campos,
+     * y ninguna palabra de la consulta cuenta dos veces.
+     */
+    @Test
+    public void testSearchRanksByRelevance() {
+        List<Long> result = index.search("soledad", 10);
+        assertEquals(Arrays.asList(5L, 4L, 1L), result);
+
+        assertEquals(Long.valueOf(4L), index.search("soledad paz", 10).get(0));
+        assertEquals(Long.valueOf(1L), index.search("cien soledad", 10).get(0));
+    }
+
+    /**
+     * Prueba que sólo se devuelven los mejores resultados pedidos y que las palabras vacías se ignoran.
+     */
+    @Test
+    public void testSearchLimitAndStopWords() {
+        assertEquals(Arrays.asList(5L), index.search("soledad", 1));
+        assertTrue(index.search("de la", 10).isEmpty());
+        assertTrue(index.search("", 10).isEmpty());
+        assertTrue(index.search("xyz", 10).isEmpty());
+    }
+
+    /**
+     * Prueba que las actualizaciones y borrados se reflejan en las búsquedas.
+     */
+    @Test
+    public void testUpdateAndRemove() {
+        index.update(new BookDTO(3L, "Bestiario", "Julio Cortázar", true));
+        assertTrue(index.search("rayuela", 10).isEmpty());
+        assertEquals(Arrays.asList(3L), index.search("bestiario", 10));
+
+        index.remove(3L);
+        assertTrue(index.search("cortazar", 10).isEmpty());
+        assertTrue(index.search("bestiario", 10).isEmpty());
+
+        index.clear();
+        assertTrue(index.search("soledad", 10).isEmpty());
+        assertEquals(0, index.terms());
+    }
+}
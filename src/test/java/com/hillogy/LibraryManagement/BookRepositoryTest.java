@@ -0,0 +1,105 @@
+package com.hillogy.LibraryManagement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.dto.BookSearchCriteria;
+import com.hillogy.LibraryManagement.model.Book;
+import com.hillogy.LibraryManagement.repository.BookRepository;
+import com.hillogy.LibraryManagement.repository.BookSpecifications;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Pruebas de las consultas de lectura del repositorio, que proyectan directamente a BookDTO.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@DataJpaTest
+class BookRepositoryTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Book rayuela;
+
+    @BeforeEach
+    void setUp() {
+        rayuela = bookRepository.save(new Book("Rayuela", "Julio Cortázar", false));
+        bookRepository.save(new Book("100% Cortázar", "Varios", true));
+        bookRepository.save(new Book("Cien años de soledad", "Gabriel García Márquez", true));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Las proyecciones devuelven los datos del libro sin cargar la entidad en el contexto de persistencia.
+     */
+    @Test
+    void findBookByISBNReturnsDTOWithoutManagedEntity() {
+        BookDTO book = bookRepository.findBookByISBN(rayuela.getiSBN()).orElseThrow();
+
+        assertEquals("Rayuela", book.getTitle());
+        assertEquals("Julio Cortázar", book.getAuthor());
+        assertFalse(book.isAvailable());
+        assertEquals(0, entityManager.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities());
+        assertTrue(bookRepository.findBookByISBN(-1L).isEmpty());
+    }
+
+    /**
+     * La búsqueda ignora mayúsculas y trata los comodines de LIKE como caracteres literales.
+     */
+    @Test
+    void searchIsCaseInsensitiveAndEscapesWildcards() {
+        assertEquals(1, bookRepository.findByAuthorContainingIgnoreCase("CORTÁZAR").size());
+        assertEquals(1, bookRepository.findByTitleContainingIgnoreCase("cortázar").size());
+        List<BookDTO> percent = bookRepository.findByTitleContainingIgnoreCase("%");
+        assertEquals(1, percent.size());
+        assertEquals("100% Cortázar", percent.get(0).getTitle());
+        assertTrue(bookRepository.findByTitleContainingIgnoreCase("_").isEmpty());
+    }
+
+    /**
+     * Las páginas por clave y la consulta por disponibilidad devuelven BookDTO ordenados por ISBN.
+     */
+    @Test
+    void pageAndAvailabilityQueriesReturnDTOs() {
+        List<BookDTO> page = bookRepository.findNextPage(Long.MIN_VALUE, PageRequest.of(0, 2));
+        assertEquals(2, page.size());
+        assertTrue(page.get(0).getISBN() < page.get(1).getISBN());
+        assertEquals(2, bookRepository.findByAvailable(true).size());
+        assertEquals(3, bookRepository.findAllBooks().size());
+    }
+
+    /**
+     * La búsqueda combinada aplica todos los criterios a la vez en una sola consulta.
+     */
+    @Test
+    void combinedSearchAppliesEveryCriterion() {
+        List<BookDTO> byTitleAndAuthor = bookRepository.findAllBooks(
+                BookSpecifications.matching(new BookSearchCriteria("cortázar", "varios", null, null)));
+        assertEquals(1, byTitleAndAuthor.size());
+        assertEquals("100% Cortázar", byTitleAndAuthor.get(0).getTitle());
+
+        assertTrue(bookRepository.findAllBooks(
+                BookSpecifications.matching(new BookSearchCriteria(null, "Cortázar", rayuela.getiSBN(), true))).isEmpty());
+        assertEquals(1, bookRepository.findAllBooks(
+                BookSpecifications.matching(new BookSearchCriteria(null, "Cortázar", rayuela.getiSBN(), false))).size());
+        assertEquals(3, bookRepository.findAllBooks(BookSpecifications.matching(new BookSearchCriteria())).size());
+    }
+}
@@ -0,0 +1,82 @@
+package com.hillogy.LibraryManagement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.index.BookSearchIndex;
+
+/**
+ * Clase de pruebas unitarias para el índice de trigramas BookSearchIndex.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public class BookSearchIndexTest {
+
+    private BookSearchIndex index;
+
+    /**
+     * Prepara un índice con algunos libros de ejemplo.
+     */
+    @Before
+    public void setUp() {
+        index = new BookSearchIndex();
+        index.add(new BookDTO(1L, "Cien años de soledad", "Gabriel García Márquez", true));
+        index.add(new BookDTO(2L, "El amor en los tiempos del cólera", "Gabriel García Márquez", true));
+        index.add(new BookDTO(3L, "Rayuela", "Julio Cortázar", true));
+    }
+
+    /**
+     * Prueba la búsqueda por subcadena sin distinguir mayúsculas.
+     */
+    @Test
+    public void testSearchByTitleIgnoresCase() {
+        List<BookDTO> result = index.searchByTitle("SOLEDAD");
+        assertEquals(1, result.size());
+        assertEquals(Long.valueOf(1L), result.get(0).getISBN());
+    }
+
+    /**
+     * Prueba que los resultados se devuelven ordenados por ISBN.
+     */
+    @Test
+    public void testSearchByAuthorReturnsAllMatchesInOrder() {
+        List<BookDTO> result = index.searchByAuthor("márquez");
+        assertEquals(2, result.size());
+        assertEquals(Long.valueOf(1L), result.get(0).getISBN());
+        assertEquals(Long.valueOf(2L), result.get(1).getISBN());
+    }
+
+    /**
+     * Prueba las consultas más cortas que un trigrama.
+     */
+    @Test
+    public void testShortQueryFallsBackToScan() {
+        assertEquals(1, index.searchByTitle("ay").size());
+        assertEquals(3, index.searchByTitle("").size());
+    }
+
+    /**
+     * Prueba que las actualizaciones y borrados se reflejan en las búsquedas.
+     */
+    @Test
+    public void testUpdateAndRemove() {
+        index.update(new BookDTO(3L, "Rayuela", "Julio Cortázar", false));
+        assertFalse(index.searchByTitle("rayuela").get(0).isAvailable());
+
+        index.update(new BookDTO(3L, "Bestiario", "Julio Cortázar", true));
+        assertTrue(index.searchByTitle("rayuela").isEmpty());
+        assertEquals(1, index.searchByTitle("bestiario").size());
+
+        index.remove(3L);
+        assertTrue(index.searchByAuthor("cortázar").isEmpty());
+        assertEquals(2, index.size());
+    }
+}
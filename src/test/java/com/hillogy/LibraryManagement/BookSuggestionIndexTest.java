@@ -0,0 +1,177 @@
+package com.hillogy.LibraryManagement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.dto.SuggestionDTO;
+import com.hillogy.LibraryManagement.index.BookSuggestionIndex;
+import com.hillogy.LibraryManagement.repository.LoanRepository;
+
+/**
+ * Clase de pruebas unitarias para el índice de autocompletado BookSuggestionIndex.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public class BookSuggestionIndexTest {
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @InjectMocks
+    private BookSuggestionIndex index;
+
+    /**
+     * Prepara un índice con algunos libros de ejemplo; el 2 ya tiene tres préstamos en tb_loans.
+     */
+    @SuppressWarnings("deprecation")
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        List<Object[]> loans = new ArrayList<>();
+        loans.add(new Object[] { 2L, 3L });
+        when(loanRepository.countLoansByISBN()).thenReturn(loans);
+        index.clear();
+        index.add(new BookDTO(1L, "Cien años de soledad", "Gabriel García Márquez", true));
+        index.add(new BookDTO(2L, "Crónica de una muerte anunciada", "Gabriel García Márquez", true));
+        index.add(new BookDTO(3L, "Cien sonetos de amor", "Pablo Neruda", true));
+        index.add(new BookDTO(4L, "Ciencia ficción", "Varios autores", true));
+        index.loadLoans();
+    }
+
+    /**
+     * Prueba que se completan títulos y autores sin distinguir tildes ni mayúsculas.
+     */
+    @Test
+    public void testSuggestIgnoresAccentsAndCase() {
+        List<SuggestionDTO> result = index.suggest("GABRIEL GARCIA", 10);
+        assertEquals(1, result.size());
+        assertEquals("Gabriel García Márquez", result.get(0).getText());
+        assertEquals(SuggestionDTO.Field.AUTHOR, result.get(0).getField());
+        assertEquals(5, result.get(0).getWeight());
+
+        assertEquals("Crónica de una muerte anunciada", index.suggest("cronica", 10).get(0).getText());
+        assertTrue(index.suggest("soledad", 10).isEmpty());
+        assertTrue(index.suggest("  ", 10).isEmpty());
+    }
+
+    /**
+     * Prueba el orden por popularidad (a igual peso, alfabético sin tildes) y que cada préstamo suma peso.
+     */
+    @Test
+    public void testSuggestOrdersByPopularity() {
+        assertEquals(List.of("Cien años de soledad", "Cien sonetos de amor", "Ciencia ficción"), texts(index.suggest("cien", 10)));
+        assertEquals(List.of("Cien años de soledad", "Cien sonetos de amor"), texts(index.suggest("cien ", 10)));
+
+        index.update(new BookDTO(3L, "Cien sonetos de amor", "Pablo Neruda", false));
+        List<SuggestionDTO> result = index.suggest("cien", 2);
+        assertEquals(List.of("Cien sonetos de amor", "Cien años de soledad"), texts(result));
+        assertEquals(2, result.get(0).getWeight());
+
+        // La devolución no resta popularidad
+        index.update(new BookDTO(3L, "Cien sonetos de amor", "Pablo Neruda", true));
+        assertEquals(2, index.suggest("cien s", 1).get(0).getWeight());
+    }
+
+    /**
+     * Prueba que vaciar el índice no consulta tb_loans y que los préstamos cargados después se suman
+     * tanto a los libros ya indexados como a los que se añaden más tarde.
+     */
+    @Test
+    public void testLoansLoadedAfterClear() {
+        index.clear();
+        index.add(new BookDTO(2L, "Crónica de una muerte anunciada", "Gabriel García Márquez", true));
+        verify(loanRepository, times(1)).countLoansByISBN();
+        assertEquals(1, index.suggest("cronica", 1).get(0).getWeight());
+
+        index.loadLoans();
+        assertEquals(4, index.suggest("cronica", 1).get(0).getWeight());
+        index.update(new BookDTO(2L, "Crónica de una muerte anunciada", "Gabriel García Márquez", false));
+        assertEquals(5, index.suggest("cronica", 1).get(0).getWeight());
+
+        index.clear();
+        index.loadLoans();
+        index.add(new BookDTO(2L, "Crónica de una muerte anunciada", "Gabriel García Márquez", true));
+        assertEquals(4, index.suggest("gabriel", 1).get(0).getWeight());
+    }
+
+    /**
+     * Prueba que las actualizaciones y borrados se reflejan en las sugerencias.
+     */
+    @Test
+    public void testUpdateAndRemove() {
+        index.update(new BookDTO(4L, "Rayuela", "Julio Cortázar", true));
+        assertEquals(List.of("Cien años de soledad", "Cien sonetos de amor"), texts(index.suggest("cien", 10)));
+        assertEquals(List.of("Rayuela"), texts(index.suggest("r", 10)));
+
+        index.remove(1L);
+        assertEquals(4, index.suggest("gabriel", 10).get(0).getWeight());
+        index.remove(2L);
+        assertTrue(index.suggest("gabriel", 10).isEmpty());
+        assertEquals(2, index.titles());
+    }
+
+    /**
+     * Compara las sugerencias con una búsqueda exhaustiva tras muchas altas, préstamos y bajas
+     * de títulos con prefijos comunes (los autores no empiezan por ninguno de los prefijos probados).
+     */
+    @Test
+    public void testSuggestMatchesExhaustiveSearch() {
+        Random random = new Random(42);
+        String[] words = { "el", "ella", "ellos", "la", "lago", "lagos", "luz" };
+        Map<Long, BookDTO> catalogue = new HashMap<>();
+        Map<Long, Long> loans = new HashMap<>();
+        index.clear();
+        for (int i = 0; i < 3000; i++) {
+            long iSBN = 100 + random.nextInt(200);
+            int operation = random.nextInt(4);
+            if (operation == 0) {
+                index.remove(iSBN);
+                catalogue.remove(iSBN);
+                loans.remove(iSBN);
+            } else if (operation == 1 && catalogue.containsKey(iSBN) && catalogue.get(iSBN).isAvailable()) {
+                BookDTO book = catalogue.get(iSBN);
+                BookDTO borrowed = new BookDTO(iSBN, book.getTitle(), book.getAuthor(), false);
+                index.update(borrowed);
+                catalogue.put(iSBN, borrowed);
+                loans.merge(iSBN, 1L, Long::sum);
+            } else {
+                String title = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+                BookDTO book = new BookDTO(iSBN, title, "Autor " + random.nextInt(5), true);
+                index.add(book);
+                catalogue.put(iSBN, book);
+                loans.putIfAbsent(iSBN, 0L);
+            }
+        }
+        for (String prefix : List.of("e", "el", "ell", "ella ", "la", "lag", "lagos l", "l", "x")) {
+            Map<String, Long> weights = new HashMap<>();
+            catalogue.values().stream().filter(book -> book.getTitle().startsWith(prefix))
+                    .forEach(book -> weights.merge(book.getTitle(), 1 + loans.get(book.getISBN()), Long::sum));
+            List<String> expected = weights.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(5).map(Map.Entry::getKey).collect(Collectors.toList());
+            assertEquals(prefix, expected, texts(index.suggest(prefix, 5)));
+        }
+    }
+
+    private static List<String> texts(List<SuggestionDTO> suggestions) {
+        return suggestions.stream().map(SuggestionDTO::getText).collect(Collectors.toList());
+    }
+}
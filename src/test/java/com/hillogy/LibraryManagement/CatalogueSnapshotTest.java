@@ -0,0 +1,99 @@
+package com.hillogy.LibraryManagement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.index.CatalogueSnapshot;
+
+/**
+ * Clase de pruebas unitarias para la instantánea del catálogo CatalogueSnapshot.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public class CatalogueSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private CatalogueSnapshot snapshot;
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), "data/catalogue.snapshot");
+        snapshot = new CatalogueSnapshot();
+        ReflectionTestUtils.setField(snapshot, "path", file.getPath());
+    }
+
+    /**
+     * Prueba que los libros guardados se recuperan con todos sus campos, y que una nueva
+     * instantánea reemplaza a la anterior.
+     */
+    @Test
+    public void testSaveAndRestore() throws IOException {
+        List<BookDTO> books = List.of(
+                new BookDTO(1L, "Cien años de soledad", "Gabriel García Márquez", 3, 1),
+                new BookDTO(2L, "Ficciones", "Jorge Luis Borges", 1, 0));
+        assertTrue(snapshot.isEnabled());
+        assertEquals(2, snapshot.save(books::forEach));
+
+        List<BookDTO> restored = new ArrayList<>();
+        assertEquals(2, snapshot.restore(restored::add));
+        assertEquals(2, restored.size());
+        BookDTO first = restored.get(0);
+        assertEquals(Long.valueOf(1L), first.getISBN());
+        assertEquals("Cien años de soledad", first.getTitle());
+        assertEquals("Gabriel García Márquez", first.getAuthor());
+        assertEquals(3, first.getCopies());
+        assertEquals(1, first.getAvailableCopies());
+        assertEquals(0, restored.get(1).getAvailableCopies());
+
+        assertEquals(1, snapshot.save(books.subList(1, 2)::forEach));
+        restored.clear();
+        assertEquals(1, snapshot.restore(restored::add));
+        assertEquals(Long.valueOf(2L), restored.get(0).getISBN());
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    /**
+     * Prueba que una instantánea inexistente o corrupta se ignora sin entregar ningún libro.
+     */
+    @Test
+    public void testMissingOrCorruptSnapshotIsIgnored() throws IOException {
+        List<BookDTO> restored = new ArrayList<>();
+        assertEquals(-1, snapshot.restore(restored::add));
+
+        snapshot.save(List.of(new BookDTO(1L, "Rayuela", "Julio Cortázar", 1, 1))::forEach);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // Se altera un byte del título sin actualizar el CRC de la cabecera
+            raf.seek(raf.length() - 20);
+            raf.write('X');
+        }
+        assertEquals(-1, snapshot.restore(restored::add));
+        assertTrue(restored.isEmpty());
+    }
+
+    /**
+     * Prueba que sin ruta configurada la instantánea está desactivada.
+     */
+    @Test
+    public void testDisabledWithoutPath() {
+        ReflectionTestUtils.setField(snapshot, "path", "");
+        assertFalse(snapshot.isEnabled());
+    }
+}
@@ -0,0 +1,71 @@
+package com.hillogy.LibraryManagement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+
+import com.hillogy.LibraryManagement.cache.CatalogueVersion;
+import com.hillogy.LibraryManagement.configuration.CacheConfig;
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.event.BookEvent;
+import com.hillogy.LibraryManagement.index.BookSearchIndex;
+import com.hillogy.LibraryManagement.service.LibraryService;
+
+/**
+ * Pruebas del orden de los oyentes de {@link BookEvent}: la versión del catálogo cambia después de
+ * que los índices y la caché tengan los datos nuevos.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@SpringBootTest
+class CatalogueVersionOrderTest {
+
+    @SpyBean
+    private CatalogueVersion catalogueVersion;
+
+    @Autowired
+    private LibraryService libraryService;
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /**
+     * Prueba que al cambiar la versión el libro creado ya está en el índice y el libro eliminado ya
+     * no está ni en el índice ni en la caché.
+     */
+    @Test
+    void versionChangesAfterIndexesAndCache() throws Exception {
+        List<String> observed = new ArrayList<>();
+        doAnswer(invocation -> {
+            BookEvent event = invocation.getArgument(0);
+            Long iSBN = event.getBook().getISBN();
+            BookDTO indexed = bookSearchIndex.get(iSBN);
+            observed.add(event.getType() + ":" + (indexed == null ? "-" : indexed.getTitle()) + ":"
+                    + (cacheManager.getCache(CacheConfig.BOOKS_CACHE).get(iSBN) == null ? "-" : "cached"));
+            return invocation.callRealMethod();
+        }).when(catalogueVersion).onBookEvent(any());
+
+        BookDTO book = libraryService.createNewBook(new BookDTO(null, "Versionado", "Autor", 1, 1));
+        // Se carga en la caché para comprobar que se invalida antes de cambiar la versión
+        assertNotNull(libraryService.getBookByISBN(book.getISBN()));
+        libraryService.deleteBook(book.getISBN());
+
+        assertEquals(List.of("CREATED:Versionado:-", "DELETED:-:-"), observed);
+        assertNull(bookSearchIndex.get(book.getISBN()));
+    }
+}
@@ -0,0 +1,155 @@
+package com.hillogy.LibraryManagement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.exception.BookAlreadyExistsException;
+import com.hillogy.LibraryManagement.exception.IdempotencyKeyReusedException;
+import com.hillogy.LibraryManagement.service.LibraryService;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Pruebas de concurrencia del alta de libros contra la base de datos H2.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@SpringBootTest
+class LibraryServiceConcurrencyTest {
+
+    private static final int THREADS = 50;
+
+    @Autowired
+    private LibraryService libraryService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * Muchos hilos dan de alta a la vez el mismo libro: el índice único de título y autor
+     * deja pasar sólo una inserción y el resto recibe BookAlreadyExistsException.
+     */
+    @Test
+    void concurrentCreatesInsertTheBookOnlyOnce() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger duplicates = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        libraryService.createNewBook(new BookDTO(null, "Duplicado", "Concurrente", true));
+                        created.incrementAndGet();
+                    } catch (BookAlreadyExistsException ex) {
+                        duplicates.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, created.get());
+        assertEquals(THREADS - 1, duplicates.get());
+        assertEquals(1, libraryService.searchBooksByAuthor("Concurrente").size());
+    }
+
+    /**
+     * Muchos hilos repiten a la vez la misma alta con la misma clave de idempotencia: el libro
+     * se crea una vez y todos reciben el mismo libro, sin errores de duplicado.
+     */
+    @Test
+    void concurrentRetriesWithIdempotencyKeyReturnTheSameBook() throws Exception {
+        Set<Long> iSBNs = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    iSBNs.add(libraryService.createNewBook(new BookDTO(null, "Reintento", "Idempotente", true), "alta-1").getISBN());
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, iSBNs.size());
+        assertEquals(iSBNs.iterator().next(),
+                libraryService.createNewBook(new BookDTO(null, "Reintento", "Idempotente", true), "alta-1").getISBN());
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> libraryService.createNewBook(new BookDTO(null, "Otro", "Idempotente", true), "alta-1"));
+        assertThrows(BookAlreadyExistsException.class,
+                () -> libraryService.createNewBook(new BookDTO(null, "Reintento", "Idempotente", true), "alta-2"));
+        assertEquals(1, libraryService.searchBooksByAuthor("Idempotente").size());
+    }
+
+    /**
+     * Recorre el catálogo en varias páginas y comprueba que, mientras el consumidor recibe cada
+     * libro, no hay ninguna transacción abierta ni conexión del pool ocupada.
+     */
+    @Test
+    void streamAllBooksHoldsNoConnectionWhileWriting() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            libraryService.createNewBook(new BookDTO(null, "Descarga " + i, "Paginado", true));
+        }
+        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+        Object target = AopTestUtils.getTargetObject(libraryService);
+        ReflectionTestUtils.setField(target, "streamPageSize", 2);
+        List<Long> iSBNs = new ArrayList<>();
+        List<Integer> activeConnections = new ArrayList<>();
+        try {
+            libraryService.streamAllBooks(book -> {
+                assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+                activeConnections.add(pool.getHikariPoolMXBean().getActiveConnections());
+                if ("Paginado".equals(book.getAuthor())) {
+                    iSBNs.add(book.getISBN());
+                }
+            });
+        } finally {
+            ReflectionTestUtils.setField(target, "streamPageSize", 500);
+        }
+
+        assertEquals(5, iSBNs.size());
+        assertEquals(iSBNs.stream().sorted().toList(), iSBNs);
+        assertTrue(activeConnections.stream().allMatch(active -> active == 0), activeConnections.toString());
+    }
+}
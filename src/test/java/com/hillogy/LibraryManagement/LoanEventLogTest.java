@@ -0,0 +1,228 @@
+package com.hillogy.LibraryManagement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import com.hillogy.LibraryManagement.loan.LoanEvent;
+import com.hillogy.LibraryManagement.loan.LoanEventLog;
+
+/**
+ * Clase de pruebas unitarias para el registro de préstamos LoanEventLog.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public class LoanEventLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private LoanEventLog log;
+
+    /**
+     * Abre un registro vacío en un directorio temporal con una proyección mínima,
+     * para que las pruebas tengan que ampliarla.
+     */
+    @Before
+    public void setUp() throws IOException {
+        file = new File(folder.getRoot(), "loans.log");
+        log = open();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        log.close();
+    }
+
+    /**
+     * Prueba que los eventos se numeran en orden y se recuperan por secuencia y por libro,
+     * aunque el fichero haya tenido que crecer.
+     */
+    @Test
+    public void testAppendAndRead() {
+        for (int i = 0; i < 10; i++) {
+            log.append(i % 2 == 0 ? LoanEvent.Type.CHECKOUT : LoanEvent.Type.RETURN, 1L + i % 3, null, 0, false);
+        }
+        log.awaitDurable(10);
+
+        assertEquals(10, log.lastSequence());
+        List<LoanEvent> events = log.read(4, 6);
+        assertEquals(3, events.size());
+        assertEquals(4, events.get(0).getSequence());
+        assertEquals(LoanEvent.Type.RETURN, events.get(0).getType());
+        assertEquals(1L, events.get(0).getISBN());
+
+        List<LoanEvent> history = history(2L);
+        assertEquals(3, history.size());
+        assertEquals(2, history.get(0).getSequence());
+        assertEquals(5, history.get(1).getSequence());
+        assertEquals(8, history.get(2).getSequence());
+    }
+
+    /**
+     * Prueba que al reabrir el registro se recuperan los eventos, con su usuario y fecha límite, y el punto de control.
+     */
+    @Test
+    public void testReopenRecoversEventsAndCheckpoint() throws IOException {
+        log.append(LoanEvent.Type.CHECKOUT, 7L, 5L, 1234L, false);
+        log.append(LoanEvent.Type.RETURN, 7L, null, 0, true);
+        log.append(LoanEvent.Type.CHECKOUT, 8L, null, 0, false);
+        log.awaitDurable(3);
+        log.checkpoint(2);
+        log.close();
+
+        log = open();
+        assertEquals(3, log.lastSequence());
+        assertEquals(2, log.appliedSequence());
+        LoanEvent last = log.read(3, 3).get(0);
+        assertEquals(8L, last.getISBN());
+        assertFalse(last.isApplied());
+        assertTrue(log.read(2, 2).get(0).isApplied());
+        LoanEvent first = log.read(1, 1).get(0);
+        assertEquals(Long.valueOf(5L), first.getBorrowerId());
+        assertEquals(1234L, first.getDueAt());
+        assertEquals(null, log.read(2, 2).get(0).getBorrowerId());
+        assertEquals(4, log.append(LoanEvent.Type.RETURN, 8L, null, 0, false).getSequence());
+    }
+
+    /**
+     * Prueba que un registro escrito a medias (por ejemplo, en una caída) se descarta al reabrir,
+     * junto con todo lo que venga detrás.
+     */
+    @Test
+    public void testCorruptRecordTruncatesLog() throws IOException {
+        log.append(LoanEvent.Type.CHECKOUT, 1L, null, 0, false);
+        log.append(LoanEvent.Type.CHECKOUT, 2L, null, 0, false);
+        log.append(LoanEvent.Type.CHECKOUT, 3L, null, 0, false);
+        log.awaitDurable(3);
+        log.close();
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // Se altera el ISBN del segundo registro sin actualizar su CRC
+            raf.seek(64 + 48 + 8);
+            raf.writeLong(99L);
+        }
+
+        log = open();
+        assertEquals(1, log.lastSequence());
+        assertEquals(2, log.append(LoanEvent.Type.RETURN, 1L, null, 0, false).getSequence());
+        assertEquals(0, history(99L).size());
+
+        // El tercer registro, que seguía siendo válido, no debe reaparecer al reabrir
+        log.close();
+        log = open();
+        assertEquals(2, log.lastSequence());
+        assertEquals(0, history(3L).size());
+    }
+
+    /**
+     * Prueba que un registro vacío puede continuar una numeración anterior y que la conserva al reabrir.
+     */
+    @Test
+    public void testRebaseContinuesSequence() throws IOException {
+        assertTrue(log.isEmpty());
+        log.rebase(1000);
+        assertEquals(1000, log.appliedSequence());
+        assertEquals(1001, log.append(LoanEvent.Type.CHECKOUT, 1L, null, 0, false).getSequence());
+        assertEquals(1002, log.append(LoanEvent.Type.RETURN, 1L, null, 0, false).getSequence());
+        log.awaitDurable(1002);
+        log.close();
+
+        log = open();
+        assertFalse(log.isEmpty());
+        assertEquals(1002, log.lastSequence());
+        assertEquals(1000, log.appliedSequence());
+        assertEquals(2, log.read(0, 2000).size());
+        assertEquals(1001, history(1L).get(0).getSequence());
+        try {
+            log.rebase(5000);
+            fail("Un registro con eventos no se debe renumerar");
+        } catch (IllegalStateException expected) {
+            assertEquals(1002, log.lastSequence());
+        }
+    }
+
+    /**
+     * Prueba que al compactar se descartan los eventos aplicados, se conservan los pendientes y la
+     * numeración continúa, también tras reabrir.
+     */
+    @Test
+    public void testCompactionKeepsPendingEvents() throws IOException {
+        ReflectionTestUtils.setField(log, "compactSize", DataSize.ofBytes(10 * 48));
+        for (int i = 0; i < 20; i++) {
+            log.append(LoanEvent.Type.CHECKOUT, 100L + i, null, 0, false);
+        }
+        log.awaitDurable(20);
+        log.checkpoint(15);
+
+        List<LoanEvent> pending = log.read(0, Long.MAX_VALUE);
+        assertEquals(5, pending.size());
+        assertEquals(16, pending.get(0).getSequence());
+        assertEquals(115L, pending.get(0).getISBN());
+        assertEquals(21, log.append(LoanEvent.Type.RETURN, 115L, null, 0, false).getSequence());
+        assertTrue(file.length() < 64 + 21 * 48);
+        assertFalse(new File(file.getPath() + ".compact").exists());
+        log.awaitDurable(21);
+        log.close();
+
+        log = open();
+        assertEquals(21, log.lastSequence());
+        assertEquals(15, log.appliedSequence());
+        assertEquals(6, log.read(0, Long.MAX_VALUE).size());
+        assertEquals(LoanEvent.Type.RETURN, log.read(21, 21).get(0).getType());
+    }
+
+    /**
+     * Prueba que al reabrir sólo se comprueban los eventos posteriores al punto de control, que ya
+     * estaban en disco antes de aplicarse.
+     */
+    @Test
+    public void testRecoveryStartsFromCheckpoint() throws IOException {
+        log.append(LoanEvent.Type.CHECKOUT, 1L, null, 0, false);
+        log.append(LoanEvent.Type.CHECKOUT, 2L, null, 0, false);
+        log.append(LoanEvent.Type.CHECKOUT, 3L, null, 0, false);
+        log.awaitDurable(3);
+        log.checkpoint(2);
+        log.close();
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // Un registro anterior al punto de control dañado no descarta los posteriores
+            raf.seek(64 + 8);
+            raf.writeLong(99L);
+        }
+
+        log = open();
+        assertEquals(3, log.lastSequence());
+        assertEquals(4, log.append(LoanEvent.Type.RETURN, 3L, null, 0, false).getSequence());
+    }
+
+    private List<LoanEvent> history(long iSBN) {
+        return log.read(0, Long.MAX_VALUE).stream().filter(event -> event.getISBN() == iSBN).collect(Collectors.toList());
+    }
+
+    private LoanEventLog open() throws IOException {
+        LoanEventLog loanEventLog = new LoanEventLog();
+        ReflectionTestUtils.setField(loanEventLog, "path", file.getPath());
+        ReflectionTestUtils.setField(loanEventLog, "initialSize", DataSize.ofBytes(128));
+        ReflectionTestUtils.setField(loanEventLog, "fsync", false);
+        loanEventLog.open();
+        return loanEventLog;
+    }
+}
@@ -0,0 +1,144 @@
+package com.hillogy.LibraryManagement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.exception.BookAlreadyBorrowedException;
+import com.hillogy.LibraryManagement.index.BookIndexSynchronizer;
+import com.hillogy.LibraryManagement.index.BookSearchIndex;
+import com.hillogy.LibraryManagement.loan.LoanWriter;
+import com.hillogy.LibraryManagement.repository.BookRepository;
+import com.hillogy.LibraryManagement.repository.LoanRepository;
+import com.hillogy.LibraryManagement.service.LibraryService;
+import com.hillogy.LibraryManagement.service.UserService;
+
+/**
+ * Pruebas del perfil "persistent": el catálogo y los préstamos sobreviven a un reinicio de la aplicación.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+class PersistentStoreTest {
+
+    @TempDir
+    Path dataDir;
+
+    /**
+     * Prueba que tras reiniciar se conservan los libros y los préstamos, y que se puede seguir prestando
+     * aunque se haya perdido el registro de préstamos.
+     */
+    @Test
+    void catalogueAndLoansSurviveRestart() throws Exception {
+        long iSBN;
+        try (ConfigurableApplicationContext context = start()) {
+            BookDTO book = new BookDTO(null, "Persistente", "Autor", 3, 3);
+            iSBN = context.getBean(LibraryService.class).createNewBook(book).getISBN();
+            context.getBean(UserService.class).orderBook(iSBN, 1L);
+        }
+        assertTrue(Files.exists(dataDir.resolve("library.mv.db")));
+
+        try (ConfigurableApplicationContext context = start()) {
+            assertEquals(2, context.getBean(LibraryService.class).getBookByISBN(iSBN).getAvailableCopies());
+            assertEquals(1, context.getBean(LoanRepository.class).count());
+            context.getBean(UserService.class).orderBook(iSBN, 2L);
+        }
+
+        // Un registro nuevo debe continuar la numeración que ya tiene la base de datos
+        Files.delete(dataDir.resolve("loans.log"));
+        try (ConfigurableApplicationContext context = start()) {
+            context.getBean(UserService.class).orderBook(iSBN, 3L);
+            context.getBean(LoanWriter.class).flush();
+            assertEquals(0, context.getBean(BookRepository.class).findById(iSBN).orElseThrow().getAvailableCopies());
+            assertEquals(3, context.getBean(LoanRepository.class).count());
+        }
+    }
+
+    /**
+     * Prueba que al reiniciar los índices se restauran de la instantánea del catálogo y que después se
+     * corrigen los libros que cambiaron en la base de datos sin pasar por la aplicación.
+     */
+    @Test
+    void indexesRestoredFromSnapshot() throws Exception {
+        long kept;
+        long changed;
+        try (ConfigurableApplicationContext context = start()) {
+            LibraryService libraryService = context.getBean(LibraryService.class);
+            kept = libraryService.createNewBook(new BookDTO(null, "Instantánea", "Autor", 1, 1)).getISBN();
+            changed = libraryService.createNewBook(new BookDTO(null, "Antes", "Autor", 1, 1)).getISBN();
+        }
+        assertTrue(Files.exists(dataDir.resolve("catalogue.snapshot")));
+
+        // Un cambio hecho con la aplicación parada no está en la instantánea
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:file:" + dataDir.resolve("library"), "hillogy", "password");
+                PreparedStatement statement = connection.prepareStatement("UPDATE tb_books SET title = 'Después' WHERE isbn = ?")) {
+            statement.setLong(1, changed);
+            assertEquals(1, statement.executeUpdate());
+        }
+
+        try (ConfigurableApplicationContext context = start()) {
+            BookSearchIndex index = context.getBean(BookSearchIndex.class);
+            assertEquals("Instantánea", index.get(kept).getTitle());
+            awaitReady(context);
+            assertEquals("Después", index.get(changed).getTitle());
+        }
+    }
+
+    /**
+     * Prueba que mientras se contrasta una instantánea desfasada no se presta un ejemplar que la
+     * instantánea cuenta como disponible pero la base de datos ya no tiene.
+     */
+    @Test
+    void staleSnapshotDoesNotLendMissingCopies() throws Exception {
+        long iSBN;
+        try (ConfigurableApplicationContext context = start()) {
+            iSBN = context.getBean(LibraryService.class).createNewBook(new BookDTO(null, "Último ejemplar", "Autor", 1, 1)).getISBN();
+        }
+
+        // El ejemplar se presta con la aplicación parada: la instantánea aún lo cuenta como disponible
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:file:" + dataDir.resolve("library"), "hillogy", "password");
+                PreparedStatement statement = connection.prepareStatement("UPDATE tb_books SET available_copies = 0 WHERE isbn = ?")) {
+            statement.setLong(1, iSBN);
+            assertEquals(1, statement.executeUpdate());
+        }
+
+        try (ConfigurableApplicationContext context = start()) {
+            UserService userService = context.getBean(UserService.class);
+            assertFalse(userService.isBookAvailable(iSBN));
+            assertThrows(BookAlreadyBorrowedException.class, () -> userService.orderBook(iSBN, 1L));
+            awaitReady(context);
+            assertFalse(userService.isBookAvailable(iSBN));
+            assertThrows(BookAlreadyBorrowedException.class, () -> userService.orderBook(iSBN, 1L));
+            context.getBean(LoanWriter.class).flush();
+            assertEquals(0, context.getBean(LoanRepository.class).count());
+        }
+    }
+
+    private static void awaitReady(ConfigurableApplicationContext context) throws InterruptedException {
+        BookIndexSynchronizer synchronizer = context.getBean(BookIndexSynchronizer.class);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!synchronizer.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(synchronizer.isReady());
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(LibraryManagementApplication.class)
+                .profiles("persistent")
+                .run("--server.port=0", "--library.store.path=" + dataDir);
+    }
+}
@@ -0,0 +1,113 @@
+package com.hillogy.LibraryManagement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.exception.BookAlreadyBorrowedException;
+import com.hillogy.LibraryManagement.exception.BookNotFoundException;
+import com.hillogy.LibraryManagement.repository.ReactiveBookRepository;
+import com.hillogy.LibraryManagement.service.LibraryService;
+import com.hillogy.LibraryManagement.service.ReactiveLibraryService;
+import com.hillogy.LibraryManagement.service.ReactiveUserService;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.test.StepVerifier;
+
+/**
+ * Pruebas de la edición reactiva de los servicios contra la misma base de datos H2 que usa JPA.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@SpringBootTest
+class ReactiveBookServiceTest {
+
+    @Autowired
+    private LibraryService libraryService;
+
+    @Autowired
+    private ReactiveLibraryService reactiveLibraryService;
+
+    @Autowired
+    private ReactiveUserService reactiveUserService;
+
+    @Autowired
+    private ReactiveBookRepository reactiveBookRepository;
+
+    @Autowired
+    private ApplicationContext context;
+
+    /**
+     * Un libro creado con JPA se presta y se devuelve por la API reactiva, y la API bloqueante ve los cambios.
+     */
+    @Test
+    void orderAndReturnThroughTheBlockingService() throws BookNotFoundException {
+        BookDTO book = libraryService.createNewBook(new BookDTO(null, "Pedro Páramo", "Juan Rulfo", true));
+
+        StepVerifier.create(reactiveUserService.orderBook(book.getISBN(), null))
+                .expectNextMatches(ordered -> !ordered.isAvailable())
+                .verifyComplete();
+        StepVerifier.create(reactiveUserService.orderBook(book.getISBN(), null))
+                .verifyError(BookAlreadyBorrowedException.class);
+        assertFalse(libraryService.getBookByISBN(book.getISBN()).isAvailable());
+
+        StepVerifier.create(reactiveUserService.returnBook(book.getISBN(), null))
+                .expectNextMatches(BookDTO::isAvailable)
+                .verifyComplete();
+        StepVerifier.create(reactiveUserService.orderBook(-1L, null))
+                .verifyError(BookNotFoundException.class);
+        StepVerifier.create(reactiveLibraryService.getBookByISBN(-1L))
+                .verifyError(BookNotFoundException.class);
+    }
+
+    /**
+     * Las consultas emiten sólo los libros pedidos por el suscriptor y tratan los comodines como literales.
+     */
+    @Test
+    void queriesHonourDemandAndEscapeWildcards() {
+        libraryService.createNewBook(new BookDTO(null, "El 50% de nada", "Reactivo", true));
+        libraryService.createNewBook(new BookDTO(null, "El cincuenta", "Reactivo", true));
+
+        StepVerifier.create(reactiveBookRepository.findByAuthorContainingIgnoreCase("reactivo"), 1)
+                .expectNextCount(1)
+                .thenRequest(1)
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(reactiveBookRepository.findByTitleContainingIgnoreCase("50%"))
+                .expectNextMatches(book -> book.getTitle().equals("El 50% de nada"))
+                .verifyComplete();
+        StepVerifier.create(reactiveLibraryService.searchBooksByAuthor("Reactivo"))
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    /**
+     * R2DBC no sustituye a la configuración automática de JDBC: hay un único DataSource de Hikari con
+     * las propiedades spring.datasource.hikari.*, el único gestor de transacciones es el de JPA y la
+     * factoría de conexiones R2DBC no se publica como bean. Lo que JPA confirma lo lee R2DBC.
+     */
+    @Test
+    void r2dbcLeavesJdbcAutoConfigurationInPlace() {
+        HikariDataSource dataSource = context.getBean(HikariDataSource.class);
+        assertEquals(20, dataSource.getMaximumPoolSize());
+        assertInstanceOf(JpaTransactionManager.class, context.getBean(PlatformTransactionManager.class));
+        assertEquals(1, context.getBeanNamesForType(PlatformTransactionManager.class).length);
+        assertEquals(0, context.getBeanNamesForType(ConnectionFactory.class).length);
+
+        BookDTO book = libraryService.createNewBook(new BookDTO(null, "Los de abajo", "Mariano Azuela", true));
+        StepVerifier.create(reactiveBookRepository.findById(book.getISBN()))
+                .expectNextMatches(found -> found.getTitle().equals("Los de abajo"))
+                .verifyComplete();
+    }
+}
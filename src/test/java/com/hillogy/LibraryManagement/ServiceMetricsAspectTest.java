@@ -0,0 +1,103 @@
+package com.hillogy.LibraryManagement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.exception.BookNotFoundException;
+import com.hillogy.LibraryManagement.metrics.ServiceMetricsAspect;
+import com.hillogy.LibraryManagement.service.LibraryService;
+import com.hillogy.LibraryManagement.service.ReactiveLibraryService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+
+/**
+ * Clase de pruebas unitarias para el aspecto de métricas de la capa de servicio.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+public class ServiceMetricsAspectTest {
+
+    private SimpleMeterRegistry registry;
+    private LibraryService target;
+    private LibraryService proxy;
+    private ServiceMetricsAspect aspect;
+
+    /**
+     * Envuelve un servicio simulado con el aspecto y un registro de métricas en memoria.
+     */
+    @Before
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        aspect = new ServiceMetricsAspect();
+        ReflectionTestUtils.setField(aspect, "meterRegistry", registry);
+        target = mock(LibraryService.class);
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(aspect);
+        proxy = factory.getProxy();
+    }
+
+    /**
+     * Prueba que se registran el tiempo y el tamaño del resultado de una búsqueda.
+     */
+    @Test
+    public void testRecordsTimerAndResultSize() {
+        when(target.searchBooksByTitle("Title")).thenReturn(Arrays.asList(new BookDTO(), new BookDTO()));
+
+        proxy.searchBooksByTitle("Title");
+
+        assertEquals(1, registry.get("library.service.calls").tag("method", "searchBooksByTitle").tag("exception", "none").timer().count());
+        assertEquals(2.0, registry.get("library.service.results").tag("method", "searchBooksByTitle").summary().totalAmount(), 0.0);
+    }
+
+    /**
+     * Prueba que las excepciones se cuentan por tipo y se propagan sin modificar.
+     * 
+     * @throws BookNotFoundException nunca, se captura en la prueba.
+     */
+    @Test
+    public void testCountsErrors() throws BookNotFoundException {
+        when(target.getBookByISBN(1L)).thenThrow(new BookNotFoundException("Libro no encontrado"));
+
+        try {
+            proxy.getBookByISBN(1L);
+            fail("Se esperaba BookNotFoundException");
+        } catch (BookNotFoundException ex) {
+            assertEquals("Libro no encontrado", ex.getMessage());
+        }
+
+        assertEquals(1.0, registry.get("library.service.errors").tag("exception", "BookNotFoundException").counter().count(), 0.0);
+        assertEquals(1, registry.get("library.service.calls").tag("exception", "BookNotFoundException").timer().count());
+    }
+
+    /**
+     * Prueba que en los servicios reactivos se mide la suscripción y no la creación del flujo.
+     */
+    @Test
+    public void testMeasuresReactiveResultsOnSubscription() {
+        ReactiveLibraryService reactiveTarget = mock(ReactiveLibraryService.class);
+        when(reactiveTarget.searchBooksByAuthor("Author")).thenReturn(Flux.just(new BookDTO(), new BookDTO(), new BookDTO()));
+        AspectJProxyFactory factory = new AspectJProxyFactory(reactiveTarget);
+        factory.addAspect(aspect);
+        ReactiveLibraryService reactiveProxy = factory.getProxy();
+
+        Flux<BookDTO> books = reactiveProxy.searchBooksByAuthor("Author");
+        assertNull(registry.find("library.service.calls").timer());
+
+        books.blockLast();
+        assertEquals(1, registry.get("library.service.calls").tag("method", "searchBooksByAuthor").timer().count());
+        assertEquals(3.0, registry.get("library.service.results").tag("method", "searchBooksByAuthor").summary().totalAmount(), 0.0);
+    }
+}
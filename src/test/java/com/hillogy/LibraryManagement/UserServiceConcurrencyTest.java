@@ -0,0 +1,260 @@
+package com.hillogy.LibraryManagement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hillogy.LibraryManagement.dto.BookDTO;
+import com.hillogy.LibraryManagement.dto.BookOperationResultDTO;
+import com.hillogy.LibraryManagement.dto.LoanDTO;
+import com.hillogy.LibraryManagement.dto.LoanPageDTO;
+import com.hillogy.LibraryManagement.exception.BookAlreadyBorrowedException;
+import com.hillogy.LibraryManagement.loan.LoanWriter;
+import com.hillogy.LibraryManagement.repository.BookRepository;
+import com.hillogy.LibraryManagement.service.LibraryService;
+import com.hillogy.LibraryManagement.service.LoanService;
+import com.hillogy.LibraryManagement.service.UserService;
+
+/**
+ * Pruebas de concurrencia del préstamo de libros contra la base de datos H2.
+ *
+ * @author oscaralejandroflorez@gmail.com
+ * @version 1.0
+ */
+@SpringBootTest
+class UserServiceConcurrencyTest {
+
+    private static final int THREADS = 200;
+
+    @Autowired
+    private LibraryService libraryService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanWriter loanWriter;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    /**
+     * Muchos hilos piden a la vez el mismo libro: sólo uno puede llevárselo
+     * y el resto recibe BookAlreadyBorrowedException.
+     */
+    @Test
+    void concurrentOrdersBorrowTheBookOnlyOnce() throws Exception {
+        BookDTO book = libraryService.createNewBook(new BookDTO(null, "Concurrencia", "Hilos", true));
+        AtomicInteger borrowed = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        userService.orderBook(book.getISBN(), 7L);
+                        borrowed.incrementAndGet();
+                    } catch (BookAlreadyBorrowedException ex) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, borrowed.get());
+        assertEquals(THREADS - 1, conflicts.get());
+        assertFalse(libraryService.getBookByISBN(book.getISBN()).isAvailable());
+
+        // El único préstamo aceptado llega a tb_books y a tb_loans
+        loanWriter.flush();
+        assertFalse(bookRepository.findBookByISBN(book.getISBN()).orElseThrow().isAvailable());
+        List<LoanDTO> history = loanService.getLoanHistory(book.getISBN(), null, 10).getContent();
+        assertEquals(1, history.size());
+        assertEquals(Long.valueOf(7L), history.get(0).getBorrowerId());
+        assertNull(history.get(0).getReturnedAt());
+    }
+
+    /**
+     * Muchos hilos piden a la vez un título con varios ejemplares: se prestan exactamente
+     * tantos como tiene, y el contador llega a cero en tb_books con un préstamo abierto por ejemplar.
+     */
+    @Test
+    void concurrentOrdersBorrowEachCopyOnce() throws Exception {
+        int copies = 5;
+        BookDTO book = new BookDTO(null, "Novedad", "Muchos ejemplares", true);
+        book.setCopies(copies);
+        BookDTO created = libraryService.createNewBook(book);
+        assertEquals(copies, created.getAvailableCopies());
+
+        AtomicInteger borrowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                long borrowerId = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        userService.orderBook(created.getISBN(), borrowerId);
+                        borrowed.incrementAndGet();
+                    } catch (BookAlreadyBorrowedException ex) {
+                        // No quedaban ejemplares
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(copies, borrowed.get());
+        assertFalse(userService.isBookAvailable(created.getISBN()));
+
+        loanWriter.flush();
+        assertEquals(0, bookRepository.findBookByISBN(created.getISBN()).orElseThrow().getAvailableCopies());
+        assertEquals(copies, loanService.getLoanHistory(created.getISBN(), null, 10).getSize());
+
+        // Al devolver un ejemplar se cierra el préstamo más antiguo y el título vuelve a estar disponible
+        BookDTO returned = userService.returnBook(created.getISBN(), null);
+        assertEquals(1, returned.getAvailableCopies());
+        assertTrue(returned.isAvailable());
+        loanWriter.flush();
+        List<LoanDTO> history = loanService.getLoanHistory(created.getISBN(), null, 10).getContent();
+        assertNotNull(history.get(0).getReturnedAt());
+        assertNull(history.get(1).getReturnedAt());
+    }
+
+    /**
+     * Un préstamo y su devolución se aceptan antes de escribirse en la base de datos,
+     * que tras vaciar el registro queda con el libro disponible.
+     */
+    @Test
+    void loansAreWrittenBehindInOrder() throws Exception {
+        BookDTO book = libraryService.createNewBook(new BookDTO(null, "Escritura diferida", "Registro", true));
+
+        assertFalse(userService.orderBook(book.getISBN(), 8L).isAvailable());
+        assertFalse(userService.isBookAvailable(book.getISBN()));
+        assertTrue(userService.returnBook(book.getISBN(), 8L).isAvailable());
+        assertFalse(userService.orderBook(book.getISBN(), 9L).isAvailable());
+
+        loanWriter.flush();
+        assertFalse(bookRepository.findBookByISBN(book.getISBN()).orElseThrow().isAvailable());
+        List<LoanDTO> history = loanService.getLoanHistory(book.getISBN(), null, 10).getContent();
+        assertEquals(2, history.size());
+        assertEquals(Long.valueOf(8L), history.get(0).getBorrowerId());
+        assertNotNull(history.get(0).getReturnedAt());
+        assertEquals(Long.valueOf(9L), history.get(1).getBorrowerId());
+        assertNull(history.get(1).getReturnedAt());
+    }
+
+    /**
+     * Al devolver un ejemplar de un título con varios prestados se cierra el préstamo de quien lo
+     * devuelve, tanto con escritura diferida como directamente en la base de datos.
+     */
+    @Test
+    void returnClosesTheBorrowersLoan() throws Exception {
+        BookDTO book = new BookDTO(null, "Varios lectores", "Préstamos", true);
+        book.setCopies(3);
+        long iSBN = libraryService.createNewBook(book).getISBN();
+        for (long borrowerId = 1; borrowerId <= 3; borrowerId++) {
+            userService.orderBook(iSBN, borrowerId);
+        }
+
+        assertEquals(1, userService.returnBook(iSBN, 2L).getAvailableCopies());
+        Object writer = AopTestUtils.getTargetObject(loanWriter);
+        loanWriter.flush();
+        ReflectionTestUtils.setField(writer, "writeBehind", false);
+        try {
+            assertEquals(BookOperationResultDTO.Status.RETURNED, userService.returnBooks(List.of(iSBN), 3L).get(0).getStatus());
+        } finally {
+            ReflectionTestUtils.setField(writer, "writeBehind", true);
+        }
+
+        List<LoanDTO> history = loanService.getLoanHistory(iSBN, null, 10).getContent();
+        assertEquals(Long.valueOf(1L), history.get(0).getBorrowerId());
+        assertNull(history.get(0).getReturnedAt());
+        assertEquals(Long.valueOf(2L), history.get(1).getBorrowerId());
+        assertNotNull(history.get(1).getReturnedAt());
+        assertEquals(Long.valueOf(3L), history.get(2).getBorrowerId());
+        assertNotNull(history.get(2).getReturnedAt());
+    }
+
+    /**
+     * Los préstamos abiertos de un usuario y los vencidos se recorren por páginas
+     * sin repetir ni saltarse ninguno.
+     */
+    @Test
+    void activeAndOverdueLoansArePaged() throws Exception {
+        long borrowerId = 42L;
+        Object target = AopTestUtils.getTargetObject(userService);
+        Duration loanPeriod = (Duration) ReflectionTestUtils.getField(target, "loanPeriod");
+        List<Long> overdue = new ArrayList<>();
+        try {
+            // Préstamos que vencieron hace 3, 2 y 1 días
+            for (int days = 3; days >= 1; days--) {
+                ReflectionTestUtils.setField(target, "loanPeriod", Duration.ofDays(-days));
+                BookDTO book = libraryService.createNewBook(new BookDTO(null, "Vencido " + days, "Mora", true));
+                userService.orderBook(book.getISBN(), borrowerId);
+                overdue.add(book.getISBN());
+            }
+        } finally {
+            ReflectionTestUtils.setField(target, "loanPeriod", loanPeriod);
+        }
+        BookDTO returned = libraryService.createNewBook(new BookDTO(null, "Devuelto", "Mora", true));
+        userService.orderBook(returned.getISBN(), borrowerId);
+        userService.returnBook(returned.getISBN(), borrowerId);
+        loanWriter.flush();
+
+        LoanPageDTO first = loanService.getActiveLoans(borrowerId, null, 2);
+        assertEquals(2, first.getSize());
+        assertNotNull(first.getNextAfter());
+        LoanPageDTO second = loanService.getActiveLoans(borrowerId, first.getNextAfter(), 2);
+        assertEquals(1, second.getSize());
+        assertNull(second.getNextAfter());
+
+        List<Long> overdueISBNs = new ArrayList<>();
+        Long after = null;
+        do {
+            LoanPageDTO page = loanService.getOverdueLoans(after, 1);
+            page.getContent().forEach(loan -> overdueISBNs.add(loan.getISBN()));
+            after = page.getNextAfter();
+        } while (after != null);
+        assertEquals(overdue, overdueISBNs.subList(overdueISBNs.size() - overdue.size(), overdueISBNs.size()));
+    }
+}